@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners.benchmark;
+
+import dev.machinateur.hotcorners.ApplicationConfiguration;
+import dev.machinateur.hotcorners.AreaTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration load, parse and compile time for large property files. The console output of the parser is discarded
+ * during the benchmark, but it's still formatted, as it would be on startup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ApplicationConfigurationBenchmark {
+
+    @Param({"4", "100", "1000", "10000"})
+    public int areas;
+
+    private byte[] propertyArray;
+
+    private PrintStream out;
+
+    @Setup
+    public void setup() throws IOException {
+        final ApplicationConfiguration configuration = new ApplicationConfiguration();
+        configuration.clear();
+
+        for (Map.Entry<Rectangle, int[]> keyStrokeEntry : BenchmarkAreas.create(this.areas, 42L).entrySet()) {
+            final Rectangle area = keyStrokeEntry.getKey();
+
+            configuration.put(area.x, area.y, area.x + area.width, area.y + area.height, keyStrokeEntry.getValue());
+        }
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        configuration.store(outputStream, null);
+
+        this.propertyArray = outputStream.toByteArray();
+        this.out = System.out;
+
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(this.out);
+    }
+
+    @Benchmark
+    public ApplicationConfiguration load() throws IOException {
+        final ApplicationConfiguration configuration = new ApplicationConfiguration();
+        configuration.load(new ByteArrayInputStream(this.propertyArray));
+
+        return configuration;
+    }
+
+    @Benchmark
+    public Map<Rectangle, int[]> loadAndParse() throws IOException {
+        return this.load().parseConfiguration();
+    }
+
+    @Benchmark
+    public AreaTable loadAndCompile() throws IOException {
+        return this.load().compileConfiguration();
+    }
+}
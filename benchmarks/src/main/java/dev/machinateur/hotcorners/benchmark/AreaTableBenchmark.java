@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners.benchmark;
+
+import dev.machinateur.hotcorners.AreaTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.*;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick hit-testing, i.e. the lookup done by {@code Application#mouseMoved()} for each sample, and the segment
+ * lookup done in sweep mode. The linear scan over the parsed map is the way it used to be done, for comparison (it
+ * only tests the bounds of shapes).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AreaTableBenchmark {
+
+    private static final int POINT_COUNT = 1024;
+
+    @Param({"4", "100", "1000", "10000"})
+    public int areas;
+
+    /**
+     * Whether some of the areas are shapes, see {@link BenchmarkAreas#create(int, long, boolean)}.
+     */
+    @Param({"false", "true"})
+    public boolean shapes;
+
+    private Map<Rectangle, int[]> keyStrokeMap;
+
+    private AreaTable areaTable;
+
+    private int[] areaResult;
+
+    private int[] segmentResult;
+
+    private int[] pointArray;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        this.keyStrokeMap = BenchmarkAreas.create(this.areas, 42L, this.shapes);
+        this.areaTable = AreaTable.compile(this.keyStrokeMap);
+        this.areaResult = new int[this.areaTable.getMaximumOverlap()];
+        this.segmentResult = new int[this.areaTable.size()];
+        this.pointArray = BenchmarkAreas.createPoints(AreaTableBenchmark.POINT_COUNT, 7L);
+    }
+
+    private int next() {
+        return this.index = (this.index + 2) % this.pointArray.length;
+    }
+
+    @Benchmark
+    public int query() {
+        final int i = this.next();
+
+        return this.areaTable.query(this.pointArray[i], this.pointArray[i + 1], this.areaResult);
+    }
+
+    @Benchmark
+    public int find() {
+        final int i = this.next();
+
+        return this.areaTable.find(this.pointArray[i], this.pointArray[i + 1]);
+    }
+
+    /**
+     * The segment between two random points, most of which span a good part of the desktop, so that's the worst case.
+     */
+    @Benchmark
+    public int querySegment() {
+        final int i = this.next();
+        final int j = (i + 2) % this.pointArray.length;
+
+        return this.areaTable.querySegment(this.pointArray[i], this.pointArray[i + 1],
+                this.pointArray[j], this.pointArray[j + 1], null, this.segmentResult);
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        final int i = this.next();
+        final int x = this.pointArray[i];
+        final int y = this.pointArray[i + 1];
+
+        for (final Map.Entry<Rectangle, int[]> keyStrokeEntry : this.keyStrokeMap.entrySet()) {
+            if (keyStrokeEntry.getKey().contains(x, y)) {
+                blackhole.consume(keyStrokeEntry.getValue());
+            }
+        }
+    }
+
+    @Benchmark
+    public int distance() {
+        final int i = this.next();
+
+        return this.areaTable.distance(this.pointArray[i], this.pointArray[i + 1], 200);
+    }
+}
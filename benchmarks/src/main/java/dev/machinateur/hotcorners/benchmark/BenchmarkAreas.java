@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners.benchmark;
+
+import dev.machinateur.hotcorners.AreaShape;
+
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generator of area layouts for benchmarks: The given number of small zones along the edges of a large virtual desktop
+ * (three HD screens side by side), as generated configurations usually have them. A few zones go into the interior, to
+ * have some overlap.
+ */
+final class BenchmarkAreas {
+
+    static final int WIDTH = 3 * 1920;
+
+    static final int HEIGHT = 1080;
+
+    static final int THICKNESS = 2;
+
+    static final int INTERIOR_LIMIT = 64;
+
+    private BenchmarkAreas() {
+    }
+
+    static Map<Rectangle, int[]> create(int size, long seed) {
+        return BenchmarkAreas.create(size, seed, false);
+    }
+
+    /**
+     * @param shapes Whether to make the interior zones circles and every third zone on the edges a triangle, instead of
+     *               rectangles.
+     */
+    static Map<Rectangle, int[]> create(int size, long seed, boolean shapes) {
+        final Random random = new Random(seed);
+        final Map<Rectangle, int[]> keyStrokeMap = new LinkedHashMap<Rectangle, int[]>();
+        final long perimeter = 2L * (BenchmarkAreas.WIDTH + BenchmarkAreas.HEIGHT);
+        final int length = (int) Math.max(BenchmarkAreas.THICKNESS, perimeter / Math.max(1, size));
+
+        for (int i = 0; keyStrokeMap.size() < size; i++) {
+            Rectangle area;
+
+            if (0 == i % 10) {
+                final int extent = Math.min(length, BenchmarkAreas.INTERIOR_LIMIT);
+
+                area = new Rectangle(random.nextInt(BenchmarkAreas.WIDTH - extent), random.nextInt(BenchmarkAreas.HEIGHT - extent), extent, extent);
+            } else {
+                long offset = random.nextLong(perimeter);
+
+                if (offset < BenchmarkAreas.WIDTH) {
+                    area = new Rectangle((int) offset, 0, length, BenchmarkAreas.THICKNESS);
+                } else if ((offset -= BenchmarkAreas.WIDTH) < BenchmarkAreas.HEIGHT) {
+                    area = new Rectangle(BenchmarkAreas.WIDTH - BenchmarkAreas.THICKNESS, (int) offset, BenchmarkAreas.THICKNESS, length);
+                } else if ((offset -= BenchmarkAreas.HEIGHT) < BenchmarkAreas.WIDTH) {
+                    area = new Rectangle((int) offset, BenchmarkAreas.HEIGHT - BenchmarkAreas.THICKNESS, length, BenchmarkAreas.THICKNESS);
+                } else {
+                    area = new Rectangle(0, (int) (offset - BenchmarkAreas.WIDTH), BenchmarkAreas.THICKNESS, length);
+                }
+            }
+
+            if (shapes && 0 == i % 10) {
+                area = AreaShape.create("circle", (int) area.getCenterX(), (int) area.getCenterY(), Math.max(1, area.width / 2));
+            } else if (shapes && 1 == i % 3) {
+                area = AreaShape.create("triangle", area.x, area.y, area.x + area.width, area.y, area.x, area.y + area.height);
+            }
+
+            keyStrokeMap.put(area, new int[]{KeyEvent.VK_WINDOWS, KeyEvent.VK_D, 0, 0, 0});
+        }
+
+        return keyStrokeMap;
+    }
+
+    /**
+     * Create sample points, half of them on the edges, where most of the areas are.
+     */
+    static int[] createPoints(int size, long seed) {
+        final Random random = new Random(seed);
+        final int[] pointArray = new int[size * 2];
+
+        for (int i = 0; i < size; i++) {
+            int x = random.nextInt(BenchmarkAreas.WIDTH);
+            int y = random.nextInt(BenchmarkAreas.HEIGHT);
+
+            if (random.nextBoolean()) {
+                if (random.nextBoolean()) {
+                    y = random.nextBoolean() ? 0 : BenchmarkAreas.HEIGHT - 1;
+                } else {
+                    x = random.nextBoolean() ? 0 : BenchmarkAreas.WIDTH - 1;
+                }
+            }
+
+            pointArray[i * 2] = x;
+            pointArray[i * 2 + 1] = y;
+        }
+
+        return pointArray;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners.benchmark;
+
+import dev.machinateur.hotcorners.MouseMotionObserver;
+import dev.machinateur.hotcorners.MouseMotionSampleListener;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatch of a sample to N subscribers, while another thread keeps registering and unregistering a listener at the
+ * same time. Compare the {@code sample} score of the group to {@code MouseMotionObserverBenchmark.sample}, to see how
+ * much the registration churn slows down the sampler.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Group)
+public class MouseMotionListenerRegistryBenchmark {
+
+    @Param({"1", "8", "64"})
+    public int subscribers;
+
+    private MouseMotionObserver observer;
+
+    private MouseMotionSampleListener churnListener;
+
+    private int x;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        this.observer = new MouseMotionObserver(new Canvas(), 10);
+        this.churnListener = (nanos, x, y) -> blackhole.consume(x);
+
+        for (int i = 0; i < this.subscribers; i++) {
+            this.observer.addMouseMotionSampleListener((nanos, x, y) -> blackhole.consume(x + y), i % 3);
+        }
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public boolean sample() {
+        return this.observer.sample(System.nanoTime(), this.x ^= 1, 0);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public void register() {
+        this.observer.addMouseMotionSampleListener(this.churnListener, 1);
+        this.observer.removeMouseMotionSampleListener(this.churnListener);
+    }
+}
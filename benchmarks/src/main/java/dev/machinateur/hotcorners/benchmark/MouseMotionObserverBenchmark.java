@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners.benchmark;
+
+import dev.machinateur.hotcorners.MouseMotionObserver;
+import dev.machinateur.hotcorners.MouseMotionSampleListener;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseMotionListener;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener fan-out of a single sample to N subscribers, through the primitive {@link MouseMotionSampleListener}
+ * contract and through the {@link MouseMotionListener} adapter. Run with {@code -prof gc} to see the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class MouseMotionObserverBenchmark {
+
+    @Param({"1", "8", "64"})
+    public int subscribers;
+
+    private MouseMotionObserver sampleObserver;
+
+    private MouseMotionObserver eventObserver;
+
+    private int x;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        final Component source = new Canvas();
+
+        this.sampleObserver = new MouseMotionObserver(source, 10);
+        this.eventObserver = new MouseMotionObserver(source, 10);
+
+        for (int i = 0; i < this.subscribers; i++) {
+            this.sampleObserver.addMouseMotionSampleListener((nanos, x, y) -> blackhole.consume(x + y));
+            this.eventObserver.addMouseMotionListener(new MouseMotionListener() {
+                @Override
+                public void mouseDragged(MouseEvent event) {
+                }
+
+                @Override
+                public void mouseMoved(MouseEvent event) {
+                    blackhole.consume(event.getX() + event.getY());
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public boolean sample() {
+        // Alternate the position, so that no sample is skipped as unchanged.
+        return this.sampleObserver.sample(System.nanoTime(), this.x ^= 1, 0);
+    }
+
+    @Benchmark
+    public boolean sampleEvent() {
+        return this.eventObserver.sample(System.nanoTime(), this.x ^= 1, 0);
+    }
+}
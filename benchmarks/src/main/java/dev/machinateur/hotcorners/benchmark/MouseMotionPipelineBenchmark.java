@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners.benchmark;
+
+import dev.machinateur.hotcorners.MouseMotionPipeline;
+import dev.machinateur.hotcorners.MouseMotionRing;
+import dev.machinateur.hotcorners.MouseMotionStageFilter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a sample on the source thread, with all stages fused, and with the trigger and dispatch stages on their own
+ * threads, per wait strategy. The trigger stage stands in for the hit-test, the dispatch stage for the listeners.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class MouseMotionPipelineBenchmark {
+
+    @Param({"none", "trigger", "trigger,dispatch"})
+    public String threads;
+
+    @Param({"spin", "block"})
+    public String wait;
+
+    private MouseMotionPipeline pipeline;
+
+    private int x;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        this.pipeline = new MouseMotionPipeline();
+        this.pipeline.addStage(MouseMotionPipeline.STAGE_FILTER, new MouseMotionStageFilter());
+        this.pipeline.addStage(MouseMotionPipeline.STAGE_TRIGGER, sample -> {
+            blackhole.consume(sample.getX() * 31 + sample.getY());
+
+            return true;
+        });
+        this.pipeline.addStage(MouseMotionPipeline.STAGE_DISPATCH, sample -> {
+            blackhole.consume(sample.getNanos());
+
+            return true;
+        });
+
+        if (!"none".equals(this.threads)) {
+            for (String name : this.threads.split(",")) {
+                this.pipeline.setThreaded(name, true);
+            }
+        }
+
+        this.pipeline.setWait(MouseMotionRing.parseWait(this.wait));
+        this.pipeline.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.pipeline.stop();
+    }
+
+    @Benchmark
+    public boolean publish() {
+        // Alternate the position, so that no sample is skipped as unchanged.
+        return this.pipeline.publish(System.nanoTime(), this.x ^= 1, 0);
+    }
+}
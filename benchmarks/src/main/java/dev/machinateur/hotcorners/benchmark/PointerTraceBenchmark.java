@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners.benchmark;
+
+import dev.machinateur.hotcorners.AreaTable;
+import dev.machinateur.hotcorners.AreaTrigger;
+import dev.machinateur.hotcorners.MouseMotionObserver;
+import dev.machinateur.hotcorners.PointerTraceReader;
+import dev.machinateur.hotcorners.PointerTraceRecorder;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replay of a recorded trace of {@link #SIZE} samples (one per millisecond), as fast as possible, through an observer
+ * into the hit-testing of {@code 1000} areas, and the plain reading of the memory-mapped file for comparison. The
+ * score is per sample.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class PointerTraceBenchmark {
+
+    static final int SIZE = 1_000_000;
+
+    private Path path;
+
+    private PointerTraceReader reader;
+
+    private MouseMotionObserver observer;
+
+    @Setup
+    public void setup() throws IOException {
+        final Rectangle bounds = new Rectangle(0, 0, BenchmarkAreas.WIDTH, BenchmarkAreas.HEIGHT);
+        final int[] traceArray = SweepMissRate.createTrace(PointerTraceBenchmark.SIZE, bounds, 7L);
+
+        this.path = Files.createTempFile("hotcorners-", ".trace");
+
+        try (PointerTraceRecorder recorder = new PointerTraceRecorder(this.path)) {
+            for (int i = 0; i < PointerTraceBenchmark.SIZE; i++) {
+                recorder.mouseMoved(TimeUnit.MILLISECONDS.toNanos(i), traceArray[i * 2], traceArray[i * 2 + 1]);
+            }
+        }
+
+        final AreaTable areaTable = AreaTable.compile(BenchmarkAreas.create(1000, 42L));
+        final AreaTrigger areaTrigger = new AreaTrigger(areaTable, (nanos, index) -> {
+        }, true, bounds, null);
+
+        this.reader = new PointerTraceReader(this.path);
+        this.observer = new MouseMotionObserver(new Canvas(), 10);
+        this.observer.addMouseMotionSampleListener(areaTrigger::update);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.reader.close();
+
+        Files.deleteIfExists(this.path);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PointerTraceBenchmark.SIZE)
+    public int replay() {
+        return this.reader.replay(this.observer, false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PointerTraceBenchmark.SIZE)
+    public long read() {
+        final PointerTraceReader reader = this.reader;
+        long sum = 0L;
+
+        reader.rewind();
+
+        while (reader.next()) {
+            sum += reader.getX() + reader.getY();
+        }
+
+        return sum;
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners.benchmark;
+
+import dev.machinateur.hotcorners.ApplicationConfigurationCalculation;
+import dev.machinateur.hotcorners.AreaTable;
+import dev.machinateur.hotcorners.AreaTrigger;
+import dev.machinateur.hotcorners.AreaTriggerListener;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trace-driven measurement of the latency gained by predicting area entries, against the false triggers it causes. Not
+ * a JMH benchmark, as it measures detection, not time. Run it with:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar dev.machinateur.hotcorners.benchmark.PredictionGain [seconds] [delay]
+ * </pre>
+ * A pointer trace with one sample per millisecond is generated first: Strokes with the bell-shaped speed profile of a
+ * human arm movement (minimum jerk) towards random targets, which may be beyond the screen, so the pointer is clamped
+ * to the edges and slides into the corners like a real one. Each time the pointer is inside a corner at that rate is
+ * an entry. The trace is then replayed at the delay, with and without prediction, and the time of each action
+ * (relative to the entry it belongs to) is recorded:
+ * <ul>
+ *     <li>{@code off}: The action fires on the first sample inside the area.</li>
+ *     <li>{@code arm}: Same, but sampling at the armed delay while an entry is predicted. The share of the time armed
+ *     is the cost of it.</li>
+ *     <li>{@code fire}: The action fires on prediction already. A prediction without entry is a false trigger.</li>
+ * </ul>
+ */
+public final class PredictionGain {
+
+    private static final int[] HORIZON_ARRAY = {25, 50, 100};
+
+    private static final int[] CONFIDENCE_ARRAY = {50, 80, 95};
+
+    private static final int ARMED_DELAY = 2;
+
+    private static final int DURATION_MINIMUM = 150;
+
+    private static final int DURATION_MAXIMUM = 900;
+
+    private static final int PAUSE_MAXIMUM = 600;
+
+    private static final int OVERSHOOT = 400;
+
+    private PredictionGain() {
+    }
+
+    public static void main(String[] args) {
+        final int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3600;
+        final int delay = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        final Rectangle bounds = new Rectangle(0, 0, BenchmarkAreas.WIDTH, BenchmarkAreas.HEIGHT);
+        final AreaTable areaTable = AreaTable.compile(ApplicationConfigurationCalculation.calculate(bounds));
+        final int[] traceArray = PredictionGain.createTrace((int) TimeUnit.SECONDS.toMillis(seconds), bounds, 7L);
+        final List<List<long[]>> entryList = PredictionGain.createEntries(areaTable, traceArray);
+        final int entries = entryList.stream()
+                .mapToInt(List::size)
+                .sum();
+
+        System.out.printf("%d areas, %ds trace, %d entries, %dms delay." + System.lineSeparator(),
+                areaTable.size(), seconds, entries, delay);
+        System.out.printf("%6s %8s %11s %9s %9s %9s %9s %9s" + System.lineSeparator(),
+                "Mode", "Horizon", "Confidence", "Latency", "Early", "False", "Missed", "Armed");
+
+        PredictionGain.print("off", 0, 0, PredictionGain.replay(areaTable, traceArray, entryList, delay, 0, 0, false), entries);
+
+        for (final String mode : new String[]{"arm", "fire"}) {
+            for (final int horizon : PredictionGain.HORIZON_ARRAY) {
+                for (final int confidence : PredictionGain.CONFIDENCE_ARRAY) {
+                    PredictionGain.print(mode, horizon, confidence, PredictionGain.replay(areaTable, traceArray,
+                            entryList, delay, horizon, confidence, "fire".equals(mode)), entries);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param result The mean latency in milliseconds, the number of actions before the entry, of false triggers and of
+     *               missed entries, and the share of the time armed.
+     */
+    private static void print(String mode, int horizon, int confidence, double[] result, int entries) {
+        System.out.printf("%6s %6dms %10d%% %7.2fms %8.2f%% %8.2f%% %8.2f%% %8.2f%%" + System.lineSeparator(), mode,
+                horizon, confidence, result[0], 100d * result[1] / entries, 100d * result[2] / entries,
+                100d * result[3] / entries, 100d * result[4]);
+    }
+
+    /**
+     * @return The start and end of each entry (in milliseconds), per area.
+     */
+    private static List<List<long[]>> createEntries(AreaTable areaTable, int[] traceArray) {
+        final List<List<long[]>> entryList = new ArrayList<List<long[]>>();
+        final int[] resultArray = new int[areaTable.size()];
+        final long[][] openArray = new long[areaTable.size()][];
+
+        for (int i = 0; i < areaTable.size(); i++) {
+            entryList.add(new ArrayList<long[]>());
+        }
+
+        for (int t = 0; t < traceArray.length / 2; t++) {
+            final int count = areaTable.query(traceArray[t * 2], traceArray[t * 2 + 1], resultArray);
+            final boolean[] insideArray = new boolean[areaTable.size()];
+
+            for (int i = 0; i < count; i++) {
+                insideArray[resultArray[i]] = true;
+            }
+
+            for (int index = 0; index < areaTable.size(); index++) {
+                if (insideArray[index] && null == openArray[index]) {
+                    openArray[index] = new long[]{t, Long.MAX_VALUE};
+                    entryList.get(index).add(openArray[index]);
+                } else if (!insideArray[index] && null != openArray[index]) {
+                    openArray[index][1] = t;
+                    openArray[index] = null;
+                }
+            }
+        }
+
+        return entryList;
+    }
+
+    /**
+     * @return See {@link #print(String, int, int, double[], int)}.
+     */
+    private static double[] replay(AreaTable areaTable, int[] traceArray, List<List<long[]>> entryList, int delay,
+                                   int horizon, int confidence, boolean fire) {
+        final List<long[]> actionList = new ArrayList<long[]>();
+        final AreaTrigger[] areaTrigger = new AreaTrigger[1];
+
+        areaTrigger[0] = new AreaTrigger(areaTable, new AreaTriggerListener() {
+            @Override
+            public void areaTriggered(long nanos, int index) {
+                actionList.add(new long[]{TimeUnit.NANOSECONDS.toMillis(nanos), index});
+            }
+
+            @Override
+            public void areaPredicted(long nanos, int index) {
+                if (fire) {
+                    this.areaTriggered(nanos, index);
+                }
+            }
+
+            @Override
+            public void areaPredictionConfirmed(long nanos, int index) {
+                if (!fire) {
+                    this.areaTriggered(nanos, index);
+                }
+            }
+        }, true, new Rectangle(0, 0, BenchmarkAreas.WIDTH, BenchmarkAreas.HEIGHT), null);
+
+        if (0 < horizon) {
+            areaTrigger[0].setPrediction(horizon, confidence);
+        }
+
+        long armed = 0L;
+
+        for (int t = 0, x = -1, y = -1; t < traceArray.length / 2; ) {
+            final long nanos = TimeUnit.MILLISECONDS.toNanos(t);
+
+            if (x == traceArray[t * 2] && y == traceArray[t * 2 + 1]) {
+                areaTrigger[0].updateStill(nanos, x, y);
+            } else {
+                x = traceArray[t * 2];
+                y = traceArray[t * 2 + 1];
+
+                areaTrigger[0].update(nanos, x, y);
+            }
+
+            if (!fire && 0 < areaTrigger[0].getPredictedCount()) {
+                armed += Math.min(delay, PredictionGain.ARMED_DELAY);
+                t += Math.min(delay, PredictionGain.ARMED_DELAY);
+            } else {
+                t += delay;
+            }
+        }
+
+        final double[] result = PredictionGain.match(entryList, actionList, 2L * horizon);
+
+        result[4] = (double) armed / (traceArray.length / 2);
+
+        return result;
+    }
+
+    /**
+     * Match each action to the entry of its area it belongs to, i.e. the first one that did not end before the action,
+     * if it started within the expiry of a prediction after the action.
+     */
+    private static double[] match(List<List<long[]>> entryList, List<long[]> actionList, long expiry) {
+        final int[] nextArray = new int[entryList.size()];
+        long latency = 0L;
+        int matched = 0;
+        int early = 0;
+        int unmatched = 0;
+
+        for (final long[] action : actionList) {
+            final List<long[]> areaEntryList = entryList.get((int) action[1]);
+            int next = nextArray[(int) action[1]];
+
+            while (next < areaEntryList.size() && areaEntryList.get(next)[1] < action[0]) {
+                next++;
+            }
+
+            if (next < areaEntryList.size() && areaEntryList.get(next)[0] <= action[0] + expiry) {
+                latency += action[0] - areaEntryList.get(next)[0];
+                matched++;
+
+                if (action[0] < areaEntryList.get(next)[0]) {
+                    early++;
+                }
+
+                next++;
+            } else {
+                unmatched++;
+            }
+
+            nextArray[(int) action[1]] = next;
+        }
+
+        final int entries = entryList.stream()
+                .mapToInt(List::size)
+                .sum();
+
+        return new double[]{0 == matched ? 0d : (double) latency / matched, early, unmatched, entries - matched, 0d};
+    }
+
+    /**
+     * @return The trace as {@code x, y} pairs, one per millisecond.
+     */
+    static int[] createTrace(int length, Rectangle bounds, long seed) {
+        final Random random = new Random(seed);
+        final int[] traceArray = new int[length * 2];
+        double x = bounds.getCenterX();
+        double y = bounds.getCenterY();
+
+        for (int i = 0; i < length; ) {
+            final double fromX = x;
+            final double fromY = y;
+            final double toX = bounds.x - PredictionGain.OVERSHOOT + random.nextInt(bounds.width + 2 * PredictionGain.OVERSHOOT);
+            final double toY = bounds.y - PredictionGain.OVERSHOOT + random.nextInt(bounds.height + 2 * PredictionGain.OVERSHOOT);
+            final int duration = PredictionGain.DURATION_MINIMUM
+                    + random.nextInt(PredictionGain.DURATION_MAXIMUM - PredictionGain.DURATION_MINIMUM);
+            final int pause = random.nextInt(PredictionGain.PAUSE_MAXIMUM);
+
+            for (int step = 1; step <= duration + pause && i < length; step++, i++) {
+                if (step <= duration) {
+                    // The minimum jerk position, i.e. 10t^3 - 15t^4 + 6t^5 of the way.
+                    final double s = (double) step / duration;
+                    final double share = s * s * s * (10d - 15d * s + 6d * s * s);
+
+                    x = Math.max(bounds.x, Math.min(bounds.x + bounds.width - 1, fromX + (toX - fromX) * share));
+                    y = Math.max(bounds.y, Math.min(bounds.y + bounds.height - 1, fromY + (toY - fromY) * share));
+                }
+
+                traceArray[i * 2] = (int) Math.round(x);
+                traceArray[i * 2 + 1] = (int) Math.round(y);
+            }
+        }
+
+        return traceArray;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup time and resident memory of the application, until the first sample, with the Swing timer as sampler and
+ * with the sampler thread, which does not load Swing at all. Each mode runs with the default class data sharing of the
+ * runtime and with an application class archive, which is created by a training run first. Not a JMH benchmark, as it
+ * starts a new process for each run. Run it with:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar dev.machinateur.hotcorners.benchmark.StartupTime [jar] [runs]
+ * </pre>
+ * The resident memory is read from {@code /proc}, so it is only available on Linux.
+ */
+public final class StartupTime {
+
+    private static final String[] SAMPLER_ARRAY = {"timer", "thread"};
+
+    private static final String READY_PREFIX = "Event: Movement";
+
+    private static final long TRAINING_MILLIS = 3000L;
+
+    private StartupTime() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final Path jar = Paths.get(args.length > 0 ? args[0] : "target/hotcorners.jar").toAbsolutePath();
+        final int runs = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        final Path directory = Files.createTempDirectory("hotcorners-");
+        final Path archive = directory.resolve("hotcorners.jsa");
+
+        System.out.printf("%d runs of '%s', median until the first sample." + System.lineSeparator(), runs, jar);
+        System.out.printf("%8s %10s %12s %12s" + System.lineSeparator(), "Sampler", "Archive", "Time", "RSS");
+
+        for (final String sampler : StartupTime.SAMPLER_ARRAY) {
+            Files.writeString(directory.resolve("hotcorners.properties"), "sampler=" + sampler + System.lineSeparator()
+                    + "reload=false" + System.lineSeparator());
+            Files.deleteIfExists(archive);
+
+            // The training run archives all classes loaded, on exit.
+            StartupTime.run(jar, directory, "-XX:ArchiveClassesAtExit=" + archive, StartupTime.TRAINING_MILLIS);
+
+            for (final boolean archived : new boolean[]{false, true}) {
+                final long[] nanosArray = new long[runs];
+                final long[] rssArray = new long[runs];
+
+                for (int i = 0; i < runs; i++) {
+                    final long[] result = StartupTime.run(jar, directory,
+                            archived ? "-XX:SharedArchiveFile=" + archive : "-Xshare:auto", 0L);
+
+                    nanosArray[i] = result[0];
+                    rssArray[i] = result[1];
+                }
+
+                Arrays.sort(nanosArray);
+                Arrays.sort(rssArray);
+
+                final long rss = rssArray[runs / 2];
+
+                System.out.printf("%8s %10s %10dms %12s" + System.lineSeparator(), sampler, archived ? "yes" : "no",
+                        TimeUnit.NANOSECONDS.toMillis(nanosArray[runs / 2]), rss < 0L ? "-" : (rss / 1024L) + "MB");
+            }
+        }
+    }
+
+    /**
+     * Start the application, wait for the first sample and stop it again, after the given linger time.
+     *
+     * @return The time until the first sample, in nanoseconds, and the resident memory at that point, in kB (or
+     * {@code -1}, if unknown).
+     */
+    private static long[] run(Path jar, Path directory, String option, long linger) throws IOException, InterruptedException {
+        final List<String> commandList = new ArrayList<String>();
+
+        commandList.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        commandList.add(option);
+        commandList.add("-Djava.awt.headless=true");
+        commandList.add("-jar");
+        commandList.add(jar.toString());
+        commandList.add("--simulate");
+        commandList.add("--verbose");
+
+        final long start = System.nanoTime();
+        final Process process = new ProcessBuilder(commandList)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .start();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+
+            while (null != (line = reader.readLine())) {
+                if (line.startsWith(StartupTime.READY_PREFIX)) {
+                    break;
+                }
+            }
+
+            final long nanos = System.nanoTime() - start;
+
+            if (null == line) {
+                throw new IllegalStateException(String.format("No sample before exit %d!", process.waitFor()));
+            }
+
+            final long rss = StartupTime.getResidentSize(process.pid());
+            // The rest of the output is discarded, but still has to be read, so that the process never blocks on it.
+            final Thread thread = new Thread(() -> {
+                try {
+                    reader.transferTo(Writer.nullWriter());
+                } catch (IOException e) {
+                    // The process is gone.
+                }
+            });
+
+            thread.setDaemon(true);
+            thread.start();
+
+            Thread.sleep(linger);
+
+            process.destroy();
+            process.waitFor();
+            thread.join();
+
+            return new long[]{nanos, rss};
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+
+    private static long getResidentSize(long pid) {
+        final Path status = Paths.get("/proc", Long.toString(pid), "status");
+
+        try {
+            for (final String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException e) {
+            // Not available on this platform.
+        }
+
+        return -1L;
+    }
+}
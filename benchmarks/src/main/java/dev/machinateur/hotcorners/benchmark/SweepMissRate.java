@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners.benchmark;
+
+import dev.machinateur.hotcorners.AreaTable;
+import dev.machinateur.hotcorners.AreaTrigger;
+
+import java.awt.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trace-driven measurement of how many area entries are missed at a given sampling delay, with and without sweep mode.
+ * Not a JMH benchmark, as it measures detection, not time. Run it with:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar dev.machinateur.hotcorners.benchmark.SweepMissRate [seconds] [areas]
+ * </pre>
+ * A pointer trace with one sample per millisecond is generated first: Strokes of random speed towards random targets,
+ * which may be beyond the screen, so the pointer is clamped to the edges like a real one. The entries detected at that
+ * rate, sampling each position, are the reference. The trace is then downsampled to each delay and replayed.
+ */
+public final class SweepMissRate {
+
+    private static final int[] DELAY_ARRAY = {1, 2, 5, 10, 20, 50, 100};
+
+    private static final double SPEED_MINIMUM = 0.5d;
+
+    private static final double SPEED_MAXIMUM = 12d;
+
+    private static final int PAUSE_MAXIMUM = 300;
+
+    private static final int OVERSHOOT = 400;
+
+    private SweepMissRate() {
+    }
+
+    public static void main(String[] args) {
+        final int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 600;
+        final int areas = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        final Rectangle bounds = new Rectangle(0, 0, BenchmarkAreas.WIDTH, BenchmarkAreas.HEIGHT);
+        final AreaTable areaTable = AreaTable.compile(BenchmarkAreas.create(areas, 42L));
+        final int[] traceArray = SweepMissRate.createTrace((int) TimeUnit.SECONDS.toMillis(seconds), bounds, 7L);
+        final long reference = SweepMissRate.replay(areaTable, traceArray, 1, false, bounds);
+
+        System.out.printf("%d areas, %ds trace, %d entries at 1ms." + System.lineSeparator(), areaTable.size(), seconds, reference);
+        System.out.printf("%8s %12s %12s" + System.lineSeparator(), "Delay", "Point", "Sweep");
+
+        for (final int delay : SweepMissRate.DELAY_ARRAY) {
+            final long point = SweepMissRate.replay(areaTable, traceArray, delay, false, bounds);
+            final long sweep = SweepMissRate.replay(areaTable, traceArray, delay, true, bounds);
+
+            System.out.printf("%6dms %11.2f%% %11.2f%%" + System.lineSeparator(), delay,
+                    SweepMissRate.getMissRate(point, reference), SweepMissRate.getMissRate(sweep, reference));
+        }
+    }
+
+    private static double getMissRate(long count, long reference) {
+        return 0 == reference ? 0d : 100d * Math.max(0L, reference - count) / reference;
+    }
+
+    /**
+     * @return The number of area entries detected, with every option off (i.e. no dwell, cooldown or hysteresis).
+     */
+    private static long replay(AreaTable areaTable, int[] traceArray, int delay, boolean sweep, Rectangle bounds) {
+        final AreaTrigger areaTrigger = new AreaTrigger(areaTable, (nanos, index) -> {
+        }, sweep, bounds, null);
+
+        for (int i = 0; i < traceArray.length; i += 2 * delay) {
+            areaTrigger.update(TimeUnit.MILLISECONDS.toNanos(i / 2), traceArray[i], traceArray[i + 1]);
+        }
+
+        return areaTrigger.getTriggerCount();
+    }
+
+    /**
+     * @return The trace as {@code x, y} pairs, one per millisecond.
+     */
+    static int[] createTrace(int length, Rectangle bounds, long seed) {
+        final Random random = new Random(seed);
+        final int[] traceArray = new int[length * 2];
+        double x = bounds.getCenterX();
+        double y = bounds.getCenterY();
+
+        for (int i = 0; i < length; ) {
+            final double toX = bounds.x - SweepMissRate.OVERSHOOT + random.nextInt(bounds.width + 2 * SweepMissRate.OVERSHOOT);
+            final double toY = bounds.y - SweepMissRate.OVERSHOOT + random.nextInt(bounds.height + 2 * SweepMissRate.OVERSHOOT);
+            final double speed = SweepMissRate.SPEED_MINIMUM
+                    + random.nextDouble() * (SweepMissRate.SPEED_MAXIMUM - SweepMissRate.SPEED_MINIMUM);
+            final int steps = Math.max(1, (int) (Math.hypot(toX - x, toY - y) / speed));
+            final double stepX = (toX - x) / steps;
+            final double stepY = (toY - y) / steps;
+            final int pause = random.nextInt(SweepMissRate.PAUSE_MAXIMUM);
+
+            for (int step = 0; step < steps + pause && i < length; step++, i++) {
+                if (step < steps) {
+                    x = Math.max(bounds.x, Math.min(bounds.x + bounds.width - 1, x + stepX));
+                    y = Math.max(bounds.y, Math.min(bounds.y + bounds.height - 1, y + stepY));
+                }
+
+                traceArray[i * 2] = (int) Math.round(x);
+                traceArray[i * 2 + 1] = (int) Math.round(y);
+            }
+        }
+
+        return traceArray;
+    }
+}
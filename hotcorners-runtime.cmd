@@ -0,0 +1,36 @@
+:
+: MIT License
+:
+: Copyright (c) 2021-2022 machinateur
+:
+: Permission is hereby granted, free of charge, to any person obtaining a copy
+: of this software and associated documentation files (the "Software"), to deal
+: in the Software without restriction, including without limitation the rights
+: to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+: copies of the Software, and to permit persons to whom the Software is
+: furnished to do so, subject to the following conditions:
+:
+: The above copyright notice and this permission notice shall be included in all
+: copies or substantial portions of the Software.
+:
+: THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+: IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+: FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+: AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+: LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+: OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+: SOFTWARE.
+:
+
+@echo off
+setlocal
+
+: Create a minimal runtime image with only the modules used (Java 11 or later, with jlink on the PATH).
+: Any class archive belongs to the previous runtime, so it is removed as well.
+if exist runtime rmdir /s /q runtime
+if exist hotcorners.jsa del hotcorners.jsa
+
+jlink --add-modules java.base,java.desktop,java.management --strip-debug --no-header-files --no-man-pages --compress=2 --output runtime
+
+: The base class archive of the runtime, which any class archive of hotcorners-archive.cmd builds on.
+runtime\bin\java -Xshare:dump
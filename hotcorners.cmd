@@ -23,5 +23,13 @@
 :
 
 @echo off
+setlocal
 
-java -jar hotcorners.jar %*
+: Prefer the runtime image of hotcorners-runtime.cmd and the class archive of hotcorners-archive.cmd, if present.
+set JAVA=java
+if exist runtime\bin\java.exe set JAVA=runtime\bin\java.exe
+
+set SHARE=
+if exist hotcorners.jsa set SHARE=-XX:SharedArchiveFile=hotcorners.jsa -Xshare:auto
+
+%JAVA% %SHARE% -jar hotcorners.jar %*
@@ -24,95 +24,838 @@
 
 package dev.machinateur.hotcorners;
 
-import javax.swing.*;
 import java.awt.*;
-import java.awt.event.KeyEvent;
-import java.awt.event.MouseEvent;
-import java.util.Map;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
-public final class Application extends MouseMotionSubscriber {
+public final class Application extends MouseMotionSubscriber implements AreaTriggerListener {
 
     private final MouseMotionObserver mouseMotionObserver;
 
-    private final Map<Rectangle, int[]> keyStrokeMap;
+    /**
+     * The current areas, which are swapped as a whole on reload. Only ever read once per sample by the trigger stage.
+     */
+    private final AtomicReference<AreaTable> areaTableReference;
 
-    private final Robot robot;
+    /**
+     * The trigger state of the current areas, which is owned by the trigger stage (see {@link MouseMotionPipeline}).
+     */
+    private volatile AreaTrigger areaTrigger;
 
-    public Application(ApplicationConfiguration configuration) {
+    private final ApplicationConfigurationWatcher configurationWatcher;
+
+    private final ApplicationMetrics metrics;
+
+    private final boolean metricsRegistered;
+
+    private final AreaActionExecutor actionExecutor;
+
+    private final ScreenLayoutCalculation layoutCalculation;
+
+    private final ScreenLayoutWatcher layoutWatcher;
+
+    /**
+     * Whether to fire any predicted area right away, instead of only arming the observer.
+     */
+    private final boolean predictionFire;
+
+    /**
+     * The delay to sample at, while any area is predicted to be entered, or {@code -1} to not arm the observer at all.
+     */
+    private final int predictionDelay;
+
+    /**
+     * The configuration the current areas are compiled from, to compile them again on a change of the screens.
+     */
+    private ApplicationConfiguration configuration;
+
+    /**
+     * The areas of all profiles, of which those of the active profile are the current ones.
+     */
+    private volatile ApplicationConfigurationProfiles profiles;
+
+    private volatile String profile;
+
+    public Application(ApplicationConfiguration configuration, PointerSource pointerSource, KeyInjector keyInjector) {
         configuration.loadConfiguration();
 
-        Component component = new JPanel();
+        // A plain lightweight component is enough as event source, and unlike any Swing component, it does not load
+        // and initialise the look and feel on startup.
+        Component component = new Component() {
+        };
         int delay = 10;
 
         if (configuration.containsKey("delay")) {
             delay = Integer.parseInt((String) configuration.remove("delay"));
         }
 
-        this.mouseMotionObserver = new MouseMotionObserver(component, delay);
-        this.mouseMotionObserver.addMouseMotionListener(this);
+        String delayMode = "fixed";
+        int delayMinimum = 5;
+        int delayMaximum = 50;
+        int delayRange = 200;
+        String sampler = "thread";
+        boolean reload = true;
+        boolean metrics = true;
+        boolean sweep = true;
+        String evdevDevice = null;
+        String evdevRange = null;
+        int evdevIdle = 1000;
+        int actionConcurrency = 2;
+        int actionQueue = 16;
+        int actionTimeout = 5000;
+        String layoutScreens = null;
+        boolean layoutCorners = false;
+        int layoutInterval = 2000;
+        int smoothing = 0;
+        String pipelineThreads = "";
+        String pipelineWait = "block";
+        int pipelineCapacity = 1024;
+        int predictHorizon = 0;
+        int predictConfidence = 80;
+        String predictMode = "arm";
+        String profile = ApplicationConfiguration.CONFIGURATION_PROFILE_DEFAULT;
+
+        if (configuration.containsKey("delay.mode")) {
+            delayMode = ((String) configuration.remove("delay.mode")).trim();
+        }
+        if (configuration.containsKey("delay.minimum")) {
+            delayMinimum = Integer.parseInt((String) configuration.remove("delay.minimum"));
+        }
+        if (configuration.containsKey("delay.maximum")) {
+            delayMaximum = Integer.parseInt((String) configuration.remove("delay.maximum"));
+        }
+        if (configuration.containsKey("delay.range")) {
+            delayRange = Integer.parseInt((String) configuration.remove("delay.range"));
+        }
+        if (configuration.containsKey("sampler")) {
+            sampler = ((String) configuration.remove("sampler")).trim();
+        }
+        if (configuration.containsKey("reload")) {
+            reload = Boolean.parseBoolean(((String) configuration.remove("reload")).trim());
+        }
+        if (configuration.containsKey("metrics")) {
+            metrics = Boolean.parseBoolean(((String) configuration.remove("metrics")).trim());
+        }
+        if (configuration.containsKey("sweep")) {
+            sweep = Boolean.parseBoolean(((String) configuration.remove("sweep")).trim());
+        }
+        if (configuration.containsKey("evdev.device")) {
+            evdevDevice = ((String) configuration.remove("evdev.device")).trim();
+        }
+        if (configuration.containsKey("evdev.range")) {
+            evdevRange = ((String) configuration.remove("evdev.range")).trim();
+        }
+        if (configuration.containsKey("evdev.idle")) {
+            evdevIdle = Integer.parseInt((String) configuration.remove("evdev.idle"));
+        }
+        if (configuration.containsKey("action.concurrency")) {
+            actionConcurrency = Integer.parseInt((String) configuration.remove("action.concurrency"));
+        }
+        if (configuration.containsKey("action.queue")) {
+            actionQueue = Integer.parseInt((String) configuration.remove("action.queue"));
+        }
+        if (configuration.containsKey("action.timeout")) {
+            actionTimeout = Integer.parseInt((String) configuration.remove("action.timeout"));
+        }
+        if (configuration.containsKey("layout.screens")) {
+            layoutScreens = ((String) configuration.remove("layout.screens")).trim();
+        }
+        if (configuration.containsKey("layout.corners")) {
+            layoutCorners = Boolean.parseBoolean(((String) configuration.remove("layout.corners")).trim());
+        }
+        if (configuration.containsKey("layout.interval")) {
+            layoutInterval = Integer.parseInt((String) configuration.remove("layout.interval"));
+        }
+        if (configuration.containsKey("smoothing")) {
+            smoothing = Integer.parseInt((String) configuration.remove("smoothing"));
+        }
+        if (configuration.containsKey("pipeline.threads")) {
+            pipelineThreads = ((String) configuration.remove("pipeline.threads")).trim();
+        }
+        if (configuration.containsKey("pipeline.wait")) {
+            pipelineWait = ((String) configuration.remove("pipeline.wait")).trim();
+        }
+        if (configuration.containsKey("pipeline.capacity")) {
+            pipelineCapacity = Integer.parseInt((String) configuration.remove("pipeline.capacity"));
+        }
+        if (configuration.containsKey("predict.horizon")) {
+            predictHorizon = Integer.parseInt((String) configuration.remove("predict.horizon"));
+        }
+        if (configuration.containsKey("predict.confidence")) {
+            predictConfidence = Integer.parseInt((String) configuration.remove("predict.confidence"));
+        }
+        if (configuration.containsKey("predict.mode")) {
+            predictMode = ((String) configuration.remove("predict.mode")).trim();
+        }
+        if (configuration.containsKey("profile")) {
+            profile = ((String) configuration.remove("profile")).trim();
+        }
+
+        // Either the fixed screens of "layout.screens" (e.g. when headless), or the actual ones.
+        final ScreenLayout screenLayout = null == layoutScreens || layoutScreens.isEmpty()
+                ? new ScreenLayoutAwt()
+                : ScreenLayoutFixed.parse(layoutScreens);
+
+        this.layoutCalculation = new ScreenLayoutCalculation(layoutCorners);
+        this.layoutCalculation.update(screenLayout.getScreenBounds());
+
+        Application.logScreens(this.layoutCalculation.getScreenArray());
+
+        configuration.setProfileSwitch(this::activateProfile);
+
+        this.configuration = (ApplicationConfiguration) configuration.clone();
+        this.profiles = this.compileProfiles(configuration);
+
+        // A profile for the current screens takes precedence over the configured one.
+        if (null != this.profiles.getProfile(this.layoutCalculation.getScreenArray())) {
+            profile = this.profiles.getProfile(this.layoutCalculation.getScreenArray());
+        } else if (!this.profiles.contains(profile)) {
+            throw new IllegalArgumentException(String.format("Unknown profile '%s'!", profile));
+        }
+
+        this.profile = profile;
+
+        if (1 < this.profiles.size()) {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.INFO, "Profile: %s of %d profiles.", profile, this.profiles.size());
+        }
+
+        AreaTable areaTable = this.profiles.get(profile);
+
+        this.areaTableReference = new AtomicReference<AreaTable>(areaTable);
+        this.areaTrigger = new AreaTrigger(areaTable, this, sweep, areaTable.getVirtualBounds(), null);
+
+        // Either "arm" (sample faster until the predicted entry) or "fire" (execute the action on prediction already).
+        this.predictionFire = "fire".equalsIgnoreCase(predictMode);
+        this.predictionDelay = 0 < predictHorizon && !this.predictionFire
+                ? delayMinimum
+                : -1;
+
+        if (0 < predictHorizon) {
+            this.areaTrigger.setPrediction(predictHorizon, predictConfidence);
+
+            if (this.predictionFire) {
+                ApplicationLogger.getInstance()
+                        .log(ApplicationLogger.INFO, "Prediction: Firing entries within %dms at %d%% confidence.",
+                                predictHorizon, predictConfidence);
+            } else {
+                ApplicationLogger.getInstance()
+                        .log(ApplicationLogger.INFO, "Prediction: Arming entries within %dms at %d%% confidence, sampling every %dms.",
+                                predictHorizon, predictConfidence, this.predictionDelay);
+            }
+        }
+        this.metrics = new ApplicationMetrics(this::getAreaTrigger);
+        this.metricsRegistered = metrics;
+
+        MouseMotionDelay mouseMotionDelay;
+
+        if ("adaptive".equalsIgnoreCase(delayMode)) {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.INFO, "Delay: Adaptive delay of %dms to %dms within %dpx.", delayMinimum, delayMaximum, delayRange);
+
+            mouseMotionDelay = new MouseMotionDelayAdaptive(areaTable, delayMinimum, delayMaximum, delayRange);
+        } else {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.INFO, "Delay: Fixed delay of %dms.", delay);
+
+            mouseMotionDelay = new MouseMotionDelay(delay);
+        }
+
+        // Either "thread" (dedicated sampler thread), "timer" (event dispatch thread) or "evdev" (Linux input events).
+        if ("evdev".equalsIgnoreCase(sampler)) {
+            final PointerSourceEvdev evdevSource = Application.openPointerSourceEvdev(evdevDevice, evdevRange,
+                    areaTable.getVirtualBounds());
+            final int idle = evdevIdle;
 
-        this.keyStrokeMap = configuration.parseConfiguration();
+            this.mouseMotionObserver = new MouseMotionObserver(component, evdevSource, mouseMotionDelay,
+                    observer -> new MouseMotionSchedulerEvent(observer, evdevSource, idle));
+        } else {
+            boolean threaded = !"timer".equalsIgnoreCase(sampler);
+
+            this.mouseMotionObserver = new MouseMotionObserver(component, pointerSource, mouseMotionDelay, threaded);
+        }
+        this.mouseMotionObserver.setMetrics(this.metrics);
+
+        final MouseMotionPipeline pipeline = this.mouseMotionObserver.getPipeline();
+
+        if (0 < smoothing) {
+            pipeline.addStageBefore(MouseMotionPipeline.STAGE_DISPATCH, MouseMotionPipeline.STAGE_SMOOTHING,
+                    new MouseMotionStageSmoothing(smoothing));
+        }
+        pipeline.addStageBefore(MouseMotionPipeline.STAGE_DISPATCH, MouseMotionPipeline.STAGE_TRIGGER, this::trigger);
+        pipeline.setCapacity(pipelineCapacity);
+        pipeline.setWait(MouseMotionRing.parseWait(pipelineWait));
+
+        // Any stage listed runs on its own thread, all others are fused with the previous one.
+        for (String stage : pipelineThreads.split(ApplicationConfiguration.CONFIGURATION_SPLIT_REGEX)) {
+            if (!stage.isBlank()) {
+                pipeline.setThreaded(stage.trim(), true);
+            }
+        }
+
+        this.metrics.setPipeline(pipeline);
+
+        this.actionExecutor = new AreaActionExecutor(new KeyStrokeExecutor(keyInjector),
+                actionConcurrency, actionQueue, actionTimeout, this.metrics);
+
+        this.configurationWatcher = reload
+                ? new ApplicationConfigurationWatcher(ApplicationConfiguration.getConfigurationPath(), this::reload)
+                : null;
+        this.layoutWatcher = 0 < layoutInterval
+                ? new ScreenLayoutWatcher(screenLayout, layoutInterval, this::relayout)
+                : null;
+    }
+
+    private static void logScreens(Rectangle[] screenArray) {
+        for (int i = 0; i < screenArray.length; i++) {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.INFO, "Layout: %s as screen %d.", screenArray[i], i);
+        }
+    }
+
+    private static PointerSourceEvdev openPointerSourceEvdev(String device, String range, Rectangle bounds) {
+        if (null == device || device.isEmpty()) {
+            throw new IllegalArgumentException("Missing evdev.device for the evdev sampler!");
+        }
+
+        Rectangle rangeBounds = null;
+
+        if (null == bounds) {
+            // Same as the simulation, the default HD screen (1920x1080) is assumed when headless.
+            bounds = new Rectangle(0, 0, 1920, 1080);
+        }
+        if (null != range) {
+            final String[] valueArray = range.split(",");
+
+            if (4 != valueArray.length) {
+                throw new IllegalArgumentException(String.format("Invalid evdev.range '%s'!", range));
+            }
+
+            rangeBounds = new Rectangle(Integer.parseInt(valueArray[0].trim()), Integer.parseInt(valueArray[1].trim()), 0, 0);
+            rangeBounds.add(Integer.parseInt(valueArray[2].trim()), Integer.parseInt(valueArray[3].trim()));
+        }
+
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.INFO, "Sampler: Events of '%s' within %s.", device, bounds);
 
         try {
-            this.robot = new Robot();
-        } catch (AWTException e) {
+            return PointerSourceEvdev.open(Paths.get(device), bounds, rangeBounds);
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private static AreaTable compileConfiguration(ApplicationConfiguration configuration,
+                                                  ScreenLayoutCalculation layoutCalculation) {
+        int triggerDwell = 0;
+        int triggerCooldown = 500;
+        int triggerHysteresis = 4;
+        int gestureTimeout = AreaGesture.DEFAULT_TIMEOUT;
+
+        if (configuration.containsKey("trigger.dwell")) {
+            triggerDwell = Integer.parseInt((String) configuration.remove("trigger.dwell"));
+        }
+        if (configuration.containsKey("trigger.cooldown")) {
+            triggerCooldown = Integer.parseInt((String) configuration.remove("trigger.cooldown"));
+        }
+        if (configuration.containsKey("trigger.hysteresis")) {
+            triggerHysteresis = Integer.parseInt((String) configuration.remove("trigger.hysteresis"));
+        }
+        if (configuration.containsKey("gesture.timeout")) {
+            gestureTimeout = Integer.parseInt((String) configuration.remove("gesture.timeout"));
+        }
+
+        return configuration.compileConfiguration(new AreaOptions(triggerDwell, triggerCooldown, triggerHysteresis),
+                gestureTimeout, layoutCalculation.getAreaMap(), layoutCalculation.getScreenArray());
+    }
+
+    /**
+     * Compile the areas of all profiles of the configuration, for the current screens.
+     */
+    private ApplicationConfigurationProfiles compileProfiles(ApplicationConfiguration configuration) {
+        return ApplicationConfigurationProfiles.compile(configuration,
+                profile -> Application.compileConfiguration(profile, this.layoutCalculation));
+    }
+
+    public Application(ApplicationConfiguration configuration) {
+        this(configuration, new PointerSourceAwt(), new KeyInjectorRobot());
+    }
+
     public Application() {
         this(new ApplicationConfiguration());
     }
 
     public void start() {
+        if (this.metricsRegistered) {
+            this.metrics.register();
+        }
+
         this.mouseMotionObserver.start();
+
+        if (null != this.configurationWatcher) {
+            this.configurationWatcher.start();
+        }
+        if (null != this.layoutWatcher) {
+            this.layoutWatcher.start();
+        }
     }
 
     public void stop() {
         this.mouseMotionObserver.stop();
+        this.actionExecutor.shutdown();
+
+        if (null != this.configurationWatcher) {
+            this.configurationWatcher.stop();
+        }
+        if (null != this.layoutWatcher) {
+            this.layoutWatcher.stop();
+        }
+        if (this.metricsRegistered) {
+            this.metrics.unregister();
+        }
+
+        final AreaTrigger areaTrigger = this.areaTrigger;
+
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.INFO, "Trigger: %d fired, %d suppressed by dwell, %d by cooldown, %d repeated, %d swept.",
+                areaTrigger.getTriggerCount(),
+                areaTrigger.getSuppressedDwellCount(),
+                areaTrigger.getSuppressedCooldownCount(),
+                areaTrigger.getSuppressedRepeatCount(),
+                areaTrigger.getSweepCount());
+
+        if (areaTrigger.isPrediction()) {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.INFO, "Prediction: %d predicted, %d confirmed, %d cancelled, %dms gained in total.",
+                            areaTrigger.getPredictionCount(),
+                            areaTrigger.getPredictionConfirmedCount(),
+                            areaTrigger.getPredictionCancelledCount(),
+                            TimeUnit.NANOSECONDS.toMillis(areaTrigger.getPredictionGainNanos()));
+        }
+    }
+
+    /**
+     * The trigger stage, i.e. the hit-test and trigger state of the current areas.
+     */
+    private boolean trigger(MouseMotionSample sample) {
+        if (sample.isMoved()) {
+            this.mouseMoved(sample.getNanos(), sample.getX(), sample.getY());
+        } else {
+            this.mouseStill(sample.getNanos(), sample.getX(), sample.getY());
+        }
+
+        return true;
     }
 
     @Override
-    public void mouseMoved(MouseEvent event) {
-        final Point point = event.getPoint();
+    public void mouseMoved(long nanos, int x, int y) {
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.DEBUG, "Event: Movement to %d,%d.", x, y);
 
-        for (final Map.Entry<Rectangle, int[]> keyStrokeEntry : this.keyStrokeMap.entrySet()) {
-            final Rectangle area = keyStrokeEntry.getKey();
+        final AreaTrigger areaTrigger = this.updateAreaTrigger();
+        // Only the hit-test and trigger decision, not the time since the sample was taken.
+        final long start = System.nanoTime();
 
-            if (area.contains(point)) {
-                System.out.printf("Event: Intersection of %s in %s" + Main.NEW_LINE, point, area);
+        areaTrigger.update(nanos, x, y);
 
-                this.executeKeyStrokeSequence(keyStrokeEntry.getValue());
-            } else {
-                if (Main.isVerboseMode()) {
-                    System.out.printf("Event: Intersection of %s in %s" + Main.NEW_LINE, point, "(unknown)");
-                }
-            }
+        this.metrics.recordHitTest(System.nanoTime() - start);
+    }
+
+    @Override
+    public void mouseStill(long nanos, int x, int y) {
+        this.updateAreaTrigger()
+                .updateStill(nanos, x, y);
+    }
+
+    @Override
+    public void areaTriggered(long nanos, int index) {
+        final AreaTable areaTable = this.areaTrigger.getAreaTable();
+        final String name = areaTable.getName(index);
+
+        if (0 <= areaTable.getScreen(index)) {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.INFO, "Event: Intersection in %s on screen %d.", name, areaTable.getScreen(index));
+        } else {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.INFO, "Event: Intersection in %s.", name);
+        }
+
+        this.metrics.recordTrigger(name);
+
+        // Areas only used by gestures have no action of their own.
+        if (null != areaTable.getAction(index)) {
+            this.actionExecutor.execute(name, areaTable.getAction(index), areaTable.getOptions(index).getTimeout());
         }
     }
 
-    private void executeKeyStrokeSequence(int[] keyStroke) {
-        for (int key : keyStroke) {
-            if (KeyEvent.VK_UNDEFINED == key) {
-                continue;
+    @Override
+    public void areaPredicted(long nanos, int index) {
+        final AreaTable areaTable = this.areaTrigger.getAreaTable();
+
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.DEBUG, "Event: Predicted intersection in %s.", areaTable.getName(index));
+
+        this.armObserver();
+
+        if (this.predictionFire && null != areaTable.getAction(index)) {
+            this.actionExecutor.execute(areaTable.getName(index), areaTable.getAction(index),
+                    areaTable.getOptions(index).getTimeout());
+        }
+    }
+
+    @Override
+    public void areaPredictionConfirmed(long nanos, int index) {
+        this.armObserver();
+
+        if (!this.predictionFire) {
+            this.areaTriggered(nanos, index);
+
+            return;
+        }
+
+        // The action was executed on prediction already.
+        final String name = this.areaTrigger.getAreaTable().getName(index);
+
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.INFO, "Event: Intersection in %s, as predicted.", name);
+
+        this.metrics.recordTrigger(name);
+    }
+
+    @Override
+    public void areaPredictionCancelled(long nanos, int index) {
+        final AreaTable areaTable = this.areaTrigger.getAreaTable();
+
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.DEBUG, "Event: Prediction of %s cancelled.", areaTable.getName(index));
+
+        this.armObserver();
+
+        // Any action still queued or running is cancelled, one already completed cannot be undone.
+        if (this.predictionFire && null != areaTable.getAction(index)) {
+            this.actionExecutor.cancel(areaTable.getAction(index));
+        }
+    }
+
+    /**
+     * Arm the observer while any area is predicted, and disarm it otherwise.
+     */
+    private void armObserver() {
+        if (0 <= this.predictionDelay) {
+            this.mouseMotionObserver.setArmedDelay(0 < this.areaTrigger.getPredictedCount()
+                    ? this.predictionDelay
+                    : -1);
+        }
+    }
+
+    @Override
+    public void gestureTriggered(long nanos, int gesture) {
+        final AreaGesture areaGesture = this.areaTrigger.getAreaTable()
+                .getGestureAutomaton()
+                .getGesture(gesture);
+
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.INFO, "Event: Gesture %s.", areaGesture.getName());
+
+        final String name = ApplicationConfiguration.CONFIGURATION_GESTURE_PREFIX + areaGesture.getName();
+
+        this.metrics.recordTrigger(name);
+
+        if (null != areaGesture.getAction()) {
+            this.actionExecutor.execute(name, areaGesture.getAction());
+        }
+    }
+
+    /**
+     * Reload the configuration file and publish the newly compiled areas, unless the file is invalid. This is called
+     * on the watcher thread, so that the sampler is never blocked by parsing.
+     *
+     * @return Whether the reload was successful.
+     */
+    public synchronized boolean reload() {
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.INFO, "Reload: Configuration file changed, reloading...");
+
+        final ApplicationConfiguration configuration = new ApplicationConfiguration();
+        final ApplicationConfigurationProfiles profiles;
+
+        configuration.setProfileSwitch(this::activateProfile);
+
+        try {
+            configuration.reloadConfiguration();
+
+            profiles = this.compileProfiles(configuration);
+        } catch (IOException | RuntimeException e) {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.WARN, "Reload: Invalid configuration, keeping the current one: %s", e.toString());
+
+            return false;
+        }
+
+        this.configuration = configuration;
+        this.profiles = profiles;
+
+        if (!profiles.contains(this.profile)) {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.WARN, "Reload: Profile %s is gone, switching to %s.", this.profile,
+                            ApplicationConfiguration.CONFIGURATION_PROFILE_DEFAULT);
+
+            this.profile = ApplicationConfiguration.CONFIGURATION_PROFILE_DEFAULT;
+        }
+
+        final AreaTable areaTable = profiles.get(this.profile);
+
+        this.publish(areaTable);
+
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.INFO, "Reload: Published %d areas.", areaTable.size());
+
+        return true;
+    }
+
+    /**
+     * Update the screens and publish the areas compiled again for them, with the corner areas calculated again for
+     * any changed screen only. This is called on the layout watcher thread.
+     *
+     * @param screenArray The bounds of the screens.
+     * @return Whether the update was successful.
+     */
+    public synchronized boolean relayout(Rectangle[] screenArray) {
+        final int count = this.layoutCalculation.update(screenArray);
+
+        if (count < 0) {
+            return true;
+        }
+
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.INFO, "Layout: Screens changed, %d of %d calculated again.", count, screenArray.length);
+
+        Application.logScreens(screenArray);
+
+        final ApplicationConfigurationProfiles profiles;
+
+        try {
+            profiles = this.compileProfiles(this.configuration);
+        } catch (RuntimeException e) {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.WARN, "Layout: Invalid configuration, keeping the current one: %s", e.toString());
+
+            return false;
+        }
+
+        this.profiles = profiles;
+
+        // Switch to the profile for the new screens, if any, or keep the active one.
+        final String profile = profiles.getProfile(screenArray);
+
+        if (null != profile && !profile.equals(this.profile)) {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.INFO, "Profile: Switched to %s for the screens.", profile);
+
+            this.profile = profile;
+        }
+
+        final AreaTable areaTable = profiles.get(this.profile);
+
+        this.publish(areaTable);
+
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.INFO, "Layout: Published %d areas.", areaTable.size());
+
+        return true;
+    }
+
+    /**
+     * Run a control command, see {@link ApplicationControlServer}. This is called on the control thread.
+     *
+     * @param command The command and its argument, if any, e.g. {@code profile docked}.
+     * @return The response.
+     */
+    public String control(String command) {
+        final String[] commandArray = command.trim().split("\\s+", 2);
+        final String argument = commandArray.length > 1 ? commandArray[1].trim() : null;
+
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.INFO, "Control: Command '%s'.", command);
+
+        switch (commandArray[0].toLowerCase()) {
+            case "stop" -> {
+                // Stop on another thread, so that the response is still sent. The control thread is a daemon, so the
+                //  stop thread must not be one, or the process could exit before it has finished.
+                final Thread thread = new Thread(this::stop, "hotcorners-stop");
+                thread.setDaemon(false);
+                thread.start();
+
+                return "Stopping.";
+            }
+            case "reload" -> {
+                if (!this.reload()) {
+                    throw new IllegalStateException("Invalid configuration, keeping the current one!");
+                }
+
+                return String.format("Reloaded %d profiles.", this.profiles.size());
             }
+            case "profile" -> {
+                if (null != argument) {
+                    if (!this.activateProfile(argument)) {
+                        throw new IllegalArgumentException(String.format("Unknown profile '%s'!", argument));
+                    }
+
+                    return String.format("Profile %s.", this.profile);
+                }
+
+                final StringBuilder builder = new StringBuilder();
 
-            if (Main.isVerboseMode()) {
-                System.out.printf("Execute: Key-Press: %d..." + Main.NEW_LINE, key);
+                for (String name : this.profiles.getNames()) {
+                    builder.append(name.equals(this.profile) ? "* " : "  ")
+                            .append(name)
+                            .append(System.lineSeparator());
+                }
+
+                return builder.toString()
+                        .stripTrailing();
             }
+            case "stats" -> {
+                return this.getStatistics();
+            }
+            case "delay" -> {
+                final MouseMotionDelay delay = this.mouseMotionObserver.getMouseMotionDelay();
+
+                if (null != argument) {
+                    delay.setDelay(Integer.parseInt(argument));
+                }
 
-            this.robot.keyPress(key);
+                return delay instanceof MouseMotionDelayAdaptive
+                        ? String.format("Delay %dms to %dms.", ((MouseMotionDelayAdaptive) delay).getMinimum(),
+                        ((MouseMotionDelayAdaptive) delay).getMaximum())
+                        : String.format("Delay %dms.", delay.getInitialDelay());
+            }
+            case "help" -> {
+                return "Commands: stop, reload, profile [<name>], stats, delay [<milliseconds>], help";
+            }
+            default -> throw new IllegalArgumentException(String.format("Unknown command '%s'!", commandArray[0]));
         }
-        for (int key : keyStroke) {
-            if (KeyEvent.VK_UNDEFINED == key) {
+    }
+
+    /**
+     * @return All metrics (see {@link ApplicationMetricsMXBean}), one per line, sorted by name.
+     */
+    private String getStatistics() {
+        final StringBuilder builder = new StringBuilder();
+        final Method[] methodArray = ApplicationMetricsMXBean.class.getMethods();
+
+        Arrays.sort(methodArray, Comparator.comparing(Method::getName));
+
+        builder.append("Profile: ")
+                .append(this.profile);
+
+        for (Method method : methodArray) {
+            if (0 != method.getParameterCount() || !method.getName().startsWith("get")) {
                 continue;
             }
 
-            if (Main.isVerboseMode()) {
-                System.out.printf("Execute: Key-Release: %d..." + Main.NEW_LINE, key);
+            try {
+                builder.append(System.lineSeparator())
+                        .append(method.getName().substring(3))
+                        .append(": ")
+                        .append(method.invoke(this.metrics));
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException(e);
             }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Switch to the profile, i.e. publish its areas, which are compiled already. This is called on an action thread
+     * (see {@link AreaActionProfile}), or by any control command.
+     *
+     * @param name The name of the profile, or {@link AreaActionProfile#PROFILE_NEXT} for the one after the active one.
+     * @return Whether the profile exists.
+     */
+    public synchronized boolean activateProfile(String name) {
+        final ApplicationConfigurationProfiles profiles = this.profiles;
+
+        if (AreaActionProfile.PROFILE_NEXT.equals(name) && !profiles.contains(name)) {
+            name = profiles.getNext(this.profile);
+        }
+
+        final AreaTable areaTable = profiles.get(name);
+
+        if (null == areaTable) {
+            return false;
+        }
+        if (name.equals(this.profile)) {
+            return true;
+        }
+
+        this.profile = name;
+        this.publish(areaTable);
+
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.INFO, "Profile: Switched to %s (%d areas).", name, areaTable.size());
 
-            this.robot.keyRelease(key);
+        return true;
+    }
+
+    private void publish(AreaTable areaTable) {
+        this.areaTableReference.set(areaTable);
+
+        if (this.mouseMotionObserver.getMouseMotionDelay() instanceof MouseMotionDelayAdaptive) {
+            ((MouseMotionDelayAdaptive) this.mouseMotionObserver.getMouseMotionDelay())
+                    .setAreaTable(areaTable);
         }
     }
+
+    /**
+     * Get the trigger of the current areas. After the areas changed (e.g. on reload), the trigger is replaced on the next
+     * call, which is only ever made by the trigger stage.
+     *
+     * @return The trigger.
+     */
+    private AreaTrigger updateAreaTrigger() {
+        final AreaTable areaTable = this.areaTableReference.get();
+
+        if (areaTable != this.areaTrigger.getAreaTable()) {
+            this.areaTrigger = new AreaTrigger(areaTable, this, this.areaTrigger);
+
+            // Any prediction of the previous areas is dropped, so the sampler must not stay armed for it.
+            this.armObserver();
+        }
+
+        return this.areaTrigger;
+    }
+
+    /**
+     * @return The name of the active profile.
+     */
+    public String getProfile() {
+        return this.profile;
+    }
+
+    /**
+     * @return The names of all profiles, the default profile first.
+     */
+    public List<String> getProfileNames() {
+        return this.profiles.getNames();
+    }
+
+    public AreaTrigger getAreaTrigger() {
+        return this.areaTrigger;
+    }
+
+    public ApplicationMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    public MouseMotionObserver getMouseMotionObserver() {
+        return this.mouseMotionObserver;
+    }
 }
@@ -27,10 +27,11 @@ package dev.machinateur.hotcorners;
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.io.*;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class ApplicationConfiguration extends Properties {
 
@@ -45,15 +46,83 @@ public class ApplicationConfiguration extends Properties {
 
     protected static final char CONFIGURATION_MARKER = '@';
 
+    protected static final char CONFIGURATION_OPTION_MARKER = '.';
+
+    protected static final char CONFIGURATION_SHAPE_START = '(';
+
+    protected static final char CONFIGURATION_SHAPE_END = ')';
+
+    protected static final String CONFIGURATION_GESTURE_PREFIX
+            = "gesture.";
+
+    protected static final String CONFIGURATION_GESTURE_SPLIT_REGEX
+            = ">";
+
+    protected static final String CONFIGURATION_PROFILE_PREFIX
+            = "profile.";
+
+    protected static final String CONFIGURATION_PROFILE_DEFAULT
+            = "default";
+
     protected static final int COORDINATE_PAIR_SIZE
             = 4;
 
     private static final int COMMAND_STACK_SIZE
             = 5;
 
+    /**
+     * The switch for any profile action to call, see {@link AreaActionProfile}.
+     */
+    private transient Predicate<String> profileSwitch;
+
     public ApplicationConfiguration() {
         // The default configuration value of the timer delay.
         this.put("delay", "10");
+        // The default configuration of the adaptive timer delay, either "fixed" (i.e. "delay") or "adaptive".
+        this.put("delay.mode", "fixed");
+        this.put("delay.minimum", "5");
+        this.put("delay.maximum", "50");
+        this.put("delay.range", "200");
+        // The default sampler, either "thread" (dedicated thread), "timer" (event dispatch thread) or "evdev" (Linux input
+        // events, see "evdev.device", "evdev.range" and "evdev.idle").
+        this.put("sampler", "thread");
+        // The default area trigger options, which can be set per area as well (i.e. "@x0,y0,x1,y1.dwell").
+        this.put("trigger.dwell", "0");
+        this.put("trigger.cooldown", "500");
+        this.put("trigger.hysteresis", "4");
+        // The default gesture timeout, from entering the first area of a gesture to the last one (i.e. "gesture.<name>").
+        this.put("gesture.timeout", "400");
+        // The default of whether to check the path between two samples as well, so that small areas cannot be skipped.
+        this.put("sweep", "true");
+        // The default of whether to reload the areas on change of the configuration file.
+        this.put("reload", "true");
+        // The default of whether to expose the runtime metrics over JMX.
+        this.put("metrics", "true");
+        // The default action execution, i.e. the actions to run at a time, the actions to queue in addition and the
+        // milliseconds an action may run (which can be set per area as well, i.e. "@x0,y0,x1,y1.timeout").
+        this.put("action.concurrency", "2");
+        this.put("action.queue", "16");
+        this.put("action.timeout", "5000");
+        // The default of whether to calculate the corners of each screen (in addition to the configured areas), and the
+        // milliseconds between two checks for a change of the screens. The screens can be fixed by "layout.screens".
+        this.put("layout.corners", "false");
+        this.put("layout.interval", "2000");
+        // The default of the pipeline from the sampler to the areas, i.e. the percentage of the previous position kept
+        // by the smoothing (0 to disable it), the stages to run on their own thread (any of "smoothing", "trigger" and
+        // "dispatch"), how these wait for samples (either "spin", "yield", "sleep" or "block") and their queue capacity.
+        this.put("smoothing", "0");
+        this.put("pipeline.threads", "");
+        this.put("pipeline.wait", "block");
+        this.put("pipeline.capacity", "1024");
+        // The default of the prediction of area entries, i.e. how far to predict ahead in milliseconds (0 to disable it),
+        // the confidence in percent a prediction needs, and whether to "arm" (sample faster) or "fire" right away.
+        this.put("predict.horizon", "0");
+        this.put("predict.confidence", "80");
+        this.put("predict.mode", "arm");
+        // The default profile to start with. The areas and gestures of any other profile are configured with the
+        // profile name in front (i.e. "profile.<name>.@x0,y0,x1,y1"), and the screens to switch to it on by
+        // "profile.<name>.layout".
+        this.put("profile", ApplicationConfiguration.CONFIGURATION_PROFILE_DEFAULT);
 
         // The default configuration for a standard HD screen (1920x1080).
         // - Top left corner.
@@ -91,6 +160,23 @@ public class ApplicationConfiguration extends Properties {
         }
     }
 
+    /**
+     * Load the configuration, but other than {@link #loadConfiguration()}, do not create the file if it's missing.
+     *
+     * @throws IOException If the file is missing or cannot be read.
+     */
+    public void reloadConfiguration() throws IOException {
+        try (
+                InputStream inputStream = new FileInputStream(ApplicationConfiguration.CONFIGURATION_FILE_PATH);
+        ) {
+            this.load(inputStream);
+        }
+    }
+
+    public static Path getConfigurationPath() {
+        return Paths.get(ApplicationConfiguration.CONFIGURATION_FILE_PATH);
+    }
+
     public void storeConfiguration() {
         try (
                 OutputStream outputStream = new FileOutputStream(ApplicationConfiguration.CONFIGURATION_FILE_PATH);
@@ -151,17 +237,90 @@ public class ApplicationConfiguration extends Properties {
     }
 
     protected String getKeyFieldName(int commandValue) throws IllegalAccessException, NoSuchFieldException {
-        for (Field field : KeyEvent.class.getDeclaredFields()) {
-            if (Modifier.isStatic(field.getModifiers())
-                    && field.getType() == int.class
-                    && field.getName().startsWith("VK_")
-                    && commandValue == field.getInt(null)) {
-                return field.getName();
+        return KeyCodeRegistry.getInstance()
+                .getName(commandValue);
+    }
+
+    /**
+     * @param profileSwitch The switch for any profile action to call, see {@link AreaActionProfile}.
+     */
+    public void setProfileSwitch(Predicate<String> profileSwitch) {
+        this.profileSwitch = profileSwitch;
+    }
+
+    /**
+     * Get the names of all profiles configured, i.e. any key in the format {@code profile.<name>.<key>}.
+     *
+     * @return The names, the default profile first, all others sorted.
+     */
+    public List<String> getProfileNames() {
+        final Set<String> nameSet = new TreeSet<String>();
+
+        for (Object key : this.keySet()) {
+            final String name = ApplicationConfiguration.getProfileName(((String) key).trim());
+
+            if (null != name && !ApplicationConfiguration.CONFIGURATION_PROFILE_DEFAULT.equals(name)) {
+                nameSet.add(name);
             }
         }
 
-        return KeyEvent.class.getDeclaredField("VK_UNDEFINED")
-                .getName();
+        final List<String> nameList = new ArrayList<String>();
+
+        nameList.add(ApplicationConfiguration.CONFIGURATION_PROFILE_DEFAULT);
+        nameList.addAll(nameSet);
+
+        return nameList;
+    }
+
+    private static String getProfileName(String key) {
+        if (!key.startsWith(ApplicationConfiguration.CONFIGURATION_PROFILE_PREFIX)) {
+            return null;
+        }
+
+        final int index = key.indexOf(ApplicationConfiguration.CONFIGURATION_OPTION_MARKER,
+                ApplicationConfiguration.CONFIGURATION_PROFILE_PREFIX.length());
+
+        if (index <= ApplicationConfiguration.CONFIGURATION_PROFILE_PREFIX.length()) {
+            throw new IllegalArgumentException(String.format("Invalid profile key '%s'!", key));
+        }
+
+        return key.substring(ApplicationConfiguration.CONFIGURATION_PROFILE_PREFIX.length(), index);
+    }
+
+    /**
+     * Get the configuration of the profile. Any profile has the areas and gestures configured for it only, the default
+     * profile has the ones configured without a profile as well. All other keys are shared, unless configured for the
+     * profile (e.g. {@code profile.<name>.trigger.cooldown}).
+     *
+     * @param name The name of the profile.
+     * @return The configuration, without the profile in front of its keys.
+     */
+    public ApplicationConfiguration getProfile(String name) {
+        final ApplicationConfiguration configuration = (ApplicationConfiguration) this.clone();
+        final boolean defaultProfile = ApplicationConfiguration.CONFIGURATION_PROFILE_DEFAULT.equals(name);
+        final Map<Object, Object> profileMap = new HashMap<Object, Object>();
+
+        for (Map.Entry<Object, Object> entry : this.entrySet()) {
+            final String key = ((String) entry.getKey()).trim();
+            final String profileName = ApplicationConfiguration.getProfileName(key);
+
+            if (null != profileName) {
+                configuration.remove(entry.getKey());
+
+                if (name.equals(profileName)) {
+                    profileMap.put(key.substring(ApplicationConfiguration.CONFIGURATION_PROFILE_PREFIX.length()
+                            + name.length() + 1), entry.getValue());
+                }
+            } else if (!defaultProfile && (key.charAt(0) == ApplicationConfiguration.CONFIGURATION_MARKER
+                    || key.startsWith(ApplicationConfiguration.CONFIGURATION_GESTURE_PREFIX)
+                    && !"gesture.timeout".equals(key))) {
+                configuration.remove(entry.getKey());
+            }
+        }
+
+        configuration.putAll(profileMap);
+
+        return configuration;
     }
 
     /**
@@ -170,7 +329,20 @@ public class ApplicationConfiguration extends Properties {
      * @return The processed representation of the configuration.
      */
     public Map<Rectangle, int[]> parseConfiguration() {
+        return this.parseConfiguration(new HashMap<Rectangle, AreaAction>());
+    }
+
+    /**
+     * Parse the current configuration entry set and return the result as {@link Map}. Any value, that is an action
+     * other than a key stroke (i.e. {@code exec: <command>}, see {@link AreaActionProcess}, or {@code profile: <name>},
+     * see {@link AreaActionProfile}), is put into the given map instead, with an empty key stroke in the result.
+     *
+     * @param actionMap The map to put the actions into.
+     * @return The processed representation of the configuration.
+     */
+    public Map<Rectangle, int[]> parseConfiguration(Map<Rectangle, AreaAction> actionMap) {
         final Map<Rectangle, int[]> keyStrokeMap = new HashMap<Rectangle, int[]>();
+        final Map<Rectangle, Rectangle> areaMap = new HashMap<Rectangle, Rectangle>();
 
         try {
             for (Map.Entry<Object, Object> entry : this.entrySet()) {
@@ -182,6 +354,9 @@ public class ApplicationConfiguration extends Properties {
                 if (key.charAt(0) != ApplicationConfiguration.CONFIGURATION_MARKER) {
                     System.out.printf("Configuration: Skip key '%s'..." + Main.NEW_LINE, key);
 
+                    continue;
+                } else if (key.indexOf(ApplicationConfiguration.CONFIGURATION_OPTION_MARKER) > 0) {
+                    // Skip any option key (i.e. "@x0,y0,x1,y1.dwell"), see parseConfigurationOptions().
                     continue;
                 } else {
                     System.out.printf("Configuration: Parse key '%s'..." + Main.NEW_LINE, key);
@@ -193,7 +368,25 @@ public class ApplicationConfiguration extends Properties {
 
                 System.out.printf("Configuration: Parse value '%s'..." + Main.NEW_LINE, value);
 
-                keyStrokeMap.put(this.parseConfigurationKey(key), this.parseConfigurationValue(value));
+                final Rectangle area = this.parseConfigurationKey(key);
+
+                // Areas are compared by their bounds, so a shape would silently replace a rectangle of the same bounds.
+                final Rectangle other = areaMap.putIfAbsent(area, area);
+
+                if (null != other && !AreaShape.isSameArea(area, other)) {
+                    throw new IllegalArgumentException(String.format("Area '%s' has the same bounds as '%s'!", key, other));
+                }
+
+                if (AreaActionProcess.isCommand(value)) {
+                    actionMap.put(area, this.parseConfigurationCommand(value));
+                    keyStrokeMap.put(area, new int[0]);
+                } else if (AreaActionProfile.isProfile(value)) {
+                    actionMap.put(area, this.parseConfigurationProfile(value));
+                    keyStrokeMap.put(area, new int[0]);
+                } else {
+                    actionMap.remove(area);
+                    keyStrokeMap.put(area, this.parseConfigurationValue(value));
+                }
 
                 System.out.println();
             }
@@ -204,7 +397,191 @@ public class ApplicationConfiguration extends Properties {
         return keyStrokeMap;
     }
 
+    /**
+     * Parse the options of the current configuration entry set, i.e. any key in the format
+     * {@code @x0,y0,x1,y1.<option>}, and return the result as {@link Map}. Only areas with at least one option are
+     * contained.
+     *
+     * @param defaults The options to use for any option that is not set.
+     * @return The processed representation of the options.
+     */
+    public Map<Rectangle, AreaOptions> parseConfigurationOptions(AreaOptions defaults) {
+        final Map<Rectangle, AreaOptions> optionsMap = new HashMap<Rectangle, AreaOptions>();
+
+        for (Map.Entry<Object, Object> entry : this.entrySet()) {
+            String key = ((String) entry.getKey()).trim();
+            int index = key.lastIndexOf(ApplicationConfiguration.CONFIGURATION_OPTION_MARKER);
+
+            // Skip any key that is no option key.
+            if (key.charAt(0) != ApplicationConfiguration.CONFIGURATION_MARKER || index < 0) {
+                continue;
+            }
+
+            String option = key.substring(index + 1)
+                    .trim()
+                    .toLowerCase();
+            String value = ((String) entry.getValue()).trim();
+
+            System.out.printf("Configuration: Parse option '%s' = '%s'..." + Main.NEW_LINE, key, value);
+
+            Rectangle area = this.parseConfigurationKey(key.substring(1, index));
+
+            optionsMap.put(area, optionsMap.getOrDefault(area, defaults)
+                    .withOption(option, Integer.parseInt(value)));
+        }
+
+        return optionsMap;
+    }
+
+    /**
+     * Parse the gestures of the current configuration entry set, i.e. any key in the format {@code gesture.<name>},
+     * with the areas to enter in order as value (e.g. {@code @0,0,2,2 > @1918,0,1920,2}), as well as the options
+     * {@code gesture.<name>.timeout} and {@code gesture.<name>.action} (the key stroke or command). The gestures are
+     * sorted by name. The name {@code timeout} is reserved for the default timeout.
+     *
+     * @param defaultTimeout The timeout to use, if not set.
+     * @return The processed representation of the gestures.
+     */
+    public List<AreaGesture> parseConfigurationGestures(int defaultTimeout) {
+        final Map<String, Map<String, String>> gestureMap = new TreeMap<String, Map<String, String>>();
+        final List<AreaGesture> gestureList = new ArrayList<AreaGesture>();
+
+        for (Map.Entry<Object, Object> entry : this.entrySet()) {
+            String key = ((String) entry.getKey()).trim();
+
+            // Skip any key that is no gesture key.
+            if (!key.startsWith(ApplicationConfiguration.CONFIGURATION_GESTURE_PREFIX)) {
+                continue;
+            }
+
+            key = key.substring(ApplicationConfiguration.CONFIGURATION_GESTURE_PREFIX.length());
+
+            int index = key.indexOf(ApplicationConfiguration.CONFIGURATION_OPTION_MARKER);
+            String name = index < 0 ? key : key.substring(0, index);
+            String option = index < 0 ? "" : key.substring(index + 1)
+                    .trim()
+                    .toLowerCase();
+
+            // Skip the default timeout (i.e. "gesture.timeout"), which is no gesture.
+            if (index < 0 && "timeout".equals(name)) {
+                continue;
+            }
+
+            gestureMap.computeIfAbsent(name, k -> new HashMap<String, String>())
+                    .put(option, ((String) entry.getValue()).trim());
+        }
+
+        try {
+            for (Map.Entry<String, Map<String, String>> entry : gestureMap.entrySet()) {
+                String name = entry.getKey();
+                Map<String, String> optionMap = new HashMap<String, String>(entry.getValue());
+                String sequence = optionMap.remove("");
+                String timeout = optionMap.remove("timeout");
+                String action = optionMap.remove("action");
+
+                if (null == sequence) {
+                    throw new IllegalArgumentException(String.format("Gesture '%s' has no areas!", name));
+                }
+                if (!optionMap.isEmpty()) {
+                    throw new IllegalArgumentException(String.format("Unknown gesture option '%s'!",
+                            optionMap.keySet().iterator().next()));
+                }
+
+                System.out.printf("Configuration: Parse gesture '%s' = '%s'..." + Main.NEW_LINE, name, sequence);
+
+                String[] areaList = sequence.split(ApplicationConfiguration.CONFIGURATION_GESTURE_SPLIT_REGEX);
+                Rectangle[] areaArray = new Rectangle[areaList.length];
+
+                for (int i = 0; i < areaList.length; i++) {
+                    String area = areaList[i].trim();
+
+                    if (area.isEmpty() || area.charAt(0) != ApplicationConfiguration.CONFIGURATION_MARKER) {
+                        throw new IllegalArgumentException(String.format("Gesture '%s' has an invalid area '%s'!", name, area));
+                    }
+
+                    areaArray[i] = this.parseConfigurationKey(area.substring(1));
+                }
+
+                int gestureTimeout = null == timeout ? defaultTimeout : Integer.parseInt(timeout);
+
+                if (null != action && AreaActionProcess.isCommand(action)) {
+                    gestureList.add(new AreaGesture(name, areaArray, gestureTimeout, this.parseConfigurationCommand(action)));
+                } else if (null != action && AreaActionProfile.isProfile(action)) {
+                    gestureList.add(new AreaGesture(name, areaArray, gestureTimeout, this.parseConfigurationProfile(action)));
+                } else {
+                    gestureList.add(new AreaGesture(name, areaArray, gestureTimeout,
+                            null == action ? new int[0] : this.parseConfigurationValue(action)));
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+
+        return gestureList;
+    }
+
+    /**
+     * Parse the current configuration entry set and compile the result into an {@link AreaTable}.
+     *
+     * @param defaults       The options to use for any area option that is not set.
+     * @param gestureTimeout The timeout to use for any gesture, that has none set.
+     * @param layoutMap      The areas calculated for the screens (see {@link ScreenLayoutCalculation}), in addition to
+     *                       the configured ones. A configured area takes precedence.
+     * @param screenArray    The bounds of the screens to tag the areas with.
+     * @return The compiled representation of the configuration.
+     */
+    public AreaTable compileConfiguration(AreaOptions defaults, int gestureTimeout, Map<Rectangle, int[]> layoutMap,
+                                          Rectangle[] screenArray) {
+        final Map<Rectangle, AreaAction> actionMap = new HashMap<Rectangle, AreaAction>();
+        final Map<Rectangle, int[]> keyStrokeMap = this.parseConfiguration(actionMap);
+
+        for (Map.Entry<Rectangle, int[]> entry : layoutMap.entrySet()) {
+            keyStrokeMap.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+
+        final Map<Rectangle, AreaOptions> optionsMap = this.parseConfigurationOptions(defaults);
+        final List<AreaGesture> gestureList = this.parseConfigurationGestures(gestureTimeout);
+
+        for (Rectangle area : keyStrokeMap.keySet()) {
+            optionsMap.putIfAbsent(area, defaults);
+        }
+        for (AreaGesture gesture : gestureList) {
+            for (int i = 0; i < gesture.size(); i++) {
+                optionsMap.putIfAbsent(gesture.getArea(i), defaults);
+            }
+        }
+
+        return AreaTable.compile(keyStrokeMap, optionsMap, gestureList, actionMap, screenArray);
+    }
+
+    public AreaTable compileConfiguration(AreaOptions defaults, int gestureTimeout) {
+        return this.compileConfiguration(defaults, gestureTimeout, Collections.<Rectangle, int[]>emptyMap(),
+                new Rectangle[0]);
+    }
+
+    public AreaTable compileConfiguration(AreaOptions defaults) {
+        return this.compileConfiguration(defaults, AreaGesture.DEFAULT_TIMEOUT);
+    }
+
+    public AreaTable compileConfiguration() {
+        return this.compileConfiguration(AreaOptions.DEFAULT);
+    }
+
     protected Rectangle parseConfigurationKey(String key) {
+        key = key.trim();
+
+        int index = key.indexOf(ApplicationConfiguration.CONFIGURATION_SHAPE_START);
+
+        // Any shape has its type in front of the coordinates (i.e. "triangle(x0,y0,x1,y1,x2,y2)"), see AreaShape.
+        if (index > 0) {
+            if (key.charAt(key.length() - 1) != ApplicationConfiguration.CONFIGURATION_SHAPE_END) {
+                throw new IllegalArgumentException(String.format("Invalid shape '%s'!", key));
+            }
+
+            return this.parseConfigurationShape(key.substring(0, index).trim().toLowerCase(),
+                    key.substring(index + 1, key.length() - 1));
+        }
+
         // Cut the coordinates into pieces, i.e. values, at any of the split chars (regex).
         String[] coordinatePair = key.split(ApplicationConfiguration.CONFIGURATION_SPLIT_REGEX);
 
@@ -233,7 +610,50 @@ public class ApplicationConfiguration extends Properties {
         return rectangle;
     }
 
+    protected AreaShape parseConfigurationShape(String type, String coordinates) {
+        String[] coordinateList = coordinates.split(ApplicationConfiguration.CONFIGURATION_SPLIT_REGEX);
+        int[] coordinateArray = new int[coordinateList.length];
+
+        for (int i = 0; i < coordinateList.length; i++) {
+            coordinateArray[i] = Integer.parseInt(coordinateList[i].trim());
+        }
+
+        final AreaShape shape = AreaShape.create(type, coordinateArray);
+
+        System.out.printf("Configuration: Shape-Area: %s within %s." + Main.NEW_LINE, shape.getName(), new Rectangle(shape));
+
+        return shape;
+    }
+
+    protected AreaActionProcess parseConfigurationCommand(String value) {
+        final AreaActionProcess action = AreaActionProcess.compile(value);
+
+        System.out.printf("Configuration: Exec '%s'" + Main.NEW_LINE, action.getName());
+
+        return action;
+    }
+
+    protected AreaActionProfile parseConfigurationProfile(String value) {
+        // Without any switch (i.e. outside the application), the action is compiled but knows no profile.
+        final AreaActionProfile action = AreaActionProfile.compile(value, null == this.profileSwitch
+                ? profile -> false
+                : this.profileSwitch);
+
+        System.out.printf("Configuration: Switch to profile '%s'" + Main.NEW_LINE, action.getProfile());
+
+        return action;
+    }
+
     protected int[] parseConfigurationValue(String value) throws NoSuchFieldException, IllegalAccessException {
+        // A macro is not limited in size, see KeyStrokeMacro.
+        if (KeyStrokeMacro.isMacro(value)) {
+            int[] macro = KeyStrokeMacro.compile(value);
+
+            System.out.printf("Configuration: Macro of %d steps" + Main.NEW_LINE, macro.length);
+
+            return macro;
+        }
+
         // Create a limited size command stack.
         int[] commandStack = new int[ApplicationConfiguration.COMMAND_STACK_SIZE];
         // Cut the coordinates into pieces, i.e. values, at any of the split chars (regex).
@@ -250,16 +670,16 @@ public class ApplicationConfiguration extends Properties {
             String command = commandList[i].trim()
                     .toUpperCase();
 
-            // Try to find the sta-tic field corresponding to the given command.
-            Field field = KeyEvent.class.getDeclaredField(command);
-
-            if (Modifier.isStatic(field.getModifiers())
-                    && field.getType() == int.class
-                    && field.getName().startsWith("VK_")) {
-                int commandValue = commandStack[i] = field.getInt(null);
+            // Try to find the sta-tic field corresponding to the given command, see KeyCodeRegistry.
+            if (KeyCodeRegistry.getInstance().contains(command)) {
+                int commandValue = commandStack[i] = KeyCodeRegistry.getInstance()
+                        .getCode(command);
 
                 System.out.printf("Configuration: Command %d: '%s' = %d" + Main.NEW_LINE, i, command, commandValue);
             } else {
+                // Only look at the field itself on failure, to report a missing one the same way as before.
+                KeyEvent.class.getDeclaredField(command);
+
                 System.out.printf("Configuration: Command %d: '%s' = %s" + Main.NEW_LINE, i, command, "(unknown)");
             }
         }
@@ -26,6 +26,8 @@ package dev.machinateur.hotcorners;
 
 import java.awt.*;
 import java.awt.event.KeyEvent;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class ApplicationConfigurationCalculation extends ApplicationConfiguration {
 
@@ -33,49 +35,95 @@ public class ApplicationConfigurationCalculation extends ApplicationConfiguratio
             = 2;
 
     /**
-     * Set the configuration based on primary screen size or use the defaults. See {@link Toolkit#getScreenSize()} for
-     * more information.
+     * Set the configuration based on the corners of each screen of the layout, instead of the defaults (which assume a
+     * single HD screen). If there is no screen at all, the defaults are kept.
      *
-     * @param runCalculation Werther to run the calculation based on screen size or not.
+     * @param screenLayout The screens to run the calculation for.
      */
-    public ApplicationConfigurationCalculation(boolean runCalculation) {
+    public ApplicationConfigurationCalculation(ScreenLayout screenLayout) {
         super();
 
-        if (runCalculation) {
-            Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
+        final Rectangle[] screenArray = screenLayout.getScreenBounds();
+
+        if (0 < screenArray.length) {
+            // Remove the default areas, which do not match the actual screens.
+            this.keySet()
+                    .removeIf(key -> ((String) key).trim().charAt(0) == ApplicationConfiguration.CONFIGURATION_MARKER);
+
+            for (Rectangle screen : screenArray) {
+                System.out.printf("Configuration: Screen %s." + Main.NEW_LINE, screen);
 
-            this.runCalculation(screen);
+                this.runCalculation(screen);
+            }
         }
     }
 
+    /**
+     * Set the configuration based on all screens or use the defaults. See {@link ScreenLayoutAwt} for more
+     * information.
+     *
+     * @param runCalculation Werther to run the calculation based on screen size or not.
+     */
+    public ApplicationConfigurationCalculation(boolean runCalculation) {
+        this(runCalculation ? new ScreenLayoutAwt() : new ScreenLayoutFixed());
+    }
+
     public ApplicationConfigurationCalculation() {
         this(true);
     }
 
-    protected void runCalculation(int width, int height) {
-        int threshold = ApplicationConfigurationCalculation.CALCULATION_THRESHOLD;
+    /**
+     * Calculate the corner areas of the screen.
+     *
+     * @param screen The bounds of the screen, on the virtual desktop.
+     * @return The areas with their key strokes, in order top left, top right, bottom left and bottom right.
+     */
+    public static Map<Rectangle, int[]> calculate(Rectangle screen) {
+        // Keep the corners apart on a tiny screen.
+        int threshold = Math.min(ApplicationConfigurationCalculation.CALCULATION_THRESHOLD,
+                Math.min(screen.width, screen.height) / 2);
+        int x0 = screen.x;
+        int y0 = screen.y;
+        int x1 = screen.x + screen.width;
+        int y1 = screen.y + screen.height;
+
+        final Map<Rectangle, int[]> cornerMap = new LinkedHashMap<Rectangle, int[]>();
 
         // - Top left corner.
-        this.put(0, 0, threshold, threshold, new int[]{
+        cornerMap.put(new Rectangle(x0, y0, threshold, threshold), new int[]{
                 KeyEvent.VK_CONTROL,
                 KeyEvent.VK_ALT,
                 KeyEvent.VK_TAB,
         });
         // - Top right corner.
-        this.put(width - threshold, 0, width, threshold, new int[]{
+        cornerMap.put(new Rectangle(x1 - threshold, y0, threshold, threshold), new int[]{
                 KeyEvent.VK_WINDOWS,
                 KeyEvent.VK_A,
         });
         // - Bottom left corner.
-        this.put(0, height - threshold, threshold, height, new int[]{
+        cornerMap.put(new Rectangle(x0, y1 - threshold, threshold, threshold), new int[]{
                 KeyEvent.VK_WINDOWS,
                 KeyEvent.VK_TAB,
         });
-        // - Top right corner.
-        this.put(width - threshold, height - threshold, width, height, new int[]{
+        // - Bottom right corner.
+        cornerMap.put(new Rectangle(x1 - threshold, y1 - threshold, threshold, threshold), new int[]{
                 KeyEvent.VK_WINDOWS,
                 KeyEvent.VK_D,
         });
+
+        return cornerMap;
+    }
+
+    protected void runCalculation(Rectangle screen) {
+        for (Map.Entry<Rectangle, int[]> entry : ApplicationConfigurationCalculation.calculate(screen).entrySet()) {
+            final Rectangle area = entry.getKey();
+
+            this.put(area.x, area.y, area.x + area.width, area.y + area.height, entry.getValue());
+        }
+    }
+
+    protected void runCalculation(int width, int height) {
+        this.runCalculation(new Rectangle(0, 0, width, height));
     }
 
     protected void runCalculation(Dimension dimension) {
@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The areas of all profiles (see {@link ApplicationConfiguration#getProfile(String)}), each compiled into its own
+ * {@link AreaTable} up front, so that switching the profile is a plain lookup. Immutable, it's replaced as a whole on
+ * reload.
+ */
+final public class ApplicationConfigurationProfiles {
+
+    protected static final String PROFILE_LAYOUT_KEY
+            = "layout";
+
+    private final Map<String, AreaTable> areaTableMap;
+
+    /**
+     * The screens of each profile, to switch to it on, if any.
+     */
+    private final Map<String, Rectangle[]> layoutMap;
+
+    private final List<String> nameList;
+
+    private ApplicationConfigurationProfiles(Map<String, AreaTable> areaTableMap, Map<String, Rectangle[]> layoutMap) {
+        this.areaTableMap = Collections.unmodifiableMap(areaTableMap);
+        this.layoutMap = Collections.unmodifiableMap(layoutMap);
+        this.nameList = List.copyOf(areaTableMap.keySet());
+    }
+
+    /**
+     * Compile the areas of all profiles.
+     *
+     * @param configuration The configuration.
+     * @param compiler      The compiler of the configuration of a single profile.
+     * @return The profiles.
+     */
+    public static ApplicationConfigurationProfiles compile(ApplicationConfiguration configuration,
+                                                           Function<ApplicationConfiguration, AreaTable> compiler) {
+        final Map<String, AreaTable> areaTableMap = new LinkedHashMap<String, AreaTable>();
+        final Map<String, Rectangle[]> layoutMap = new HashMap<String, Rectangle[]>();
+
+        for (String name : configuration.getProfileNames()) {
+            final ApplicationConfiguration profile = configuration.getProfile(name);
+
+            System.out.printf("Configuration: Profile '%s'..." + Main.NEW_LINE, name);
+
+            if (profile.containsKey(ApplicationConfigurationProfiles.PROFILE_LAYOUT_KEY)) {
+                layoutMap.put(name, ApplicationConfigurationProfiles.sort(ScreenLayoutFixed.parse(
+                        ((String) profile.remove(ApplicationConfigurationProfiles.PROFILE_LAYOUT_KEY)).trim())
+                        .getScreenBounds()));
+            }
+
+            areaTableMap.put(name, compiler.apply(profile));
+        }
+
+        return new ApplicationConfigurationProfiles(areaTableMap, layoutMap);
+    }
+
+    private static Rectangle[] sort(Rectangle[] screenArray) {
+        final Rectangle[] sortedArray = screenArray.clone();
+
+        Arrays.sort(sortedArray, Comparator.<Rectangle>comparingInt(screen -> screen.x)
+                .thenComparingInt(screen -> screen.y)
+                .thenComparingInt(screen -> screen.width)
+                .thenComparingInt(screen -> screen.height));
+
+        return sortedArray;
+    }
+
+    /**
+     * @param name The name of the profile.
+     * @return The areas of the profile, or {@code null} if there is no such profile.
+     */
+    public AreaTable get(String name) {
+        return this.areaTableMap.get(name);
+    }
+
+    public boolean contains(String name) {
+        return this.areaTableMap.containsKey(name);
+    }
+
+    /**
+     * @param name The name of the profile.
+     * @return The name of the profile after it, in order, or the first one after the last one.
+     */
+    public String getNext(String name) {
+        return this.nameList.get((this.nameList.indexOf(name) + 1) % this.nameList.size());
+    }
+
+    /**
+     * Find the profile to switch to for the screens, i.e. the first one with exactly those screens, in any order.
+     *
+     * @param screenArray The bounds of the screens.
+     * @return The name of the profile, or {@code null} if there is none.
+     */
+    public String getProfile(Rectangle[] screenArray) {
+        final Rectangle[] sortedArray = ApplicationConfigurationProfiles.sort(screenArray);
+
+        for (String name : this.nameList) {
+            if (Arrays.equals(sortedArray, this.layoutMap.get(name))) {
+                return name;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return The names of all profiles, the default profile first.
+     */
+    public List<String> getNames() {
+        return this.nameList;
+    }
+
+    public int size() {
+        return this.nameList.size();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the configuration file for changes, see {@link WatchService}, and runs the given callback on its own thread
+ * after each change. Changes in quick succession (e.g. an editor writing a temporary file and replacing the original)
+ * are collected, until there is no change for the settle time.
+ */
+final public class ApplicationConfigurationWatcher implements Runnable {
+
+    protected static final long SETTLE_TIME
+            = 200L;
+
+    private final Path path;
+
+    private final Runnable callback;
+
+    private final WatchService watchService;
+
+    private final Thread thread;
+
+    public ApplicationConfigurationWatcher(Path path, Runnable callback) {
+        this.path = path.toAbsolutePath()
+                .normalize();
+        this.callback = callback;
+
+        try {
+            this.watchService = this.path.getFileSystem()
+                    .newWatchService();
+
+            this.path.getParent()
+                    .register(this.watchService,
+                            StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        this.thread = new Thread(this, "hotcorners-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                WatchKey key = this.watchService.take();
+                boolean changed = false;
+
+                // Collect all changes until the file settles.
+                while (null != key) {
+                    changed |= this.isChanged(key);
+
+                    key = this.watchService.poll(ApplicationConfigurationWatcher.SETTLE_TIME, TimeUnit.MILLISECONDS);
+                }
+
+                if (changed) {
+                    // A failed reload must not end the watcher, the next change may fix it.
+                    try {
+                        this.callback.run();
+                    } catch (RuntimeException e) {
+                        ApplicationLogger.getInstance()
+                                .log(ApplicationLogger.ERROR, "Reload: Failed to reload: %s", e.toString());
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped.
+        }
+    }
+
+    private boolean isChanged(WatchKey key) {
+        boolean changed = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path && this.path.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+
+        key.reset();
+
+        return changed;
+    }
+
+    public void start() {
+        this.thread.start();
+    }
+
+    public void stop() {
+        try {
+            this.watchService.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+}
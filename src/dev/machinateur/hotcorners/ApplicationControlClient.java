@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * The client of the {@link ApplicationControlServer} of a running instance.
+ */
+final public class ApplicationControlClient {
+
+    private final Path path;
+
+    public ApplicationControlClient(Path path) {
+        this.path = path;
+    }
+
+    public ApplicationControlClient() {
+        this(ApplicationControlServer.getDefaultPath());
+    }
+
+    /**
+     * Send the command and wait for the response.
+     *
+     * @param command The command, e.g. {@code reload}.
+     * @return The response, without the trailing line break.
+     * @throws IOException If there is no running instance, or the connection failed.
+     */
+    public String send(String command) throws IOException {
+        try (
+                SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        ) {
+            channel.connect(UnixDomainSocketAddress.of(this.path));
+
+            final ByteBuffer commandBuffer = ByteBuffer.wrap((command.trim() + "\n").getBytes(StandardCharsets.UTF_8));
+
+            while (commandBuffer.hasRemaining()) {
+                channel.write(commandBuffer);
+            }
+
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            final ByteBuffer buffer = ByteBuffer.allocate(ApplicationControlServer.COMMAND_SIZE);
+
+            while (0 <= channel.read(buffer)) {
+                outputStream.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+
+            return outputStream.toString(StandardCharsets.UTF_8)
+                    .stripTrailing();
+        }
+    }
+
+    /**
+     * @param response The response of a command.
+     * @return Whether the command failed.
+     */
+    public static boolean isError(String response) {
+        return response.startsWith(ApplicationControlServer.RESPONSE_ERROR);
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+}
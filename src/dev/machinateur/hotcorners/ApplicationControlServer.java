@@ -0,0 +1,246 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Iterator;
+import java.util.function.Function;
+
+/**
+ * A local control server on a Unix domain socket, so that a running instance can be steered from the command line
+ * (see {@link ApplicationControlClient}). A single non-blocking thread serves all connections: Each connection sends a
+ * single command as line, and receives the response of the handler, after which it's closed. A response starting with
+ * {@link #RESPONSE_ERROR} reports a failed command.
+ * <p>
+ * The socket is only accessible to the user: It's created within the private runtime directory (see
+ * {@link ApplicationInstanceLock#getRuntimeDirectory()}), so it's never open to others, not even before its own
+ * permissions are set. Any stale socket file is replaced, so the server must only be started while holding the
+ * {@link ApplicationInstanceLock}.
+ */
+final public class ApplicationControlServer implements Runnable {
+
+    public static final String RESPONSE_ERROR = "Error: ";
+
+    /**
+     * The maximum length of a command in bytes.
+     */
+    protected static final int COMMAND_SIZE
+            = 1024;
+
+    protected static final long JOIN_TIMEOUT
+            = 1000L;
+
+    private final Path path;
+
+    private final Function<String, String> handler;
+
+    private final Selector selector;
+
+    private final ServerSocketChannel serverChannel;
+
+    private final Thread thread;
+
+    private volatile boolean running;
+
+    /**
+     * @param path    The path of the socket.
+     * @param handler The handler of a command, returning the response. It's called on the thread of the server, any
+     *                exception it throws is sent as error.
+     */
+    public ApplicationControlServer(Path path, Function<String, String> handler) {
+        this.path = path;
+        this.handler = handler;
+
+        try {
+            Files.deleteIfExists(path);
+
+            this.selector = Selector.open();
+            this.serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            this.serverChannel.bind(UnixDomainSocketAddress.of(path));
+            this.serverChannel.configureBlocking(false);
+            this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+
+            // The directory already keeps others out, this only applies to a custom path.
+            if (path.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rw-------"));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        this.thread = new Thread(this, "hotcorners-control");
+        this.thread.setDaemon(true);
+    }
+
+    public static Path getDefaultPath() {
+        return ApplicationInstanceLock.getRuntimePath(".sock");
+    }
+
+    public void start() {
+        this.running = true;
+        this.thread.start();
+
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.INFO, "Control: Listening on '%s'.", this.path);
+    }
+
+    /**
+     * Stop the server and delete the socket. Any connection still open is closed.
+     */
+    public void stop() {
+        this.running = false;
+        this.selector.wakeup();
+
+        try {
+            if (Thread.currentThread() != this.thread) {
+                this.thread.join(ApplicationControlServer.JOIN_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            this.serverChannel.close();
+            Files.deleteIfExists(this.path);
+        } catch (IOException e) {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.WARN, "Control: Failed to close: %s", e.toString());
+        }
+    }
+
+    @Override
+    public void run() {
+        try (this.selector) {
+            while (this.running) {
+                this.selector.select();
+
+                final Iterator<SelectionKey> keyIterator = this.selector.selectedKeys().iterator();
+
+                while (keyIterator.hasNext()) {
+                    final SelectionKey key = keyIterator.next();
+
+                    keyIterator.remove();
+
+                    try {
+                        if (key.isAcceptable()) {
+                            this.accept();
+                        } else if (key.isReadable()) {
+                            this.read(key);
+                        } else if (key.isWritable()) {
+                            this.write(key);
+                        }
+                    } catch (IOException e) {
+                        // The client went away, only that connection is affected.
+                        key.channel().close();
+                    }
+                }
+            }
+
+            for (SelectionKey key : this.selector.keys()) {
+                key.channel().close();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.ERROR, "Control: Server failed: %s", e.toString());
+        }
+    }
+
+    private void accept() throws IOException {
+        final SocketChannel channel = this.serverChannel.accept();
+
+        if (null == channel) {
+            return;
+        }
+
+        channel.configureBlocking(false);
+        channel.register(this.selector, SelectionKey.OP_READ, ByteBuffer.allocate(ApplicationControlServer.COMMAND_SIZE));
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        final SocketChannel channel = (SocketChannel) key.channel();
+        final ByteBuffer buffer = (ByteBuffer) key.attachment();
+        final int count = channel.read(buffer);
+        final int end = ApplicationControlServer.indexOfLineEnd(buffer);
+
+        // Wait for the rest of the command, unless complete, full or at its end.
+        if (end < 0 && 0 <= count && buffer.hasRemaining()) {
+            return;
+        }
+
+        final String command = new String(buffer.array(), 0, end < 0 ? buffer.position() : end, StandardCharsets.UTF_8)
+                .trim();
+        String response;
+
+        if (end < 0 && !buffer.hasRemaining()) {
+            response = ApplicationControlServer.RESPONSE_ERROR + "Command too long!";
+        } else if (command.isEmpty()) {
+            response = ApplicationControlServer.RESPONSE_ERROR + "Empty command!";
+        } else {
+            try {
+                response = this.handler.apply(command);
+            } catch (RuntimeException e) {
+                response = ApplicationControlServer.RESPONSE_ERROR + e.getMessage();
+            }
+        }
+
+        key.attach(ByteBuffer.wrap((response + System.lineSeparator()).getBytes(StandardCharsets.UTF_8)));
+        key.interestOps(SelectionKey.OP_WRITE);
+
+        // Write right away, a command like "stop" may end the process before the next select.
+        this.write(key);
+    }
+
+    private static int indexOfLineEnd(ByteBuffer buffer) {
+        for (int i = 0; i < buffer.position(); i++) {
+            if ('\n' == buffer.get(i)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void write(SelectionKey key) throws IOException {
+        final ByteBuffer buffer = (ByteBuffer) key.attachment();
+
+        ((SocketChannel) key.channel()).write(buffer);
+
+        if (!buffer.hasRemaining()) {
+            key.channel().close();
+        }
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Set;
+
+/**
+ * The lock of the single running instance per user, so that a second one does not double the polling. The lock is held
+ * by the operating system until released or the process exits, even if killed, so a stale lock file does no harm. The
+ * file contains the process id of the instance holding it, for information.
+ */
+final public class ApplicationInstanceLock implements Closeable {
+
+    /**
+     * The permissions of the runtime directory, i.e. {@code rwx------}.
+     */
+    protected static final Set<PosixFilePermission> RUNTIME_DIRECTORY_PERMISSIONS
+            = PosixFilePermissions.fromString("rwx------");
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final FileLock lock;
+
+    private ApplicationInstanceLock(Path path, FileChannel channel, FileLock lock) {
+        this.path = path;
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    /**
+     * Get the path of a file of the running instance, within the private runtime directory (see
+     * {@link #getRuntimeDirectory()}).
+     *
+     * @param extension The extension of the file.
+     * @return The path.
+     */
+    public static Path getRuntimePath(String extension) {
+        return ApplicationInstanceLock.getRuntimeDirectory()
+                .resolve("hotcorners" + extension);
+    }
+
+    /**
+     * Get the private runtime directory, i.e. {@code hotcorners} within the runtime directory of the user (i.e.
+     * {@code XDG_RUNTIME_DIR}), if any, or {@code hotcorners-<user>} within the temporary directory otherwise. The
+     * directory is created accessible to the user only, so that no other user can connect to the socket, or take the
+     * lock, in its place. An existing directory, that is not owned by the user, or accessible to others, is refused.
+     *
+     * @return The directory.
+     * @throws IllegalStateException If the directory is not private.
+     */
+    public static Path getRuntimeDirectory() {
+        final String runtimeDirectory = System.getenv("XDG_RUNTIME_DIR");
+        final String user = System.getProperty("user.name", "user");
+        final Path directory = null == runtimeDirectory || runtimeDirectory.isEmpty()
+                ? Paths.get(System.getProperty("java.io.tmpdir"))
+                        .resolve("hotcorners-" + user.replaceAll("[^A-Za-z0-9._-]", "_"))
+                : Paths.get(runtimeDirectory)
+                        .resolve("hotcorners");
+
+        try {
+            if (!directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                // Without permissions (i.e. on Windows), the temporary directory is already the user's own.
+                return Files.createDirectories(directory);
+            }
+
+            try {
+                Files.createDirectory(directory,
+                        PosixFilePermissions.asFileAttribute(ApplicationInstanceLock.RUNTIME_DIRECTORY_PERMISSIONS));
+            } catch (FileAlreadyExistsException e) {
+                // Check the existing one below.
+            }
+
+            final PosixFileAttributes attributes = Files.readAttributes(directory, PosixFileAttributes.class,
+                    LinkOption.NOFOLLOW_LINKS);
+            final UserPrincipal owner = directory.getFileSystem()
+                    .getUserPrincipalLookupService()
+                    .lookupPrincipalByName(user);
+
+            if (!attributes.isDirectory()
+                    || !attributes.owner().equals(owner)
+                    || !ApplicationInstanceLock.RUNTIME_DIRECTORY_PERMISSIONS.containsAll(attributes.permissions())) {
+                throw new IllegalStateException(
+                        String.format("Runtime directory '%s' must be a directory, owned by and only accessible to '%s'!",
+                                directory, user));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return directory;
+    }
+
+    public static Path getDefaultPath() {
+        return ApplicationInstanceLock.getRuntimePath(".lock");
+    }
+
+    /**
+     * Acquire the lock, unless another instance holds it.
+     *
+     * @param path The lock file, created if missing.
+     * @return The lock, or {@code null} if held by another instance.
+     */
+    public static ApplicationInstanceLock tryAcquire(Path path) {
+        FileChannel channel = null;
+
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+            final FileLock lock = channel.tryLock();
+
+            if (null == lock) {
+                channel.close();
+
+                return null;
+            }
+
+            channel.truncate(0L);
+            channel.write(ByteBuffer.wrap((ProcessHandle.current().pid() + System.lineSeparator())
+                    .getBytes(StandardCharsets.US_ASCII)));
+            channel.force(false);
+
+            return new ApplicationInstanceLock(path, channel, lock);
+        } catch (IOException e) {
+            if (null != channel) {
+                try {
+                    channel.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+
+            throw new RuntimeException(e);
+        }
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Release the lock. The file is kept, as deleting it could race with another instance acquiring it.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.lock.release();
+        } finally {
+            this.channel.close();
+        }
+    }
+}
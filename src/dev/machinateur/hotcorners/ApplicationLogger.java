@@ -0,0 +1,446 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Formatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An asynchronous logger, that keeps formatting and output off the calling thread. A record is its level, the template
+ * (see {@link Formatter}) and up to {@link #ARGUMENT_LIMIT} arguments, which are copied into a preallocated ring buffer
+ * as they are, without boxing. A background writer thread formats and writes the records in order.
+ * <p>
+ * Any number of threads may log concurrently: A slot is claimed by compare-and-set on the claim sequence, and published
+ * by writing its sequence number, once filled. When the buffer is full, the record is dropped instead of blocking the
+ * caller, and the number of dropped records is reported by the writer as soon as there is room again.
+ */
+final public class ApplicationLogger {
+
+    public static final int DEBUG = 0;
+
+    public static final int INFO = 1;
+
+    public static final int WARN = 2;
+
+    public static final int ERROR = 3;
+
+    protected static final int CAPACITY
+            = 1024;
+
+    protected static final int ARGUMENT_LIMIT
+            = 5;
+
+    private static final byte KIND_LONG = 1;
+
+    private static final byte KIND_DOUBLE = 2;
+
+    private static final byte KIND_OBJECT = 3;
+
+    private static final long IDLE_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(100L);
+
+    private static final ApplicationLogger INSTANCE = new ApplicationLogger(System.out, ApplicationLogger.CAPACITY);
+
+    private final PrintStream out;
+
+    private final int mask;
+
+    private final String[] templateArray;
+
+    private final byte[] kindArray;
+
+    private final long[] valueArray;
+
+    private final Object[] objectArray;
+
+    /**
+     * The sequence number of the record published in each slot, so that the writer knows when a claimed slot is filled.
+     */
+    private final AtomicLongArray sequenceArray;
+
+    private final AtomicLong claimSequence = new AtomicLong();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * The sequence number of the next record to write. Only ever written by the writer, which frees the slots before.
+     */
+    private volatile long writeSequence;
+
+    private volatile int level = ApplicationLogger.INFO;
+
+    private volatile boolean waiting;
+
+    private volatile Thread thread;
+
+    /**
+     * Owned by the writer (or by the thread draining on shutdown).
+     */
+    private final StringBuilder builder = new StringBuilder();
+
+    private final Formatter formatter = new Formatter(this.builder);
+
+    private final Object[] argumentArray = new Object[ApplicationLogger.ARGUMENT_LIMIT];
+
+    private long reportedDroppedCount;
+
+    /**
+     * @param out      The stream to write to.
+     * @param capacity The number of records to buffer, rounded up to the next power of two.
+     */
+    public ApplicationLogger(PrintStream out, int capacity) {
+        final int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+
+        this.out = out;
+        this.mask = size - 1;
+        this.templateArray = new String[size];
+        this.kindArray = new byte[size * ApplicationLogger.ARGUMENT_LIMIT];
+        this.valueArray = new long[size * ApplicationLogger.ARGUMENT_LIMIT];
+        this.objectArray = new Object[size * ApplicationLogger.ARGUMENT_LIMIT];
+        this.sequenceArray = new AtomicLongArray(size);
+
+        for (int i = 0; i < size; i++) {
+            this.sequenceArray.set(i, -1L);
+        }
+
+        final Thread thread = new Thread(this::run, "hotcorners-logger");
+
+        thread.setDaemon(true);
+
+        this.thread = thread;
+
+        thread.start();
+
+        Runtime.getRuntime()
+                .addShutdownHook(new Thread(this::shutdown, "hotcorners-logger-shutdown"));
+    }
+
+    public static ApplicationLogger getInstance() {
+        return ApplicationLogger.INSTANCE;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public int getLevel() {
+        return this.level;
+    }
+
+    public boolean isEnabled(int level) {
+        return level >= this.level;
+    }
+
+    /**
+     * @return The number of records dropped so far, as the buffer was full.
+     */
+    public long getDroppedCount() {
+        return this.droppedCount.get();
+    }
+
+    public void log(int level, String template) {
+        final long sequence = this.claim(level);
+
+        if (sequence >= 0L) {
+            this.publish(sequence, template);
+        }
+    }
+
+    public void log(int level, String template, long a) {
+        final long sequence = this.claim(level);
+
+        if (sequence >= 0L) {
+            this.setLong(sequence, 0, a);
+            this.publish(sequence, template);
+        }
+    }
+
+    public void log(int level, String template, long a, long b) {
+        final long sequence = this.claim(level);
+
+        if (sequence >= 0L) {
+            this.setLong(sequence, 0, a);
+            this.setLong(sequence, 1, b);
+            this.publish(sequence, template);
+        }
+    }
+
+    public void log(int level, String template, long a, long b, long c) {
+        final long sequence = this.claim(level);
+
+        if (sequence >= 0L) {
+            this.setLong(sequence, 0, a);
+            this.setLong(sequence, 1, b);
+            this.setLong(sequence, 2, c);
+            this.publish(sequence, template);
+        }
+    }
+
+    public void log(int level, String template, long a, long b, long c, long d) {
+        final long sequence = this.claim(level);
+
+        if (sequence >= 0L) {
+            this.setLong(sequence, 0, a);
+            this.setLong(sequence, 1, b);
+            this.setLong(sequence, 2, c);
+            this.setLong(sequence, 3, d);
+            this.publish(sequence, template);
+        }
+    }
+
+    public void log(int level, String template, long a, long b, long c, long d, long e) {
+        final long sequence = this.claim(level);
+
+        if (sequence >= 0L) {
+            this.setLong(sequence, 0, a);
+            this.setLong(sequence, 1, b);
+            this.setLong(sequence, 2, c);
+            this.setLong(sequence, 3, d);
+            this.setLong(sequence, 4, e);
+            this.publish(sequence, template);
+        }
+    }
+
+    public void log(int level, String template, long a, double b) {
+        final long sequence = this.claim(level);
+
+        if (sequence >= 0L) {
+            this.setLong(sequence, 0, a);
+            this.setDouble(sequence, 1, b);
+            this.publish(sequence, template);
+        }
+    }
+
+    public void log(int level, String template, Object a) {
+        final long sequence = this.claim(level);
+
+        if (sequence >= 0L) {
+            this.setObject(sequence, 0, a);
+            this.publish(sequence, template);
+        }
+    }
+
+    public void log(int level, String template, Object a, long b) {
+        final long sequence = this.claim(level);
+
+        if (sequence >= 0L) {
+            this.setObject(sequence, 0, a);
+            this.setLong(sequence, 1, b);
+            this.publish(sequence, template);
+        }
+    }
+
+    public void log(int level, String template, Object a, Object b) {
+        final long sequence = this.claim(level);
+
+        if (sequence >= 0L) {
+            this.setObject(sequence, 0, a);
+            this.setObject(sequence, 1, b);
+            this.publish(sequence, template);
+        }
+    }
+
+    /**
+     * @return The claimed sequence number, or {@code -1} if the level is disabled or the record was dropped.
+     */
+    private long claim(int level) {
+        if (level < this.level) {
+            return -1L;
+        }
+
+        long sequence;
+
+        do {
+            sequence = this.claimSequence.get();
+
+            if (sequence - this.writeSequence > this.mask) {
+                this.droppedCount.incrementAndGet();
+
+                return -1L;
+            }
+        } while (!this.claimSequence.compareAndSet(sequence, sequence + 1L));
+
+        return sequence;
+    }
+
+    private void setLong(long sequence, int argument, long value) {
+        final int offset = (int) (sequence & this.mask) * ApplicationLogger.ARGUMENT_LIMIT + argument;
+
+        this.kindArray[offset] = ApplicationLogger.KIND_LONG;
+        this.valueArray[offset] = value;
+    }
+
+    private void setDouble(long sequence, int argument, double value) {
+        final int offset = (int) (sequence & this.mask) * ApplicationLogger.ARGUMENT_LIMIT + argument;
+
+        this.kindArray[offset] = ApplicationLogger.KIND_DOUBLE;
+        this.valueArray[offset] = Double.doubleToRawLongBits(value);
+    }
+
+    private void setObject(long sequence, int argument, Object value) {
+        final int offset = (int) (sequence & this.mask) * ApplicationLogger.ARGUMENT_LIMIT + argument;
+
+        this.kindArray[offset] = ApplicationLogger.KIND_OBJECT;
+        this.objectArray[offset] = value;
+    }
+
+    private void publish(long sequence, String template) {
+        final int slot = (int) (sequence & this.mask);
+
+        this.templateArray[slot] = template;
+        // A volatile write, as the check for a waiting writer right after must not be reordered before it.
+        this.sequenceArray.set(slot, sequence);
+
+        if (this.waiting) {
+            this.waiting = false;
+
+            LockSupport.unpark(this.thread);
+        }
+    }
+
+    private void run() {
+        final Thread thread = Thread.currentThread();
+
+        while (thread == this.thread) {
+            if (this.drain()) {
+                continue;
+            }
+
+            this.waiting = true;
+
+            if (!this.isPublished(this.writeSequence) && thread == this.thread) {
+                LockSupport.parkNanos(this, ApplicationLogger.IDLE_TIMEOUT);
+            }
+
+            this.waiting = false;
+        }
+    }
+
+    private boolean isPublished(long sequence) {
+        return this.sequenceArray.get((int) (sequence & this.mask)) == sequence;
+    }
+
+    /**
+     * Write all records published so far.
+     *
+     * @return Whether there was anything to write.
+     */
+    private synchronized boolean drain() {
+        long sequence = this.writeSequence;
+
+        if (!this.isPublished(sequence) && this.droppedCount.get() == this.reportedDroppedCount) {
+            return false;
+        }
+
+        while (this.isPublished(sequence)) {
+            this.write((int) (sequence & this.mask));
+
+            this.writeSequence = ++sequence;
+        }
+
+        final long droppedCount = this.droppedCount.get();
+
+        if (droppedCount != this.reportedDroppedCount) {
+            this.out.printf("Log: Dropped %d records, as the buffer was full." + Main.NEW_LINE,
+                    droppedCount - this.reportedDroppedCount);
+
+            this.reportedDroppedCount = droppedCount;
+        }
+
+        this.out.flush();
+
+        return true;
+    }
+
+    private void write(int slot) {
+        final int offset = slot * ApplicationLogger.ARGUMENT_LIMIT;
+        Throwable throwable = null;
+
+        for (int i = 0; i < ApplicationLogger.ARGUMENT_LIMIT; i++) {
+            final Object argument = switch (this.kindArray[offset + i]) {
+                case ApplicationLogger.KIND_LONG -> this.valueArray[offset + i];
+                case ApplicationLogger.KIND_DOUBLE -> Double.longBitsToDouble(this.valueArray[offset + i]);
+                case ApplicationLogger.KIND_OBJECT -> this.objectArray[offset + i];
+                default -> null;
+            };
+
+            if (argument instanceof Throwable) {
+                throwable = (Throwable) argument;
+            }
+
+            this.argumentArray[i] = argument;
+            this.kindArray[offset + i] = 0;
+            this.objectArray[offset + i] = null;
+        }
+
+        this.builder.setLength(0);
+
+        try {
+            this.formatter.format(this.templateArray[slot], this.argumentArray);
+        } catch (RuntimeException e) {
+            this.builder.append(this.templateArray[slot]);
+        }
+
+        this.builder.append(System.lineSeparator());
+
+        if (null != throwable) {
+            final StringWriter writer = new StringWriter();
+
+            throwable.printStackTrace(new PrintWriter(writer));
+
+            this.builder.append(writer);
+        }
+
+        this.templateArray[slot] = null;
+
+        this.out.print(this.builder);
+    }
+
+    /**
+     * Stop the writer and write all records left.
+     */
+    public void shutdown() {
+        final Thread thread = this.thread;
+
+        this.thread = null;
+
+        if (null != thread) {
+            LockSupport.unpark(thread);
+
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(1L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        this.drain();
+    }
+}
@@ -0,0 +1,424 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The collector of all runtime metrics, which can be registered as MBean. Recording is cheap enough to stay enabled
+ * permanently: Each recording is a plain increment or a {@link MetricsHistogram} update, made by the thread that owns
+ * the value (i.e. the sampler), or under a lock if there are several of them (i.e. the action threads).
+ */
+final public class ApplicationMetrics implements ApplicationMetricsMXBean {
+
+    protected static final String OBJECT_NAME
+            = "dev.machinateur.hotcorners:type=ApplicationMetrics";
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+    private final Supplier<AreaTrigger> areaTriggerSupplier;
+
+    private final MetricsHistogram tickIntervalHistogram = new MetricsHistogram();
+
+    private final MetricsHistogram tickJitterHistogram = new MetricsHistogram();
+
+    private final MetricsHistogram hitTestHistogram = new MetricsHistogram();
+
+    private final MetricsHistogram actionHistogram = new MetricsHistogram();
+
+    private final Map<String, MetricsHistogram> actionHistogramMap = new ConcurrentHashMap<String, MetricsHistogram>();
+
+    private final LongAdder skippedSampleCount = new LongAdder();
+
+    private final LongAdder droppedActionCount = new LongAdder();
+
+    private final LongAdder mergedActionCount = new LongAdder();
+
+    private final LongAdder timedOutActionCount = new LongAdder();
+
+    private final LongAdder failedActionCount = new LongAdder();
+
+    private final Map<String, LongAdder> triggerCountMap = new ConcurrentHashMap<String, LongAdder>();
+
+    private long tickNanos;
+
+    private long tickWindowNanos;
+
+    private long tickWindowCount;
+
+    private volatile long ticksPerSecond;
+
+    private volatile int effectiveDelay;
+
+    private volatile MouseMotionPipeline pipeline;
+
+    /**
+     * @param areaTriggerSupplier The supplier of the current trigger, to read the suppression counters from.
+     */
+    public ApplicationMetrics(Supplier<AreaTrigger> areaTriggerSupplier) {
+        this.areaTriggerSupplier = areaTriggerSupplier;
+    }
+
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, new ObjectName(ApplicationMetrics.OBJECT_NAME));
+        } catch (JMException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void unregister() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .unregisterMBean(new ObjectName(ApplicationMetrics.OBJECT_NAME));
+        } catch (InstanceNotFoundException e) {
+            // Not registered.
+        } catch (JMException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Record a tick of the sampler. Called by the sampler only.
+     *
+     * @param nanos The time of the tick, see {@link System#nanoTime()}.
+     * @param delay The delay the tick was scheduled with, in milliseconds.
+     */
+    public void recordTick(long nanos, int delay) {
+        if (0L != this.tickNanos) {
+            final long interval = nanos - this.tickNanos;
+
+            this.tickIntervalHistogram.record(interval);
+            this.tickJitterHistogram.record(Math.abs(interval - TimeUnit.MILLISECONDS.toNanos(delay)));
+        } else {
+            this.tickWindowNanos = nanos;
+        }
+
+        this.tickNanos = nanos;
+        this.effectiveDelay = delay;
+        this.tickWindowCount++;
+
+        if (nanos - this.tickWindowNanos >= ApplicationMetrics.SECOND) {
+            this.ticksPerSecond = this.tickWindowCount;
+            this.tickWindowCount = 0L;
+            this.tickWindowNanos = nanos;
+        }
+    }
+
+    /**
+     * @param pipeline The pipeline to read the stage counters from.
+     */
+    public void setPipeline(MouseMotionPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    public void recordSkippedSample() {
+        this.skippedSampleCount.increment();
+    }
+
+    /**
+     * @param latency The time of the hit-test and trigger decision of a sample in nanoseconds.
+     */
+    public void recordHitTest(long latency) {
+        this.hitTestHistogram.record(latency);
+    }
+
+    public void recordTrigger(String area) {
+        this.triggerCountMap.computeIfAbsent(area, key -> new LongAdder())
+                .increment();
+    }
+
+    /**
+     * Record the latency of an action. Called by any action thread.
+     *
+     * @param name    The name of the trigger (i.e. area or gesture) of the action.
+     * @param latency The time from queueing to completion in nanoseconds.
+     */
+    public void recordAction(String name, long latency) {
+        final MetricsHistogram histogram = this.actionHistogramMap.computeIfAbsent(name, key -> new MetricsHistogram());
+
+        synchronized (this.actionHistogram) {
+            this.actionHistogram.record(latency);
+        }
+        synchronized (histogram) {
+            histogram.record(latency);
+        }
+    }
+
+    public void recordDroppedAction() {
+        this.droppedActionCount.increment();
+    }
+
+    public void recordMergedAction() {
+        this.mergedActionCount.increment();
+    }
+
+    public void recordTimedOutAction() {
+        this.timedOutActionCount.increment();
+    }
+
+    public void recordFailedAction() {
+        this.failedActionCount.increment();
+    }
+
+    @Override
+    public long getTickCount() {
+        return this.tickIntervalHistogram.getCount();
+    }
+
+    @Override
+    public long getTicksPerSecond() {
+        return this.ticksPerSecond;
+    }
+
+    @Override
+    public int getEffectiveDelayMillis() {
+        return this.effectiveDelay;
+    }
+
+    @Override
+    public double getTickIntervalMeanNanos() {
+        return this.tickIntervalHistogram.getMean();
+    }
+
+    @Override
+    public long getTickIntervalP50Nanos() {
+        return this.tickIntervalHistogram.getPercentile(50d);
+    }
+
+    @Override
+    public long getTickIntervalP99Nanos() {
+        return this.tickIntervalHistogram.getPercentile(99d);
+    }
+
+    @Override
+    public long getTickIntervalMaximumNanos() {
+        return this.tickIntervalHistogram.getMaximum();
+    }
+
+    @Override
+    public double getTickJitterMeanNanos() {
+        return this.tickJitterHistogram.getMean();
+    }
+
+    @Override
+    public long getTickJitterP99Nanos() {
+        return this.tickJitterHistogram.getPercentile(99d);
+    }
+
+    @Override
+    public long getTickJitterMaximumNanos() {
+        return this.tickJitterHistogram.getMaximum();
+    }
+
+    @Override
+    public long getSkippedSampleCount() {
+        return this.skippedSampleCount.sum();
+    }
+
+    @Override
+    public Map<String, Long> getStageRate() {
+        final MouseMotionPipeline pipeline = this.pipeline;
+
+        return null == pipeline ? Map.of() : pipeline.getRatePerStage();
+    }
+
+    @Override
+    public Map<String, Long> getStageCount() {
+        final MouseMotionPipeline pipeline = this.pipeline;
+
+        return null == pipeline ? Map.of() : pipeline.getCountPerStage();
+    }
+
+    @Override
+    public Map<String, Long> getStageQueueDepth() {
+        final MouseMotionPipeline pipeline = this.pipeline;
+
+        return null == pipeline ? Map.of() : pipeline.getQueueDepthPerStage(false);
+    }
+
+    @Override
+    public Map<String, Long> getStageQueueDepthMaximum() {
+        final MouseMotionPipeline pipeline = this.pipeline;
+
+        return null == pipeline ? Map.of() : pipeline.getQueueDepthPerStage(true);
+    }
+
+    @Override
+    public Map<String, Long> getStageDroppedCount() {
+        final MouseMotionPipeline pipeline = this.pipeline;
+
+        return null == pipeline ? Map.of() : pipeline.getDroppedCountPerStage();
+    }
+
+    @Override
+    public double getHitTestLatencyMeanNanos() {
+        return this.hitTestHistogram.getMean();
+    }
+
+    @Override
+    public long getHitTestLatencyP99Nanos() {
+        return this.hitTestHistogram.getPercentile(99d);
+    }
+
+    @Override
+    public long getHitTestLatencyMaximumNanos() {
+        return this.hitTestHistogram.getMaximum();
+    }
+
+    @Override
+    public long getTriggerCount() {
+        return this.areaTriggerSupplier.get()
+                .getTriggerCount();
+    }
+
+    @Override
+    public Map<String, Long> getTriggerCountPerArea() {
+        final Map<String, Long> triggerCountMap = new TreeMap<String, Long>();
+
+        for (Map.Entry<String, LongAdder> entry : this.triggerCountMap.entrySet()) {
+            triggerCountMap.put(entry.getKey(), entry.getValue().sum());
+        }
+
+        return triggerCountMap;
+    }
+
+    @Override
+    public long getSuppressedDwellCount() {
+        return this.areaTriggerSupplier.get()
+                .getSuppressedDwellCount();
+    }
+
+    @Override
+    public long getSuppressedCooldownCount() {
+        return this.areaTriggerSupplier.get()
+                .getSuppressedCooldownCount();
+    }
+
+    @Override
+    public long getSuppressedRepeatCount() {
+        return this.areaTriggerSupplier.get()
+                .getSuppressedRepeatCount();
+    }
+
+    @Override
+    public long getGestureTriggerCount() {
+        return this.areaTriggerSupplier.get()
+                .getGestureTriggerCount();
+    }
+
+    @Override
+    public long getGestureTimeoutCount() {
+        return this.areaTriggerSupplier.get()
+                .getGestureTimeoutCount();
+    }
+
+    @Override
+    public long getPredictionCount() {
+        return this.areaTriggerSupplier.get()
+                .getPredictionCount();
+    }
+
+    @Override
+    public long getPredictionConfirmedCount() {
+        return this.areaTriggerSupplier.get()
+                .getPredictionConfirmedCount();
+    }
+
+    @Override
+    public long getPredictionCancelledCount() {
+        return this.areaTriggerSupplier.get()
+                .getPredictionCancelledCount();
+    }
+
+    @Override
+    public double getPredictionGainMeanNanos() {
+        final AreaTrigger areaTrigger = this.areaTriggerSupplier.get();
+
+        return 0L == areaTrigger.getPredictionConfirmedCount()
+                ? 0d
+                : (double) areaTrigger.getPredictionGainNanos() / areaTrigger.getPredictionConfirmedCount();
+    }
+
+    @Override
+    public double getActionLatencyMeanNanos() {
+        return this.actionHistogram.getMean();
+    }
+
+    @Override
+    public long getActionLatencyP99Nanos() {
+        return this.actionHistogram.getPercentile(99d);
+    }
+
+    @Override
+    public long getActionLatencyMaximumNanos() {
+        return this.actionHistogram.getMaximum();
+    }
+
+    @Override
+    public Map<String, Long> getActionLatencyP99NanosPerAction() {
+        final Map<String, Long> actionLatencyMap = new TreeMap<String, Long>();
+
+        for (Map.Entry<String, MetricsHistogram> entry : this.actionHistogramMap.entrySet()) {
+            actionLatencyMap.put(entry.getKey(), entry.getValue().getPercentile(99d));
+        }
+
+        return actionLatencyMap;
+    }
+
+    @Override
+    public long getDroppedActionCount() {
+        return this.droppedActionCount.sum();
+    }
+
+    @Override
+    public long getMergedActionCount() {
+        return this.mergedActionCount.sum();
+    }
+
+    @Override
+    public long getTimedOutActionCount() {
+        return this.timedOutActionCount.sum();
+    }
+
+    @Override
+    public long getFailedActionCount() {
+        return this.failedActionCount.sum();
+    }
+
+    @Override
+    public long getDroppedLogRecordCount() {
+        return ApplicationLogger.getInstance()
+                .getDroppedCount();
+    }
+}
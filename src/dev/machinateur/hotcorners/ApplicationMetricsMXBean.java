@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.util.Map;
+
+/**
+ * The runtime metrics of the application, as exposed over JMX. Every time states its unit in its name (i.e. all
+ * latencies in nanoseconds, the delay in milliseconds), so that the bare numbers shown by a JMX console are unambiguous.
+ */
+public interface ApplicationMetricsMXBean {
+
+    long getTickCount();
+
+    long getTicksPerSecond();
+
+    int getEffectiveDelayMillis();
+
+    double getTickIntervalMeanNanos();
+
+    long getTickIntervalP50Nanos();
+
+    long getTickIntervalP99Nanos();
+
+    long getTickIntervalMaximumNanos();
+
+    double getTickJitterMeanNanos();
+
+    long getTickJitterP99Nanos();
+
+    long getTickJitterMaximumNanos();
+
+    /**
+     * @return The number of samples skipped as unchanged.
+     */
+    long getSkippedSampleCount();
+
+    /**
+     * @return The samples per second per stage of the pipeline, see {@link MouseMotionPipeline}.
+     */
+    Map<String, Long> getStageRate();
+
+    Map<String, Long> getStageCount();
+
+    /**
+     * @return The samples queued in front of each stage on its own thread.
+     */
+    Map<String, Long> getStageQueueDepth();
+
+    Map<String, Long> getStageQueueDepthMaximum();
+
+    Map<String, Long> getStageDroppedCount();
+
+    /**
+     * @return The mean time of the hit-test and trigger decision of a sample, not the time since it was taken.
+     */
+    double getHitTestLatencyMeanNanos();
+
+    long getHitTestLatencyP99Nanos();
+
+    long getHitTestLatencyMaximumNanos();
+
+    long getTriggerCount();
+
+    Map<String, Long> getTriggerCountPerArea();
+
+    long getSuppressedDwellCount();
+
+    long getSuppressedCooldownCount();
+
+    long getSuppressedRepeatCount();
+
+    long getGestureTriggerCount();
+
+    long getGestureTimeoutCount();
+
+    long getPredictionCount();
+
+    long getPredictionConfirmedCount();
+
+    /**
+     * @return The number of predicted area entries that did not happen, i.e. false triggers in {@code fire} mode.
+     */
+    long getPredictionCancelledCount();
+
+    /**
+     * @return The mean time between a confirmed prediction and the actual entry.
+     */
+    double getPredictionGainMeanNanos();
+
+    /**
+     * @return The mean action latency (from queueing to completion, e.g. the last key released).
+     */
+    double getActionLatencyMeanNanos();
+
+    long getActionLatencyP99Nanos();
+
+    long getActionLatencyMaximumNanos();
+
+    /**
+     * @return The 99th percentile of the action latency per area or gesture.
+     */
+    Map<String, Long> getActionLatencyP99NanosPerAction();
+
+    long getDroppedActionCount();
+
+    /**
+     * @return The number of triggers merged into the same action, which was still queued or running.
+     */
+    long getMergedActionCount();
+
+    long getTimedOutActionCount();
+
+    long getFailedActionCount();
+
+    long getDroppedLogRecordCount();
+}
@@ -0,0 +1,47 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+/**
+ * An action to run when an area or gesture is triggered, see {@link AreaActionExecutor}. Actions are executed on a
+ * pooled thread, possibly concurrently to each other, and must stop promptly once that thread is interrupted (i.e. on
+ * timeout or cancellation).
+ */
+public interface AreaAction {
+
+    /**
+     * @return A short description of the action, for logging.
+     */
+    String getName();
+
+    /**
+     * Execute the action on the calling thread.
+     *
+     * @param keyStrokeExecutor The executor to inject any key strokes with.
+     * @throws InterruptedException If interrupted, i.e. on timeout or cancellation.
+     * @throws Exception            If the action failed.
+     */
+    void execute(KeyStrokeExecutor keyStrokeExecutor) throws Exception;
+}
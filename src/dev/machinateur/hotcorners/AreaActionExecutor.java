@@ -0,0 +1,280 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes actions (see {@link AreaAction}) on a bounded pool of threads, so that the sampler never has to wait for
+ * any action to finish. At most {@code concurrency} actions run at a time, and the queue of pending actions is bounded
+ * as well: Any action that does not fit is dropped. An action triggered again while still pending is merged into the
+ * pending one.
+ * <p>
+ * Each action runs with a timeout, after which its thread is interrupted, same as when it's cancelled. The latency of
+ * each action (from queueing to completion) is recorded per trigger name.
+ */
+final public class AreaActionExecutor {
+
+    protected static final int DEFAULT_CONCURRENCY
+            = 2;
+
+    protected static final int DEFAULT_CAPACITY
+            = 16;
+
+    protected static final int DEFAULT_TIMEOUT
+            = 5000;
+
+    private final KeyStrokeExecutor keyStrokeExecutor;
+
+    private final ApplicationMetrics metrics;
+
+    private final int timeout;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * The single thread to enforce all timeouts, which never runs any action itself.
+     */
+    private final ScheduledThreadPoolExecutor timeoutExecutor;
+
+    /**
+     * The actions currently queued or running, by identity.
+     */
+    private final Map<AreaAction, PendingAction> pendingMap;
+
+    /**
+     * @param keyStrokeExecutor The executor for key stroke actions.
+     * @param concurrency       The maximum number of actions to run at a time.
+     * @param capacity          The maximum number of actions to queue, in addition to the running ones.
+     * @param timeout           The default timeout of an action in milliseconds, or {@code 0} for no limit.
+     * @param metrics           The metrics to record the latency to.
+     */
+    public AreaActionExecutor(KeyStrokeExecutor keyStrokeExecutor, int concurrency, int capacity, int timeout,
+                              ApplicationMetrics metrics) {
+        if (concurrency < 1 || capacity < 1 || timeout < 0) {
+            throw new IllegalArgumentException(String.format("Invalid action concurrency %d, queue %d or timeout %d!",
+                    concurrency, capacity, timeout));
+        }
+
+        this.keyStrokeExecutor = keyStrokeExecutor;
+        this.metrics = metrics;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(capacity), AreaActionExecutor.createThreadFactory("hotcorners-action-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutExecutor = new ScheduledThreadPoolExecutor(1,
+                AreaActionExecutor.createThreadFactory("hotcorners-action-timeout"));
+        this.timeoutExecutor.setRemoveOnCancelPolicy(true);
+        this.pendingMap = new ConcurrentHashMap<AreaAction, PendingAction>();
+    }
+
+    public AreaActionExecutor(KeyStrokeExecutor keyStrokeExecutor, ApplicationMetrics metrics) {
+        this(keyStrokeExecutor, AreaActionExecutor.DEFAULT_CONCURRENCY, AreaActionExecutor.DEFAULT_CAPACITY,
+                AreaActionExecutor.DEFAULT_TIMEOUT, metrics);
+    }
+
+    /**
+     * @param prefix The thread name, numbered if it ends with a dash.
+     */
+    private static ThreadFactory createThreadFactory(String prefix) {
+        final AtomicInteger count = new AtomicInteger();
+
+        return runnable -> {
+            final Thread thread = new Thread(runnable, prefix.endsWith("-")
+                    ? prefix + count.incrementAndGet()
+                    : prefix);
+            thread.setDaemon(true);
+
+            return thread;
+        };
+    }
+
+    /**
+     * Queue the action for execution and return immediately.
+     *
+     * @param name    The name of the trigger, to record the latency for.
+     * @param action  The action.
+     * @param timeout The timeout in milliseconds, or {@code 0} for the default one.
+     * @return Whether the action was queued or merged, {@code false} if the queue is full.
+     */
+    public boolean execute(String name, AreaAction action, int timeout) {
+        final PendingAction pendingAction = new PendingAction(name, action, 0 < timeout ? timeout : this.timeout);
+
+        if (null != this.pendingMap.putIfAbsent(action, pendingAction)) {
+            this.metrics.recordMergedAction();
+
+            return true;
+        }
+
+        try {
+            this.executor.execute(pendingAction);
+        } catch (RejectedExecutionException e) {
+            this.pendingMap.remove(action, pendingAction);
+
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.WARN, "Action: Queue full, %s of %s dropped!", action.getName(), name);
+
+            this.metrics.recordDroppedAction();
+
+            return false;
+        }
+
+        return true;
+    }
+
+    public boolean execute(String name, AreaAction action) {
+        return this.execute(name, action, 0);
+    }
+
+    /**
+     * Cancel the action, if queued or running. A running action is interrupted.
+     *
+     * @param action The action.
+     * @return Whether the action was cancelled.
+     */
+    public boolean cancel(AreaAction action) {
+        final PendingAction pendingAction = this.pendingMap.get(action);
+
+        if (null == pendingAction || !pendingAction.cancel(true)) {
+            return false;
+        }
+
+        // Free the capacity of a queued action right away.
+        this.executor.purge();
+
+        return true;
+    }
+
+    public void cancelAll() {
+        for (final PendingAction pendingAction : this.pendingMap.values()) {
+            pendingAction.cancel(true);
+        }
+
+        this.executor.purge();
+    }
+
+    /**
+     * Cancel all actions and stop the threads.
+     */
+    public void shutdown() {
+        this.cancelAll();
+
+        this.executor.shutdownNow();
+        this.timeoutExecutor.shutdownNow();
+    }
+
+    public int getPendingCount() {
+        return this.pendingMap.size();
+    }
+
+    private final class PendingAction extends FutureTask<Void> {
+
+        private final String name;
+
+        private final AreaAction action;
+
+        private final int timeout;
+
+        private final long nanos;
+
+        private volatile boolean timedOut;
+
+        private volatile ScheduledFuture<?> timeoutFuture;
+
+        private PendingAction(String name, AreaAction action, int timeout) {
+            super(() -> {
+                action.execute(AreaActionExecutor.this.keyStrokeExecutor);
+
+                return null;
+            });
+
+            this.name = name;
+            this.action = action;
+            this.timeout = timeout;
+            this.nanos = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            // Skip any action cancelled while still queued.
+            if (this.isDone()) {
+                return;
+            }
+
+            // Only start the timeout once running, so that queueing does not count against it.
+            if (0 < this.timeout) {
+                this.timeoutFuture = AreaActionExecutor.this.timeoutExecutor.schedule(this::timeout,
+                        this.timeout, TimeUnit.MILLISECONDS);
+            }
+
+            super.run();
+        }
+
+        private void timeout() {
+            this.timedOut = true;
+
+            this.cancel(true);
+        }
+
+        @Override
+        protected void done() {
+            AreaActionExecutor.this.pendingMap.remove(this.action, this);
+
+            if (null != this.timeoutFuture) {
+                this.timeoutFuture.cancel(false);
+            }
+
+            final long latency = System.nanoTime() - this.nanos;
+            final ApplicationMetrics metrics = AreaActionExecutor.this.metrics;
+
+            if (this.timedOut) {
+                ApplicationLogger.getInstance()
+                        .log(ApplicationLogger.WARN, "Action: Action of %s timed out after %dms!", this.name, this.timeout);
+
+                metrics.recordTimedOutAction();
+            } else if (this.isCancelled()) {
+                ApplicationLogger.getInstance()
+                        .log(ApplicationLogger.INFO, "Action: %s of %s cancelled.", this.action.getName(), this.name);
+
+                return;
+            } else {
+                try {
+                    this.get();
+                } catch (ExecutionException e) {
+                    ApplicationLogger.getInstance()
+                            .log(ApplicationLogger.ERROR, "Action: Action of %s failed: %s", this.name, e.getCause().toString());
+
+                    metrics.recordFailedAction();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            metrics.recordAction(this.name, latency);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An action to run an external command, configured with the {@link #COMMAND_PREFIX}, e.g.
+ * {@code exec: notify-send "Top left corner"}. The command line is split at whitespace, unless quoted with double
+ * quotes. It is run directly, not by a shell, and its output is discarded.
+ * <p>
+ * On interruption (i.e. on timeout or cancellation) the process and all its descendants are destroyed, forcibly so if
+ * they don't exit within the {@link #DESTROY_TIMEOUT}.
+ */
+final public class AreaActionProcess implements AreaAction {
+
+    public static final String COMMAND_PREFIX = "exec:";
+
+    protected static final int DESTROY_TIMEOUT
+            = 500;
+
+    private final List<String> command;
+
+    public AreaActionProcess(List<String> command) {
+        if (command.isEmpty()) {
+            throw new IllegalArgumentException("Empty command!");
+        }
+
+        this.command = List.copyOf(command);
+    }
+
+    public static boolean isCommand(String value) {
+        return value.trim()
+                .toLowerCase()
+                .startsWith(AreaActionProcess.COMMAND_PREFIX);
+    }
+
+    /**
+     * Compile the command.
+     *
+     * @param value The command line, starting with the {@link #COMMAND_PREFIX}.
+     * @return The action.
+     */
+    public static AreaActionProcess compile(String value) {
+        final String line = value.trim()
+                .substring(AreaActionProcess.COMMAND_PREFIX.length());
+        final List<String> command = new ArrayList<String>();
+        final StringBuilder argument = new StringBuilder();
+        boolean quoted = false;
+        boolean pending = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+
+            if ('"' == c) {
+                quoted = !quoted;
+                pending = true;
+            } else if (!quoted && Character.isWhitespace(c)) {
+                if (pending) {
+                    command.add(argument.toString());
+                    argument.setLength(0);
+                    pending = false;
+                }
+            } else {
+                argument.append(c);
+                pending = true;
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException(String.format("Unterminated quote in command '%s'!", line.trim()));
+        }
+        if (pending) {
+            command.add(argument.toString());
+        }
+
+        return new AreaActionProcess(command);
+    }
+
+    @Override
+    public String getName() {
+        return String.join(" ", this.command);
+    }
+
+    @Override
+    public void execute(KeyStrokeExecutor keyStrokeExecutor) throws IOException, InterruptedException {
+        final Process process = new ProcessBuilder(this.command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        final int exitCode;
+
+        try {
+            exitCode = process.waitFor();
+        } catch (InterruptedException e) {
+            AreaActionProcess.destroy(process);
+
+            throw e;
+        }
+
+        if (0 != exitCode) {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.WARN, "Action: Command '%s' exited with %d.", this.getName(), exitCode);
+        }
+    }
+
+    private static void destroy(Process process) {
+        // Collect the descendants first, as they're no longer found once the process itself exited.
+        final List<ProcessHandle> descendantList = process.descendants()
+                .toList();
+
+        descendantList.forEach(ProcessHandle::destroy);
+        process.destroy();
+
+        try {
+            if (process.waitFor(AreaActionProcess.DESTROY_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            // Destroy it forcibly right away.
+        }
+
+        descendantList.forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    public List<String> getCommand() {
+        return this.command;
+    }
+}
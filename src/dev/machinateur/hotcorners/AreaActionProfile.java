@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.util.function.Predicate;
+
+/**
+ * An action to switch to another profile, configured with the {@link #PROFILE_PREFIX}, e.g. {@code profile: docked}.
+ * The name {@link #PROFILE_NEXT} switches to the profile after the active one, in order.
+ */
+final public class AreaActionProfile implements AreaAction {
+
+    public static final String PROFILE_PREFIX = "profile:";
+
+    public static final String PROFILE_NEXT = "next";
+
+    private final String profile;
+
+    private final Predicate<String> profileSwitch;
+
+    /**
+     * @param profile       The name of the profile.
+     * @param profileSwitch The switch to the profile by name, returning whether the profile exists.
+     */
+    public AreaActionProfile(String profile, Predicate<String> profileSwitch) {
+        if (profile.isEmpty()) {
+            throw new IllegalArgumentException("Empty profile!");
+        }
+
+        this.profile = profile;
+        this.profileSwitch = profileSwitch;
+    }
+
+    public static boolean isProfile(String value) {
+        return value.trim()
+                .toLowerCase()
+                .startsWith(AreaActionProfile.PROFILE_PREFIX);
+    }
+
+    /**
+     * Compile the profile switch.
+     *
+     * @param value         The name of the profile, starting with the {@link #PROFILE_PREFIX}.
+     * @param profileSwitch See {@link #AreaActionProfile(String, Predicate)}.
+     * @return The action.
+     */
+    public static AreaActionProfile compile(String value, Predicate<String> profileSwitch) {
+        return new AreaActionProfile(value.trim()
+                .substring(AreaActionProfile.PROFILE_PREFIX.length())
+                .trim(), profileSwitch);
+    }
+
+    @Override
+    public String getName() {
+        return AreaActionProfile.PROFILE_PREFIX + this.profile;
+    }
+
+    @Override
+    public void execute(KeyStrokeExecutor keyStrokeExecutor) {
+        if (!this.profileSwitch.test(this.profile)) {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.WARN, "Action: Unknown profile '%s'.", this.profile);
+        }
+    }
+
+    public String getProfile() {
+        return this.profile;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.*;
+
+/**
+ * A gesture, i.e. a sequence of areas to enter in order, configured by {@code gesture.<name>} keys. It fires, when the
+ * last area is entered within the timeout after the first one. See {@link AreaGestureAutomaton} for how gestures are
+ * matched.
+ */
+public final class AreaGesture {
+
+    public static final int DEFAULT_TIMEOUT = 400;
+
+    private final String name;
+
+    private final Rectangle[] areaArray;
+
+    /**
+     * The time in milliseconds from entering the first area to entering the last one, or {@code 0} for no limit.
+     */
+    private final int timeout;
+
+    private final int[] keyStroke;
+
+    /**
+     * The action to run, or {@code null} for none.
+     */
+    private final AreaAction action;
+
+    public AreaGesture(String name, Rectangle[] areaArray, int timeout, int[] keyStroke) {
+        this(name, areaArray, timeout, keyStroke, 0 < keyStroke.length ? new AreaActionKeyStroke(keyStroke) : null);
+    }
+
+    public AreaGesture(String name, Rectangle[] areaArray, int timeout, AreaAction action) {
+        this(name, areaArray, timeout, action instanceof AreaActionKeyStroke
+                ? ((AreaActionKeyStroke) action).getMacro()
+                : new int[0], action);
+    }
+
+    private AreaGesture(String name, Rectangle[] areaArray, int timeout, int[] keyStroke, AreaAction action) {
+        if (0 == areaArray.length) {
+            throw new IllegalArgumentException(String.format("Gesture '%s' has no areas!", name));
+        }
+        if (timeout < 0) {
+            throw new IllegalArgumentException(String.format("Gesture '%s' timeout must not be negative!", name));
+        }
+
+        this.name = name;
+        this.areaArray = new Rectangle[areaArray.length];
+        this.timeout = timeout;
+        this.keyStroke = keyStroke.clone();
+        this.action = action;
+
+        for (int i = 0; i < areaArray.length; i++) {
+            this.areaArray[i] = AreaShape.copyOf(areaArray[i]);
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int size() {
+        return this.areaArray.length;
+    }
+
+    public Rectangle getArea(int index) {
+        return AreaShape.copyOf(this.areaArray[index]);
+    }
+
+    public int getTimeout() {
+        return this.timeout;
+    }
+
+    public int[] getKeyStroke() {
+        return this.keyStroke;
+    }
+
+    public AreaAction getAction() {
+        return this.action;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * All gestures of an {@link AreaTable}, compiled into one deterministic automaton over the areas used by any gesture
+ * (see the Aho-Corasick algorithm). Each state stands for the longest suffix of the entered areas, that is a prefix of
+ * some gesture. So each area entry is a single table lookup, no matter how many gestures there are, and the gestures
+ * completed by it are precomputed per state.
+ * <p>
+ * Immutable, the current state is kept by the {@link AreaTrigger}. Entries of areas not used by any gesture are
+ * ignored, so that passing through other areas on the way does not break a gesture.
+ */
+public final class AreaGestureAutomaton {
+
+    public static final AreaGestureAutomaton EMPTY = new AreaGestureAutomaton(new AreaGesture[0], new int[0][], 0);
+
+    private static final int[] EMPTY_OUTPUT_ARRAY = new int[0];
+
+    private final AreaGesture[] gestureArray;
+
+    private final long[] timeoutArray;
+
+    /**
+     * The symbol of each area, or {@code -1} if it's not used by any gesture.
+     */
+    private final int[] symbolArray;
+
+    private final int symbols;
+
+    /**
+     * The transition table, {@code state * symbols + symbol}.
+     */
+    private final int[] transitionArray;
+
+    /**
+     * The gestures completed on reaching each state.
+     */
+    private final int[][] outputArray;
+
+    private final int maximumLength;
+
+    /**
+     * @param gestureArray  The gestures.
+     * @param sequenceArray The area indices of each gesture.
+     * @param areaCount     The number of areas.
+     */
+    private AreaGestureAutomaton(AreaGesture[] gestureArray, int[][] sequenceArray, int areaCount) {
+        this.gestureArray = gestureArray;
+        this.timeoutArray = new long[gestureArray.length];
+        this.symbolArray = new int[areaCount];
+
+        Arrays.fill(this.symbolArray, -1);
+
+        int symbols = 0;
+        int maximumLength = 0;
+
+        for (int i = 0; i < gestureArray.length; i++) {
+            this.timeoutArray[i] = 0 == gestureArray[i].getTimeout()
+                    ? Long.MAX_VALUE
+                    : TimeUnit.MILLISECONDS.toNanos(gestureArray[i].getTimeout());
+
+            for (final int index : sequenceArray[i]) {
+                if (this.symbolArray[index] < 0) {
+                    this.symbolArray[index] = symbols++;
+                }
+            }
+
+            maximumLength = Math.max(maximumLength, sequenceArray[i].length);
+        }
+
+        this.symbols = symbols;
+        this.maximumLength = maximumLength;
+
+        // Build the trie of all gestures first, state 0 is the root.
+        final List<int[]> gotoList = new ArrayList<int[]>();
+        final List<List<Integer>> endList = new ArrayList<List<Integer>>();
+
+        gotoList.add(AreaGestureAutomaton.createGotoArray(symbols));
+        endList.add(new ArrayList<Integer>());
+
+        for (int i = 0; i < gestureArray.length; i++) {
+            int state = 0;
+
+            for (final int index : sequenceArray[i]) {
+                final int symbol = this.symbolArray[index];
+
+                if (gotoList.get(state)[symbol] < 0) {
+                    gotoList.get(state)[symbol] = gotoList.size();
+                    gotoList.add(AreaGestureAutomaton.createGotoArray(symbols));
+                    endList.add(new ArrayList<Integer>());
+                }
+
+                state = gotoList.get(state)[symbol];
+            }
+
+            endList.get(state).add(i);
+        }
+
+        // Then complete the transitions breadth first, by following the failure link of each state, i.e. the state of
+        //  its longest proper suffix.
+        final int states = gotoList.size();
+        final int[] failureArray = new int[states];
+
+        this.transitionArray = new int[states * symbols];
+        this.outputArray = new int[states][];
+
+        final ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+
+        queue.add(0);
+
+        while (!queue.isEmpty()) {
+            final int state = queue.poll();
+            final int failure = failureArray[state];
+
+            final List<Integer> output = new ArrayList<Integer>(endList.get(state));
+
+            if (0 != state) {
+                for (final int gesture : this.outputArray[failure]) {
+                    output.add(gesture);
+                }
+            }
+
+            this.outputArray[state] = output.isEmpty()
+                    ? AreaGestureAutomaton.EMPTY_OUTPUT_ARRAY
+                    : output.stream().mapToInt(Integer::intValue).toArray();
+
+            for (int symbol = 0; symbol < symbols; symbol++) {
+                final int next = gotoList.get(state)[symbol];
+
+                if (next < 0) {
+                    this.transitionArray[state * symbols + symbol] = 0 == state
+                            ? 0
+                            : this.transitionArray[failure * symbols + symbol];
+                } else {
+                    this.transitionArray[state * symbols + symbol] = next;
+
+                    failureArray[next] = 0 == state
+                            ? 0
+                            : this.transitionArray[failure * symbols + symbol];
+
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    private static int[] createGotoArray(int symbols) {
+        final int[] gotoArray = new int[symbols];
+
+        Arrays.fill(gotoArray, -1);
+
+        return gotoArray;
+    }
+
+    /**
+     * @param gestureArray  The gestures.
+     * @param sequenceArray The area indices of each gesture, in the same order.
+     * @param areaCount     The number of areas within the table.
+     * @return The compiled automaton.
+     */
+    public static AreaGestureAutomaton compile(AreaGesture[] gestureArray, int[][] sequenceArray, int areaCount) {
+        if (0 == gestureArray.length) {
+            return AreaGestureAutomaton.EMPTY;
+        }
+
+        return new AreaGestureAutomaton(gestureArray.clone(), sequenceArray, areaCount);
+    }
+
+    /**
+     * @param state The current state, {@code 0} initially.
+     * @param index The area index, that was entered.
+     * @return The next state, or the current state, if the area is not used by any gesture.
+     */
+    public int next(int state, int index) {
+        if (index >= this.symbolArray.length) {
+            return state;
+        }
+
+        final int symbol = this.symbolArray[index];
+
+        return symbol < 0
+                ? state
+                : this.transitionArray[state * this.symbols + symbol];
+    }
+
+    /**
+     * @param index The area index.
+     * @return Whether the area is used by any gesture.
+     */
+    public boolean contains(int index) {
+        return index < this.symbolArray.length && this.symbolArray[index] >= 0;
+    }
+
+    /**
+     * @param state The state.
+     * @return The gestures completed on reaching the state. Not to be modified.
+     */
+    public int[] getOutputs(int state) {
+        return this.outputArray[state];
+    }
+
+    public int size() {
+        return this.gestureArray.length;
+    }
+
+    /**
+     * @return The number of areas of the longest gesture.
+     */
+    public int getMaximumLength() {
+        return this.maximumLength;
+    }
+
+    public AreaGesture getGesture(int gesture) {
+        return this.gestureArray[gesture];
+    }
+
+    /**
+     * @param gesture The gesture index.
+     * @return The timeout in nanoseconds, see {@link AreaGesture#getTimeout()}.
+     */
+    public long getTimeoutNanos(int gesture) {
+        return this.timeoutArray[gesture];
+    }
+}
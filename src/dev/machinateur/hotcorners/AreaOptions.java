@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+/**
+ * The trigger options of an area, configured by {@code @x0,y0,x1,y1.<option>} keys. See {@link AreaTrigger} for how
+ * they're applied.
+ */
+public final class AreaOptions {
+
+    public static final AreaOptions DEFAULT = new AreaOptions(0, 0, 0);
+
+    /**
+     * The time in milliseconds the pointer has to stay in the area before it fires.
+     */
+    private final int dwell;
+
+    /**
+     * The time in milliseconds after firing, in which any further entry is suppressed.
+     */
+    private final int cooldown;
+
+    /**
+     * The distance in pixels the pointer has to move out of the area, before it counts as exit.
+     */
+    private final int hysteresis;
+
+    /**
+     * The time in milliseconds the action may run, or {@code 0} for the default one, see {@link AreaActionExecutor}.
+     */
+    private final int timeout;
+
+    public AreaOptions(int dwell, int cooldown, int hysteresis, int timeout) {
+        if (dwell < 0 || cooldown < 0 || hysteresis < 0 || timeout < 0) {
+            throw new IllegalArgumentException("Options must not be negative!");
+        }
+
+        this.dwell = dwell;
+        this.cooldown = cooldown;
+        this.hysteresis = hysteresis;
+        this.timeout = timeout;
+    }
+
+    public AreaOptions(int dwell, int cooldown, int hysteresis) {
+        this(dwell, cooldown, hysteresis, 0);
+    }
+
+    public AreaOptions withOption(String name, int value) {
+        switch (name) {
+            case "dwell" -> {
+                return new AreaOptions(value, this.cooldown, this.hysteresis, this.timeout);
+            }
+            case "cooldown" -> {
+                return new AreaOptions(this.dwell, value, this.hysteresis, this.timeout);
+            }
+            case "hysteresis" -> {
+                return new AreaOptions(this.dwell, this.cooldown, value, this.timeout);
+            }
+            case "timeout" -> {
+                return new AreaOptions(this.dwell, this.cooldown, this.hysteresis, value);
+            }
+            default -> {
+                throw new IllegalArgumentException(String.format("Unknown option '%s'!", name));
+            }
+        }
+    }
+
+    public int getDwell() {
+        return this.dwell;
+    }
+
+    public int getCooldown() {
+        return this.cooldown;
+    }
+
+    public int getHysteresis() {
+        return this.hysteresis;
+    }
+
+    public int getTimeout() {
+        return this.timeout;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[dwell=%d,cooldown=%d,hysteresis=%d,timeout=%d]",
+                this.getClass().getName(), this.dwell, this.cooldown, this.hysteresis, this.timeout);
+    }
+}
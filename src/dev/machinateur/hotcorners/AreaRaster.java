@@ -0,0 +1,292 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A rasterized lookup of the areas along the border of the bounds of an {@link AreaTable}, where hotcorners usually
+ * are. The border band is split into four strips (top and bottom over the full width, left and right in between), each
+ * a {@code short[]} of region ids, one per pixel. A region is a distinct set of areas, in priority order. So a lookup
+ * within the band is a single array read, no matter how many areas there are, or what shape they have.
+ * <p>
+ * The band is only as deep as the deepest area close to the border needs it to be, up to {@link #DEPTH_LIMIT}, so its
+ * size scales with the perimeter of the bounds, not their area. Any area reaching into the band is rasterized, so that
+ * the lookup is always exact. Points beyond the band are left to the grid of the table.
+ */
+final public class AreaRaster {
+
+    protected static final int DEPTH_LIMIT
+            = 64;
+
+    protected static final int SIZE_LIMIT
+            = 16 * 1024 * 1024;
+
+    /**
+     * The number of distinct regions, as the ids are stored as unsigned short.
+     */
+    protected static final int REGION_LIMIT
+            = 0x10000;
+
+    private final int x;
+
+    private final int y;
+
+    private final int width;
+
+    private final int height;
+
+    private final int depthTop;
+
+    private final int depthBottom;
+
+    private final int depthLeft;
+
+    private final int depthRight;
+
+    private final short[] topArray;
+
+    private final short[] bottomArray;
+
+    private final short[] leftArray;
+
+    private final short[] rightArray;
+
+    /**
+     * The area indices per region id, ascending (i.e. in priority order). The region {@code 0} is the empty one.
+     */
+    private final int[][] regionArray;
+
+    private AreaRaster(Rectangle bounds, int depth, int[][] regionArray,
+                       short[] topArray, short[] bottomArray, short[] leftArray, short[] rightArray) {
+        this.x = bounds.x;
+        this.y = bounds.y;
+        this.width = bounds.width;
+        this.height = bounds.height;
+        this.depthTop = AreaRaster.getDepthTop(bounds, depth);
+        this.depthBottom = AreaRaster.getDepthBottom(bounds, depth);
+        this.depthLeft = AreaRaster.getDepthLeft(bounds, depth);
+        this.depthRight = AreaRaster.getDepthRight(bounds, depth);
+        this.regionArray = regionArray;
+        this.topArray = topArray;
+        this.bottomArray = bottomArray;
+        this.leftArray = leftArray;
+        this.rightArray = rightArray;
+    }
+
+    private static int getDepthTop(Rectangle bounds, int depth) {
+        return Math.min(depth, bounds.height);
+    }
+
+    private static int getDepthBottom(Rectangle bounds, int depth) {
+        return Math.min(depth, bounds.height - AreaRaster.getDepthTop(bounds, depth));
+    }
+
+    private static int getDepthLeft(Rectangle bounds, int depth) {
+        return Math.min(depth, bounds.width);
+    }
+
+    private static int getDepthRight(Rectangle bounds, int depth) {
+        return Math.min(depth, bounds.width - AreaRaster.getDepthLeft(bounds, depth));
+    }
+
+    /**
+     * Rasterize the given areas along the border of the given bounds.
+     *
+     * @param areaArray The areas, in priority order.
+     * @param bounds    The bounds of all areas.
+     * @return The raster, or {@code null} if there is no area close to the border, or the raster would be too large.
+     */
+    public static AreaRaster compile(Rectangle[] areaArray, Rectangle bounds) {
+        int depth = 0;
+
+        for (final Rectangle area : areaArray) {
+            if (area.isEmpty()) {
+                continue;
+            }
+
+            // The depth of the band, that would contain this area completely.
+            final long inset = Math.min(
+                    Math.min((long) area.y + area.height - bounds.y, (long) bounds.y + bounds.height - area.y),
+                    Math.min((long) area.x + area.width - bounds.x, (long) bounds.x + bounds.width - area.x));
+
+            if (inset <= AreaRaster.DEPTH_LIMIT) {
+                depth = Math.max(depth, (int) inset);
+            }
+        }
+
+        if (0 == depth || 2L * depth * ((long) bounds.width + bounds.height) > AreaRaster.SIZE_LIMIT) {
+            return null;
+        }
+
+        final int depthTop = AreaRaster.getDepthTop(bounds, depth);
+        final int depthBottom = AreaRaster.getDepthBottom(bounds, depth);
+        final int depthLeft = AreaRaster.getDepthLeft(bounds, depth);
+        final int depthRight = AreaRaster.getDepthRight(bounds, depth);
+        final int middle = bounds.height - depthTop - depthBottom;
+        final short[] topArray = new short[depthTop * bounds.width];
+        final short[] bottomArray = new short[depthBottom * bounds.width];
+        final short[] leftArray = new short[middle * depthLeft];
+        final short[] rightArray = new short[middle * depthRight];
+        final List<int[]> regionList = new ArrayList<int[]>();
+        // The region id of the set of areas of one region with the given area added, by region id and area index.
+        final Map<Long, Integer> transitionMap = new HashMap<Long, Integer>();
+
+        regionList.add(new int[0]);
+
+        for (int i = 0; i < areaArray.length; i++) {
+            final Rectangle area = areaArray[i];
+
+            if (area.isEmpty()) {
+                continue;
+            }
+
+            final boolean fits
+                    = AreaRaster.rasterize(topArray, bounds.x, bounds.y, bounds.width, depthTop, area, i, regionList, transitionMap)
+                    && AreaRaster.rasterize(bottomArray, bounds.x, bounds.y + bounds.height - depthBottom, bounds.width, depthBottom, area, i, regionList, transitionMap)
+                    && AreaRaster.rasterize(leftArray, bounds.x, bounds.y + depthTop, depthLeft, middle, area, i, regionList, transitionMap)
+                    && AreaRaster.rasterize(rightArray, bounds.x + bounds.width - depthRight, bounds.y + depthTop, depthRight, middle, area, i, regionList, transitionMap);
+
+            if (!fits) {
+                return null;
+            }
+        }
+
+        return new AreaRaster(bounds, depth, regionList.toArray(new int[0][]), topArray, bottomArray, leftArray, rightArray);
+    }
+
+    /**
+     * Add the area to any pixel of the given strip it covers.
+     *
+     * @return Whether there were enough region ids.
+     */
+    private static boolean rasterize(short[] strip, int stripX, int stripY, int stripWidth, int stripHeight,
+                                     Rectangle area, int index, List<int[]> regionList, Map<Long, Integer> transitionMap) {
+        final int x0 = Math.max(stripX, area.x);
+        final int y0 = Math.max(stripY, area.y);
+        final int x1 = (int) Math.min((long) stripX + stripWidth, (long) area.x + area.width);
+        final int y1 = (int) Math.min((long) stripY + stripHeight, (long) area.y + area.height);
+        final AreaShape shape = area instanceof AreaShape ? (AreaShape) area : null;
+
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                if (null != shape && !shape.containsPixel(x, y)) {
+                    continue;
+                }
+
+                final int offset = (y - stripY) * stripWidth + (x - stripX);
+                final int region = Short.toUnsignedInt(strip[offset]);
+                final Integer next = transitionMap.computeIfAbsent((long) region << 32 | index, key -> {
+                    final int[] set = regionList.get(region);
+                    final int[] nextSet = Arrays.copyOf(set, set.length + 1);
+
+                    // The areas are added in priority order, so the set stays sorted.
+                    nextSet[set.length] = index;
+                    regionList.add(nextSet);
+
+                    return regionList.size() - 1;
+                });
+
+                if (next >= AreaRaster.REGION_LIMIT) {
+                    return false;
+                }
+
+                strip[offset] = (short) next.intValue();
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Find all areas containing the given point, if it is within the band, and write their indices to the result array,
+     * in priority order. Any further matches are counted, but not written.
+     *
+     * @param x      The x coordinate.
+     * @param y      The y coordinate.
+     * @param result The array to write the matching area indices to.
+     * @return The number of matching areas, or {@code -1} if the point is not within the band.
+     */
+    public int query(int x, int y, int[] result) {
+        final int[] set = this.getRegion(x, y);
+
+        if (null == set) {
+            return -1;
+        }
+
+        System.arraycopy(set, 0, result, 0, Math.min(set.length, result.length));
+
+        return set.length;
+    }
+
+    /**
+     * @return The areas of the region at the given point, or {@code null} if the point is not within the band.
+     */
+    public int[] getRegion(int x, int y) {
+        final long column = (long) x - this.x;
+        final long row = (long) y - this.y;
+
+        if (column < 0 || column >= this.width || row < 0 || row >= this.height) {
+            return null;
+        }
+
+        final int c = (int) column;
+        final int r = (int) row;
+        final short region;
+
+        if (r < this.depthTop) {
+            region = this.topArray[r * this.width + c];
+        } else if (r >= this.height - this.depthBottom) {
+            region = this.bottomArray[(r - (this.height - this.depthBottom)) * this.width + c];
+        } else if (c < this.depthLeft) {
+            region = this.leftArray[(r - this.depthTop) * this.depthLeft + c];
+        } else if (c >= this.width - this.depthRight) {
+            region = this.rightArray[(r - this.depthTop) * this.depthRight + (c - (this.width - this.depthRight))];
+        } else {
+            return null;
+        }
+
+        return this.regionArray[Short.toUnsignedInt(region)];
+    }
+
+    /**
+     * @return The number of pixels in the band.
+     */
+    public int size() {
+        return this.topArray.length + this.bottomArray.length + this.leftArray.length + this.rightArray.length;
+    }
+
+    /**
+     * @return The number of distinct regions, including the empty one.
+     */
+    public int getRegionCount() {
+        return this.regionArray.length;
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.io.ObjectStreamException;
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * An area that is not a plain rectangle, configured by a key of the format {@code @<type>(<coordinates>)}. The shape
+ * is an area on its own, so it extends its bounds, i.e. the smallest {@link Rectangle} around it. Like any area, it's
+ * compared by its bounds, so that it can be used as key next to plain rectangles. Hence, two different areas of the same
+ * bounds are refused, see {@link #isSameArea(Rectangle, Rectangle)}. The types are:
+ * <ul>
+ *     <li>{@code polygon(x0,y0,x1,y1,x2,y2,...)} - any polygon of at least three points.</li>
+ *     <li>{@code triangle(x0,y0,x1,y1,x2,y2)} - a polygon of exactly three points.</li>
+ *     <li>{@code corner(x0,y0,x1,y1,t)} - an L-shape with the corner at {@code x0,y0}, a horizontal arm to {@code x1},
+ *     a vertical arm to {@code y1}, each {@code t} pixels thick, on the side of the other arm.</li>
+ *     <li>{@code circle(x,y,r)} - a circle around {@code x,y} of radius {@code r}. Placed at a corner of the screen,
+ *     only the quarter on the screen can be reached, i.e. a rounded corner.</li>
+ * </ul>
+ * Like the pixels of a rectangle, a pixel is part of the shape when its center is, see {@link #containsPixel(int, int)}.
+ * <p>
+ * The bounds are inherited and as such mutable, while the shape itself is not exposed. A copy therefore restores the
+ * bounds of the shape, see {@link #copyOf(Rectangle)}.
+ */
+final public class AreaShape extends Rectangle {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+
+    /**
+     * The shape, which is recreated from the name on deserialization, see {@link #readResolve()}.
+     */
+    private final transient Shape shape;
+
+    private AreaShape(String name, Shape shape) {
+        super(shape.getBounds());
+
+        this.name = name;
+        this.shape = shape;
+    }
+
+    /**
+     * Create a shape of the given type.
+     *
+     * @param type        The type of the shape, see above.
+     * @param coordinates The coordinates of the shape.
+     * @return The shape.
+     */
+    public static AreaShape create(String type, int... coordinates) {
+        final String name = type + Arrays.stream(coordinates)
+                .mapToObj(Integer::toString)
+                .collect(Collectors.joining(",", "(", ")"));
+
+        switch (type) {
+            case "polygon" -> {
+                if (coordinates.length < 6 || 0 != coordinates.length % 2) {
+                    throw new IllegalArgumentException(String.format("Invalid polygon '%s', at least three points required!", name));
+                }
+
+                return new AreaShape(name, AreaShape.createPolygon(coordinates));
+            }
+            case "triangle" -> {
+                if (6 != coordinates.length) {
+                    throw new IllegalArgumentException(String.format("Invalid triangle '%s', three points required!", name));
+                }
+
+                return new AreaShape(name, AreaShape.createPolygon(coordinates));
+            }
+            case "corner" -> {
+                if (5 != coordinates.length || coordinates[4] <= 0) {
+                    throw new IllegalArgumentException(String.format("Invalid corner '%s', two points and thickness required!", name));
+                }
+
+                final int x0 = coordinates[0];
+                final int y0 = coordinates[1];
+                final int x1 = coordinates[2];
+                final int y1 = coordinates[3];
+                // The arms are thick towards each other, i.e. into the screen for a corner of the screen.
+                final int dx = x1 < x0 ? -coordinates[4] : coordinates[4];
+                final int dy = y1 < y0 ? -coordinates[4] : coordinates[4];
+
+                return new AreaShape(name, AreaShape.createPolygon(new int[]{
+                        x0, y0,
+                        x1, y0,
+                        x1, y0 + dy,
+                        x0 + dx, y0 + dy,
+                        x0 + dx, y1,
+                        x0, y1,
+                }));
+            }
+            case "circle" -> {
+                if (3 != coordinates.length || coordinates[2] <= 0) {
+                    throw new IllegalArgumentException(String.format("Invalid circle '%s', center and radius required!", name));
+                }
+
+                final int r = coordinates[2];
+
+                return new AreaShape(name, new Ellipse2D.Double(coordinates[0] - r, coordinates[1] - r, 2 * r, 2 * r));
+            }
+            default -> {
+                throw new IllegalArgumentException(String.format("Unknown shape type '%s'!", type));
+            }
+        }
+    }
+
+    private static Polygon createPolygon(int[] coordinates) {
+        final Polygon polygon = new Polygon();
+
+        for (int i = 0; i < coordinates.length; i += 2) {
+            polygon.addPoint(coordinates[i], coordinates[i + 1]);
+        }
+
+        return polygon;
+    }
+
+    /**
+     * Copy the given area. A shape is copied with the bounds of its shape, sharing the shape, which is never changed.
+     *
+     * @param area The area.
+     * @return The copy.
+     */
+    public static Rectangle copyOf(Rectangle area) {
+        return area instanceof AreaShape
+                ? new AreaShape(((AreaShape) area).name, ((AreaShape) area).shape)
+                : new Rectangle(area);
+    }
+
+    /**
+     * Check whether both areas are the same, not only of the same bounds, i.e. both plain rectangles or both the same
+     * shape.
+     *
+     * @param area  The area.
+     * @param other The other area.
+     * @return Whether both are the same.
+     */
+    public static boolean isSameArea(Rectangle area, Rectangle other) {
+        if (!area.equals(other)) {
+            return false;
+        }
+
+        if (area instanceof AreaShape && other instanceof AreaShape) {
+            return ((AreaShape) area).name.equals(((AreaShape) other).name);
+        }
+
+        return !(area instanceof AreaShape) && !(other instanceof AreaShape);
+    }
+
+    /**
+     * @return The name of the shape, i.e. its configuration key {@code <type>(<coordinates>)}, without marker.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return Whether the pixel at the given coordinates is part of the shape, i.e. its center.
+     */
+    public boolean containsPixel(int x, int y) {
+        return this.shape.contains(x + 0.5d, y + 0.5d);
+    }
+
+    /**
+     * @param x      The x coordinate.
+     * @param y      The y coordinate.
+     * @param margin The margin in pixels.
+     * @return Whether the shape comes closer to the center of the pixel at the given coordinates than the margin.
+     */
+    public boolean containsPixel(int x, int y, int margin) {
+        if (margin <= 0) {
+            return this.containsPixel(x, y);
+        }
+
+        return this.shape.intersects(x + 0.5d - margin, y + 0.5d - margin, 2d * margin, 2d * margin);
+    }
+
+    /**
+     * Recreate the shape from its name, as the shape itself is not serializable.
+     */
+    @Serial
+    private Object readResolve() throws ObjectStreamException {
+        final int index = this.name.indexOf('(');
+        final int[] coordinateArray = Arrays.stream(this.name.substring(index + 1, this.name.length() - 1).split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        return AreaShape.create(this.name.substring(0, index), coordinateArray);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%s,bounds=%s]", this.getClass().getName(), this.name, super.toString());
+    }
+}
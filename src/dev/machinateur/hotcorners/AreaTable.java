@@ -0,0 +1,785 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+
+/**
+ * A compiled, immutable table of all configured areas and their actions. The areas are indexed by a uniform grid
+ * over their common bounds, so that a lookup only has to test the few areas registered in a single cell, no matter how
+ * many areas there are in total.
+ * <p>
+ * Overlapping areas are returned in priority order: Smaller areas come first, as they are the more specific ones. Ties
+ * are broken by the top left corner (top to bottom, then left to right) and the size of the area.
+ * <p>
+ * Areas may also be shapes (see {@link AreaShape}), which the grid holds by their bounds and tests exactly. The areas
+ * along the border of the common bounds, where hotcorners usually are, are rasterized into an {@link AreaRaster} as
+ * well, so that a lookup there is a single array read.
+ * <p>
+ * The gestures over the areas are compiled into an {@link AreaGestureAutomaton} along with the table.
+ * <p>
+ * All screens share the one table over the virtual desktop, but each area is tagged with the screen it's on (see
+ * {@link ScreenLayout}), i.e. the screen containing its center, or else the one it overlaps the most.
+ */
+public final class AreaTable {
+
+    protected static final int GRID_SIZE_FACTOR
+            = 2;
+
+    protected static final int GRID_SIZE_LIMIT
+            = 1024;
+
+    private static final Comparator<Rectangle> AREA_PRIORITY = Comparator
+            .comparingLong((Rectangle area) -> (long) area.width * area.height)
+            .thenComparingInt(area -> area.y)
+            .thenComparingInt(area -> area.x)
+            .thenComparingInt(area -> area.width)
+            .thenComparingInt(area -> area.height);
+
+    private final Rectangle[] areaArray;
+
+    private final int[][] keyStrokeArray;
+
+    /**
+     * The action per area, or {@code null} for none (e.g. an area only used by gestures).
+     */
+    private final AreaAction[] actionArray;
+
+    private final AreaOptions[] optionsArray;
+
+    /**
+     * The shape per area, or {@code null} for a plain rectangle.
+     */
+    private final AreaShape[] shapeArray;
+
+    /**
+     * The area bounds in a flat layout of {@code x0, y0, x1, y1} per area, with {@code x1} and {@code y1} exclusive.
+     */
+    private final int[] boundsArray;
+
+    private final int x;
+
+    private final int y;
+
+    private final int width;
+
+    private final int height;
+
+    private final int columns;
+
+    private final int rows;
+
+    private final int cellWidth;
+
+    private final int cellHeight;
+
+    /**
+     * The area indices per cell, ascending (i.e. in priority order).
+     */
+    private final int[][] cellArray;
+
+    private final int maximumOverlap;
+
+    /**
+     * The raster of the border band, or {@code null} if there is no area close to the border.
+     */
+    private final AreaRaster raster;
+
+    private final AreaGestureAutomaton gestureAutomaton;
+
+    private final Rectangle[] screenArray;
+
+    /**
+     * The screen index per area, or {@code -1} if not on any screen.
+     */
+    private final int[] screenIndexArray;
+
+    private AreaTable(Rectangle[] areaArray, int[][] keyStrokeArray, AreaAction[] actionArray,
+                      AreaOptions[] optionsArray, AreaGesture[] gestureArray, Rectangle[] screenArray) {
+        this.areaArray = areaArray;
+        this.keyStrokeArray = keyStrokeArray;
+        this.actionArray = actionArray;
+        this.optionsArray = optionsArray;
+        this.boundsArray = new int[areaArray.length * 4];
+        this.shapeArray = new AreaShape[areaArray.length];
+
+        Rectangle bounds = null;
+
+        for (int i = 0; i < areaArray.length; i++) {
+            final Rectangle area = areaArray[i];
+
+            this.boundsArray[i * 4] = area.x;
+            this.boundsArray[i * 4 + 1] = area.y;
+            this.boundsArray[i * 4 + 2] = area.x + area.width;
+            this.boundsArray[i * 4 + 3] = area.y + area.height;
+            this.shapeArray[i] = area instanceof AreaShape ? (AreaShape) area : null;
+
+            // Empty areas never contain any point, see Rectangle#contains(int, int).
+            if (area.isEmpty()) {
+                continue;
+            }
+
+            if (null == bounds) {
+                bounds = new Rectangle(area);
+            } else {
+                bounds.add(area);
+            }
+        }
+
+        if (null == bounds) {
+            bounds = new Rectangle();
+        }
+
+        this.x = bounds.x;
+        this.y = bounds.y;
+        this.width = bounds.width;
+        this.height = bounds.height;
+
+        // Aim for a few cells per area, but never more cells than pixels.
+        int gridSize = (int) Math.ceil(Math.sqrt(areaArray.length)) * AreaTable.GRID_SIZE_FACTOR;
+        gridSize = Math.min(gridSize, AreaTable.GRID_SIZE_LIMIT);
+
+        this.columns = Math.max(1, Math.min(gridSize, this.width));
+        this.rows = Math.max(1, Math.min(gridSize, this.height));
+        this.cellWidth = Math.max(1, (this.width + this.columns - 1) / this.columns);
+        this.cellHeight = Math.max(1, (this.height + this.rows - 1) / this.rows);
+
+        final int[] cellSize = new int[this.columns * this.rows];
+        this.cellArray = new int[cellSize.length][];
+        int maximumOverlap = 0;
+
+        // First pass to count, second pass to fill the cells.
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < areaArray.length; i++) {
+                if (areaArray[i].isEmpty()) {
+                    continue;
+                }
+
+                int column0 = this.getColumn(this.boundsArray[i * 4]);
+                int row0 = this.getRow(this.boundsArray[i * 4 + 1]);
+                int column1 = this.getColumn(this.boundsArray[i * 4 + 2] - 1);
+                int row1 = this.getRow(this.boundsArray[i * 4 + 3] - 1);
+
+                for (int row = row0; row <= row1; row++) {
+                    for (int column = column0; column <= column1; column++) {
+                        int cell = row * this.columns + column;
+
+                        if (0 == pass) {
+                            cellSize[cell]++;
+                        } else {
+                            this.cellArray[cell][cellSize[cell]++] = i;
+                        }
+                    }
+                }
+            }
+
+            if (0 == pass) {
+                for (int cell = 0; cell < cellSize.length; cell++) {
+                    this.cellArray[cell] = new int[cellSize[cell]];
+                    maximumOverlap = Math.max(maximumOverlap, cellSize[cell]);
+
+                    cellSize[cell] = 0;
+                }
+            }
+        }
+
+        this.maximumOverlap = maximumOverlap;
+        this.raster = AreaRaster.compile(areaArray, bounds);
+
+        final Map<Rectangle, Integer> indexMap = new HashMap<Rectangle, Integer>();
+        final int[][] sequenceArray = new int[gestureArray.length][];
+
+        for (int i = 0; i < areaArray.length; i++) {
+            indexMap.put(areaArray[i], i);
+        }
+        for (int i = 0; i < gestureArray.length; i++) {
+            sequenceArray[i] = new int[gestureArray[i].size()];
+
+            for (int j = 0; j < sequenceArray[i].length; j++) {
+                sequenceArray[i][j] = indexMap.get(gestureArray[i].getArea(j));
+            }
+        }
+
+        this.gestureAutomaton = AreaGestureAutomaton.compile(gestureArray, sequenceArray, areaArray.length);
+
+        this.screenArray = screenArray;
+        this.screenIndexArray = new int[areaArray.length];
+
+        for (int i = 0; i < areaArray.length; i++) {
+            this.screenIndexArray[i] = AreaTable.getScreenIndex(areaArray[i], screenArray);
+        }
+    }
+
+    private static int getScreenIndex(Rectangle area, Rectangle[] screenArray) {
+        final int centerX = area.x + area.width / 2;
+        final int centerY = area.y + area.height / 2;
+        int screenIndex = -1;
+        long overlap = 0L;
+
+        for (int i = 0; i < screenArray.length; i++) {
+            if (screenArray[i].contains(centerX, centerY)) {
+                return i;
+            }
+
+            final Rectangle intersection = screenArray[i].intersection(area);
+
+            if (!intersection.isEmpty() && (long) intersection.width * intersection.height > overlap) {
+                screenIndex = i;
+                overlap = (long) intersection.width * intersection.height;
+            }
+        }
+
+        return screenIndex;
+    }
+
+    /**
+     * Compile the given areas into a new table. The maps are not retained.
+     *
+     * @param keyStrokeMap The parsed configuration, see {@link ApplicationConfiguration#parseConfiguration()}.
+     * @param optionsMap   The parsed options, see {@link ApplicationConfiguration#parseConfigurationOptions(AreaOptions)}.
+     *                     Any area without options uses {@link AreaOptions#DEFAULT}.
+     * @param gestureList  The parsed gestures, see {@link ApplicationConfiguration#parseConfigurationGestures(int)}.
+     *                     Any area of a gesture, that is not configured itself, is added without key stroke.
+     * @param actionMap    The actions other than key strokes, see {@link ApplicationConfiguration#parseConfiguration(Map)}.
+     *                     Any area with an action runs it instead of its key stroke.
+     * @param screenArray  The bounds of the screens to tag the areas with, see {@link ScreenLayout}.
+     * @return The compiled table.
+     */
+    public static AreaTable compile(Map<Rectangle, int[]> keyStrokeMap, Map<Rectangle, AreaOptions> optionsMap,
+                                    List<AreaGesture> gestureList, Map<Rectangle, AreaAction> actionMap,
+                                    Rectangle[] screenArray) {
+        final Map<Rectangle, int[]> areaMap = new HashMap<Rectangle, int[]>(keyStrokeMap);
+        final Map<Rectangle, Rectangle> keyMap = new HashMap<Rectangle, Rectangle>();
+
+        for (final Rectangle area : keyStrokeMap.keySet()) {
+            keyMap.put(area, area);
+        }
+        for (final Rectangle area : actionMap.keySet()) {
+            AreaTable.checkArea(keyMap, area);
+            areaMap.putIfAbsent(area, new int[0]);
+        }
+        for (final AreaGesture gesture : gestureList) {
+            for (int i = 0; i < gesture.size(); i++) {
+                AreaTable.checkArea(keyMap, gesture.getArea(i));
+                areaMap.putIfAbsent(gesture.getArea(i), new int[0]);
+            }
+        }
+        for (final Rectangle area : optionsMap.keySet()) {
+            final Rectangle other = keyMap.get(area);
+
+            if (null != other && !AreaShape.isSameArea(area, other)) {
+                throw new IllegalArgumentException(String.format("Options of '%s' would apply to '%s'!", area, other));
+            }
+        }
+
+        final List<Map.Entry<Rectangle, int[]>> entryList = new ArrayList<Map.Entry<Rectangle, int[]>>(areaMap.entrySet());
+
+        entryList.sort(Map.Entry.comparingByKey(AreaTable.AREA_PRIORITY));
+
+        final Rectangle[] areaArray = new Rectangle[entryList.size()];
+        final int[][] keyStrokeArray = new int[entryList.size()][];
+        final AreaAction[] actionArray = new AreaAction[entryList.size()];
+        final AreaOptions[] optionsArray = new AreaOptions[entryList.size()];
+
+        for (int i = 0; i < entryList.size(); i++) {
+            final Map.Entry<Rectangle, int[]> entry = entryList.get(i);
+
+            areaArray[i] = AreaShape.copyOf(entry.getKey());
+            keyStrokeArray[i] = entry.getValue().clone();
+            actionArray[i] = actionMap.get(entry.getKey());
+            optionsArray[i] = optionsMap.getOrDefault(entry.getKey(), AreaOptions.DEFAULT);
+
+            if (null == actionArray[i] && 0 < keyStrokeArray[i].length) {
+                actionArray[i] = new AreaActionKeyStroke(keyStrokeArray[i]);
+            }
+        }
+
+        final Rectangle[] screenCopyArray = new Rectangle[screenArray.length];
+
+        for (int i = 0; i < screenArray.length; i++) {
+            screenCopyArray[i] = new Rectangle(screenArray[i]);
+        }
+
+        return new AreaTable(areaArray, keyStrokeArray, actionArray, optionsArray,
+                gestureList.toArray(new AreaGesture[0]), screenCopyArray);
+    }
+
+    public static AreaTable compile(Map<Rectangle, int[]> keyStrokeMap, Map<Rectangle, AreaOptions> optionsMap,
+                                    List<AreaGesture> gestureList, Map<Rectangle, AreaAction> actionMap) {
+        return AreaTable.compile(keyStrokeMap, optionsMap, gestureList, actionMap, new Rectangle[0]);
+    }
+
+    /**
+     * Add the area to the given areas, unless already contained. Areas are compared by their bounds (see
+     * {@link AreaShape}), so a different area of the same bounds is refused, instead of silently taking its place.
+     */
+    private static void checkArea(Map<Rectangle, Rectangle> keyMap, Rectangle area) {
+        final Rectangle other = keyMap.putIfAbsent(area, area);
+
+        if (null != other && !AreaShape.isSameArea(area, other)) {
+            throw new IllegalArgumentException(String.format("Area '%s' has the same bounds as '%s'!", area, other));
+        }
+    }
+
+    public static AreaTable compile(Map<Rectangle, int[]> keyStrokeMap, Map<Rectangle, AreaOptions> optionsMap,
+                                    List<AreaGesture> gestureList) {
+        return AreaTable.compile(keyStrokeMap, optionsMap, gestureList, Collections.<Rectangle, AreaAction>emptyMap());
+    }
+
+    public static AreaTable compile(Map<Rectangle, int[]> keyStrokeMap, Map<Rectangle, AreaOptions> optionsMap) {
+        return AreaTable.compile(keyStrokeMap, optionsMap, Collections.<AreaGesture>emptyList());
+    }
+
+    public static AreaTable compile(Map<Rectangle, int[]> keyStrokeMap) {
+        return AreaTable.compile(keyStrokeMap, Collections.<Rectangle, AreaOptions>emptyMap());
+    }
+
+    private int getColumn(int x) {
+        return Math.min((x - this.x) / this.cellWidth, this.columns - 1);
+    }
+
+    private int getRow(int y) {
+        return Math.min((y - this.y) / this.cellHeight, this.rows - 1);
+    }
+
+    /**
+     * Find all areas containing the given point and write their indices to the result array, in priority order. The
+     * result array should be at least {@link #getMaximumOverlap()} in size, any further matches are counted, but not
+     * written.
+     *
+     * @param x      The x coordinate.
+     * @param y      The y coordinate.
+     * @param result The array to write the matching area indices to.
+     * @return The number of matching areas.
+     */
+    public int query(int x, int y, int[] result) {
+        // Use long arithmetic, so that no coordinate can overflow the bounds check.
+        if ((long) x - this.x < 0 || (long) x - this.x >= this.width
+                || (long) y - this.y < 0 || (long) y - this.y >= this.height) {
+            return 0;
+        }
+
+        if (null != this.raster) {
+            final int count = this.raster.query(x, y, result);
+
+            if (count >= 0) {
+                return count;
+            }
+        }
+
+        final int[] cell = this.cellArray[this.getRow(y) * this.columns + this.getColumn(x)];
+        final int[] bounds = this.boundsArray;
+        int count = 0;
+
+        for (final int index : cell) {
+            final int offset = index * 4;
+
+            if (x >= bounds[offset] && y >= bounds[offset + 1] && x < bounds[offset + 2] && y < bounds[offset + 3]
+                    && (null == this.shapeArray[index] || this.shapeArray[index].containsPixel(x, y))) {
+                if (count < result.length) {
+                    result[count] = index;
+                }
+
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Find all areas touched by the line segment between the given points and write their indices to the result array,
+     * in priority order. The segment is clipped to the given bounds first (e.g. the screen), so that no area outside
+     * them can be touched. Any further matches beyond the size of the result array are dropped.
+     *
+     * @param x0     The x coordinate of the start point.
+     * @param y0     The y coordinate of the start point.
+     * @param x1     The x coordinate of the end point.
+     * @param y1     The y coordinate of the end point.
+     * @param clip   The bounds to clip the segment to, or {@code null} to not clip at all.
+     * @param result The array to write the matching area indices to.
+     * @return The number of matching areas written.
+     */
+    public int querySegment(int x0, int y0, int x1, int y1, Rectangle clip, int[] result) {
+        if (0 == this.maximumOverlap || 0 == result.length) {
+            return 0;
+        }
+
+        final double dx = x1 - x0;
+        final double dy = y1 - y0;
+        // Clip to the grid, as there are no areas beyond it, and then to the given bounds.
+        double start = AreaTable.clip(false, x0, y0, dx, dy, this.x, this.y, this.width, this.height);
+        double end = AreaTable.clip(true, x0, y0, dx, dy, this.x, this.y, this.width, this.height);
+
+        if (null != clip) {
+            start = Math.max(start, AreaTable.clip(false, x0, y0, dx, dy, clip.x, clip.y, clip.width, clip.height));
+            end = Math.min(end, AreaTable.clip(true, x0, y0, dx, dy, clip.x, clip.y, clip.width, clip.height));
+        }
+
+        if (!(start <= end)) {
+            return 0;
+        }
+
+        // Walk the cells along the clipped segment, see "A Fast Voxel Traversal Algorithm" (Amanatides and Woo).
+        //  Each pixel is the unit square centered on its coordinates, hence the half pixel offset.
+        final double startX = x0 + start * dx + 0.5d;
+        final double startY = y0 + start * dy + 0.5d;
+        int column = Math.max(0, this.getColumn((int) Math.floor(startX)));
+        int row = Math.max(0, this.getRow((int) Math.floor(startY)));
+        final int lastColumn = Math.max(0, this.getColumn((int) Math.floor(x0 + end * dx + 0.5d)));
+        final int lastRow = Math.max(0, this.getRow((int) Math.floor(y0 + end * dy + 0.5d)));
+        final int stepColumn = dx > 0 ? 1 : -1;
+        final int stepRow = dy > 0 ? 1 : -1;
+        final double deltaColumn = 0 == dx ? Double.POSITIVE_INFINITY : this.cellWidth / Math.abs(dx);
+        final double deltaRow = 0 == dy ? Double.POSITIVE_INFINITY : this.cellHeight / Math.abs(dy);
+        double maximumColumn = 0 == dx ? Double.POSITIVE_INFINITY
+                : start + ((double) this.x + (long) (column + (dx > 0 ? 1 : 0)) * this.cellWidth - startX) / dx;
+        double maximumRow = 0 == dy ? Double.POSITIVE_INFINITY
+                : start + ((double) this.y + (long) (row + (dy > 0 ? 1 : 0)) * this.cellHeight - startY) / dy;
+        int count = 0;
+
+        while (true) {
+            for (final int index : this.cellArray[row * this.columns + column]) {
+                if (count < result.length && !AreaTable.contains(result, count, index)
+                        && this.intersects(index, x0, y0, dx, dy, start, end)) {
+                    result[count++] = index;
+                }
+            }
+
+            if ((column == lastColumn && row == lastRow) || (maximumColumn > end && maximumRow > end)) {
+                break;
+            }
+
+            if (maximumColumn < maximumRow) {
+                column += stepColumn;
+                maximumColumn += deltaColumn;
+            } else {
+                row += stepRow;
+                maximumRow += deltaRow;
+            }
+
+            if (column < 0 || column >= this.columns || row < 0 || row >= this.rows) {
+                break;
+            }
+        }
+
+        // Restore the priority order, the result is usually tiny.
+        for (int i = 1; i < count; i++) {
+            final int index = result[i];
+            int j = i - 1;
+
+            for (; j >= 0 && result[j] > index; j--) {
+                result[j + 1] = result[j];
+            }
+
+            result[j + 1] = index;
+        }
+
+        return count;
+    }
+
+    private static boolean contains(int[] array, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (array[i] == value) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean intersects(int index, int x0, int y0, double dx, double dy, double start, double end) {
+        final int offset = index * 4;
+        final int left = this.boundsArray[offset];
+        final int top = this.boundsArray[offset + 1];
+        final int width = this.boundsArray[offset + 2] - left;
+        final int height = this.boundsArray[offset + 3] - top;
+
+        final double t0 = Math.max(start, AreaTable.clip(false, x0, y0, dx, dy, left, top, width, height));
+        final double t1 = Math.min(end, AreaTable.clip(true, x0, y0, dx, dy, left, top, width, height));
+        final AreaShape shape = this.shapeArray[index];
+
+        if (!(t0 <= t1) || null == shape) {
+            return t0 <= t1;
+        }
+
+        // Walk the pixels of the segment within the bounds, with two steps per pixel crossed horizontally or
+        //  vertically, so that even pixels only touched at their corners are rarely skipped.
+        final int steps = (int) Math.ceil((t1 - t0) * 2d * (Math.abs(dx) + Math.abs(dy)));
+
+        for (int i = 0; i <= steps; i++) {
+            final double t = 0 == steps ? t0 : t0 + (t1 - t0) * i / steps;
+
+            if (shape.containsPixel((int) Math.floor(x0 + t * dx + 0.5d), (int) Math.floor(y0 + t * dy + 0.5d))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Clip the segment starting at {@code x0, y0} with the direction {@code dx, dy} to the pixels covered by the given
+     *  bounds, using the slab variant of the Liang-Barsky algorithm. Each pixel is the unit square centered on its
+     *  coordinates.
+     *
+     * @return The parameter in {@code [0, 1]} where the segment enters (or leaves, if {@code end} is set) the bounds.
+     *  If the segment misses the bounds, the start is greater than the end.
+     */
+    private static double clip(boolean end, double x0, double y0, double dx, double dy,
+                               int x, int y, int width, int height) {
+        final double left = x - 0.5d;
+        final double top = y - 0.5d;
+        final double right = x + width - 0.5d;
+        final double bottom = y + height - 0.5d;
+        double t0 = 0d;
+        double t1 = 1d;
+
+        if (0d == dx) {
+            if (x0 < left || x0 > right) {
+                return end ? -1d : 2d;
+            }
+        } else {
+            final double a = (left - x0) / dx;
+            final double b = (right - x0) / dx;
+
+            t0 = Math.max(t0, Math.min(a, b));
+            t1 = Math.min(t1, Math.max(a, b));
+        }
+
+        if (0d == dy) {
+            if (y0 < top || y0 > bottom) {
+                return end ? -1d : 2d;
+            }
+        } else {
+            final double a = (top - y0) / dy;
+            final double b = (bottom - y0) / dy;
+
+            t0 = Math.max(t0, Math.min(a, b));
+            t1 = Math.min(t1, Math.max(a, b));
+        }
+
+        return end ? t1 : t0;
+    }
+
+    /**
+     * Find the area with the highest priority containing the given point.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The index of the matching area, or {@code -1} if there is none.
+     */
+    public int find(int x, int y) {
+        if ((long) x - this.x < 0 || (long) x - this.x >= this.width
+                || (long) y - this.y < 0 || (long) y - this.y >= this.height) {
+            return -1;
+        }
+
+        if (null != this.raster) {
+            final int[] region = this.raster.getRegion(x, y);
+
+            if (null != region) {
+                return 0 == region.length ? -1 : region[0];
+            }
+        }
+
+        final int[] cell = this.cellArray[this.getRow(y) * this.columns + this.getColumn(x)];
+        final int[] bounds = this.boundsArray;
+
+        for (final int index : cell) {
+            final int offset = index * 4;
+
+            if (x >= bounds[offset] && y >= bounds[offset + 1] && x < bounds[offset + 2] && y < bounds[offset + 3]
+                    && (null == this.shapeArray[index] || this.shapeArray[index].containsPixel(x, y))) {
+                return index;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Calculate the distance from the given point to the nearest area, measured as the larger of the horizontal and
+     * vertical distance (i.e. {@code 0} when inside). The search walks the grid in rings around the point and stops as
+     * soon as no closer area can be found, or the limit is reached.
+     *
+     * @param x     The x coordinate.
+     * @param y     The y coordinate.
+     * @param limit The maximum distance of interest.
+     * @return The distance to the nearest area, but no more than the given limit.
+     */
+    public int distance(int x, int y, int limit) {
+        if (0 == this.maximumOverlap) {
+            return limit;
+        }
+
+        final int column = Math.max(0, this.getColumn(Math.max(x, this.x)));
+        final int row = Math.max(0, this.getRow(Math.max(y, this.y)));
+        final int cellSize = Math.min(this.cellWidth, this.cellHeight);
+        final int ringLimit = Math.max(this.columns, this.rows);
+        long best = limit;
+
+        for (int ring = 0; ring <= ringLimit; ring++) {
+            // Any area found in this ring (or beyond) is at least that far away.
+            if ((long) Math.max(0, ring - 1) * cellSize >= best) {
+                break;
+            }
+
+            final int row0 = row - ring;
+            final int row1 = row + ring;
+            final int column0 = column - ring;
+            final int column1 = column + ring;
+
+            for (int r = Math.max(0, row0); r <= Math.min(this.rows - 1, row1); r++) {
+                // Only visit the border of the ring, i.e. the full first and last row, but only the outer columns.
+                final int step = (r == row0 || r == row1) ? 1 : Math.max(1, column1 - column0);
+
+                for (int c = column0; c <= column1; c += step) {
+                    if (c < 0 || c >= this.columns) {
+                        continue;
+                    }
+
+                    for (final int index : this.cellArray[r * this.columns + c]) {
+                        best = Math.min(best, this.getDistance(index, x, y));
+                    }
+                }
+            }
+        }
+
+        return (int) best;
+    }
+
+    private long getDistance(int index, int x, int y) {
+        final int offset = index * 4;
+        final long dx = Math.max(0, Math.max((long) this.boundsArray[offset] - x, (long) x - (this.boundsArray[offset + 2] - 1)));
+        final long dy = Math.max(0, Math.max((long) this.boundsArray[offset + 1] - y, (long) y - (this.boundsArray[offset + 3] - 1)));
+
+        return Math.max(dx, dy);
+    }
+
+    /**
+     * Check whether the given area contains the point, with the area grown by the given margin on each side.
+     *
+     * @param index  The area index.
+     * @param x      The x coordinate.
+     * @param y      The y coordinate.
+     * @param margin The margin in pixels.
+     * @return Whether the point is inside.
+     */
+    public boolean contains(int index, int x, int y, int margin) {
+        final int offset = index * 4;
+
+        if (this.areaArray[index].isEmpty()) {
+            return false;
+        }
+
+        return (long) x >= (long) this.boundsArray[offset] - margin
+                && (long) y >= (long) this.boundsArray[offset + 1] - margin
+                && (long) x < (long) this.boundsArray[offset + 2] + margin
+                && (long) y < (long) this.boundsArray[offset + 3] + margin
+                && (null == this.shapeArray[index] || this.shapeArray[index].containsPixel(x, y, margin));
+    }
+
+    public int size() {
+        return this.areaArray.length;
+    }
+
+    public int getMaximumOverlap() {
+        return this.maximumOverlap;
+    }
+
+    public Rectangle getArea(int index) {
+        return AreaShape.copyOf(this.areaArray[index]);
+    }
+
+    /**
+     * @param index The area index.
+     * @return The name of the area, i.e. its configuration key {@code @x0,y0,x1,y1} (or {@code @<type>(<coordinates>)}
+     * for a shape).
+     */
+    public String getName(int index) {
+        final int offset = index * 4;
+
+        if (null != this.shapeArray[index]) {
+            return ApplicationConfiguration.CONFIGURATION_MARKER + this.shapeArray[index].getName();
+        }
+
+        return String.format("%c%d,%d,%d,%d", ApplicationConfiguration.CONFIGURATION_MARKER,
+                this.boundsArray[offset], this.boundsArray[offset + 1],
+                this.boundsArray[offset + 2], this.boundsArray[offset + 3]);
+    }
+
+    public int[] getKeyStroke(int index) {
+        return this.keyStrokeArray[index];
+    }
+
+    /**
+     * @param index The area index.
+     * @return The action of the area, or {@code null} for none.
+     */
+    public AreaAction getAction(int index) {
+        return this.actionArray[index];
+    }
+
+    public AreaOptions getOptions(int index) {
+        return this.optionsArray[index];
+    }
+
+    /**
+     * @return The raster of the border band, or {@code null} if there is no area close to the border.
+     */
+    public AreaRaster getRaster() {
+        return this.raster;
+    }
+
+    public AreaGestureAutomaton getGestureAutomaton() {
+        return this.gestureAutomaton;
+    }
+
+    /**
+     * @param index The area index.
+     * @return The index of the screen the area is on, or {@code -1} if not on any screen.
+     */
+    public int getScreen(int index) {
+        return this.screenIndexArray[index];
+    }
+
+    public int getScreenCount() {
+        return this.screenArray.length;
+    }
+
+    public Rectangle getScreenBounds(int screen) {
+        return new Rectangle(this.screenArray[screen]);
+    }
+
+    /**
+     * @return The bounds of all screens, or {@code null} if the table was compiled without any screen.
+     */
+    public Rectangle getVirtualBounds() {
+        return ScreenLayout.getVirtualBounds(this.screenArray);
+    }
+}
@@ -0,0 +1,596 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The edge-triggered state machine of all areas within an {@link AreaTable}. An area fires once the pointer entered it
+ * and stayed for the dwell time, but not again until the pointer left it. Any entry within the cooldown after it fired
+ * is suppressed. The pointer has to move further away than the hysteresis, before it counts as exit, so that jitter on
+ * the border of an area does not cause repeated entries.
+ * <p>
+ * In sweep mode, the line segment between two consecutive samples is checked as well, so that an area the pointer
+ * crossed between samples counts as entered and left again, instead of being skipped entirely. This matters for small
+ * areas and fast movements, or a high delay.
+ * <p>
+ * Every area entry (fired or not) also advances the {@link AreaGestureAutomaton} of the table. A gesture fires, when
+ * its last area is entered within the timeout after its first one.
+ * <p>
+ * With prediction enabled (see {@link #setPrediction(int, int)}), the path of the pointer is extrapolated by a
+ * {@link MouseMotionPredictor} on each sample. Any area without dwell time on that path is predicted to be entered, if
+ * the prediction is confident enough. The actual entry then confirms the prediction and fires the area, unless it
+ * does not happen in time, which cancels the prediction.
+ * <p>
+ * Not thread-safe, it's meant to be driven by the sampler only.
+ */
+final public class AreaTrigger {
+
+    private static final byte STATE_OUTSIDE = 0;
+
+    private static final byte STATE_DWELL = 1;
+
+    private static final byte STATE_FIRED = 2;
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    /**
+     * The time a prediction stays valid without the area being entered, as multiple of the horizon.
+     */
+    protected static final int PREDICTION_EXPIRY
+            = 2;
+
+    private final AreaTable areaTable;
+
+    private final AreaTriggerListener listener;
+
+    private final int[] areaResult;
+
+    private final boolean sweep;
+
+    private final Rectangle sweepBounds;
+
+    private final int[] sweepResult;
+
+    private final byte[] stateArray;
+
+    private final long[] enterArray;
+
+    private final long[] fireArray;
+
+    /**
+     * The indices of all areas not in {@link #STATE_OUTSIDE}, so that only those have to be checked for exit.
+     */
+    private final int[] activeArray;
+
+    private int activeCount;
+
+    private boolean positioned;
+
+    private int lastX;
+
+    private int lastY;
+
+    private int gestureState;
+
+    /**
+     * The times of the last few entries of areas used by any gesture, to check the timeout of a completed gesture.
+     */
+    private final long[] gestureTimeArray;
+
+    private long gestureEntryCount;
+
+    private long triggerCount;
+
+    private long suppressedDwellCount;
+
+    private long suppressedCooldownCount;
+
+    private long suppressedRepeatCount;
+
+    private long sweepCount;
+
+    private long gestureTriggerCount;
+
+    private long gestureTimeoutCount;
+
+    private MouseMotionPredictor predictor;
+
+    private long predictionHorizon;
+
+    private double predictionConfidence;
+
+    private int[] predictionResult;
+
+    /**
+     * The time each area was predicted to be entered at, or {@link #NEVER} if not predicted.
+     */
+    private long[] predictionArray;
+
+    /**
+     * The indices of all areas predicted to be entered, so that only those have to be checked for expiry.
+     */
+    private int[] predictedArray;
+
+    private int predictedCount;
+
+    private long predictionCount;
+
+    private long predictionConfirmedCount;
+
+    private long predictionCancelledCount;
+
+    private long predictionGainNanos;
+
+    /**
+     * @param areaTable   The areas.
+     * @param listener    The listener to notify when an area fires.
+     * @param sweep       Whether to check the segment between consecutive samples as well.
+     * @param sweepBounds The bounds to clip the segment to, usually the screen, or {@code null} to not clip it.
+     * @param previous    The trigger to carry over the counters and the position from, if any. Any area at that
+     *                    position counts as fired, so that it only fires after the pointer left and entered it again.
+     */
+    public AreaTrigger(AreaTable areaTable, AreaTriggerListener listener, boolean sweep, Rectangle sweepBounds,
+                       AreaTrigger previous) {
+        this.areaTable = areaTable;
+        this.listener = listener;
+
+        this.areaResult = new int[areaTable.getMaximumOverlap()];
+        this.sweep = sweep;
+        this.sweepBounds = null == sweepBounds ? null : new Rectangle(sweepBounds);
+        this.sweepResult = sweep ? new int[areaTable.size()] : new int[0];
+        this.stateArray = new byte[areaTable.size()];
+        this.enterArray = new long[areaTable.size()];
+        this.fireArray = new long[areaTable.size()];
+        this.activeArray = new int[areaTable.size()];
+        this.gestureTimeArray = new long[areaTable.getGestureAutomaton().getMaximumLength()];
+
+        Arrays.fill(this.fireArray, AreaTrigger.NEVER);
+
+        if (null != previous) {
+            this.triggerCount = previous.triggerCount;
+            this.suppressedDwellCount = previous.suppressedDwellCount;
+            this.suppressedCooldownCount = previous.suppressedCooldownCount;
+            this.suppressedRepeatCount = previous.suppressedRepeatCount;
+            this.sweepCount = previous.sweepCount;
+            this.gestureTriggerCount = previous.gestureTriggerCount;
+            this.gestureTimeoutCount = previous.gestureTimeoutCount;
+            this.positioned = previous.positioned;
+            this.lastX = previous.lastX;
+            this.lastY = previous.lastY;
+            this.predictionCount = previous.predictionCount;
+            this.predictionConfirmedCount = previous.predictionConfirmedCount;
+            this.predictionCancelledCount = previous.predictionCancelledCount;
+            this.predictionGainNanos = previous.predictionGainNanos;
+
+            if (null != previous.predictor) {
+                this.setPrediction(previous.predictor, previous.predictionHorizon, previous.predictionConfidence);
+            }
+
+            // The pointer is still where it was, e.g. in the area that switched the profile, so that is no entry.
+            if (this.positioned) {
+                final int count = Math.min(areaTable.query(this.lastX, this.lastY, this.areaResult), this.areaResult.length);
+
+                for (int i = 0; i < count; i++) {
+                    final int index = this.areaResult[i];
+
+                    this.stateArray[index] = AreaTrigger.STATE_FIRED;
+                    this.activeArray[this.activeCount++] = index;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param areaTable The areas.
+     * @param listener  The listener to notify when an area fires.
+     * @param previous  The trigger to carry over the counters, the sweep mode and the prediction from. The sweep bounds
+     *                  are carried over too, unless the areas have screens of their own (see
+     *                  {@link AreaTable#getVirtualBounds()}).
+     */
+    public AreaTrigger(AreaTable areaTable, AreaTriggerListener listener, AreaTrigger previous) {
+        this(areaTable, listener, previous.sweep, null != areaTable.getVirtualBounds()
+                ? areaTable.getVirtualBounds()
+                : previous.sweepBounds, previous);
+    }
+
+    public AreaTrigger(AreaTable areaTable, AreaTriggerListener listener) {
+        this(areaTable, listener, false, null, null);
+    }
+
+    /**
+     * Enable prediction of area entries.
+     *
+     * @param horizon    The time to predict ahead in milliseconds.
+     * @param confidence The confidence in percent a prediction needs, see {@link MouseMotionPredictor#getConfidence()}.
+     */
+    public void setPrediction(int horizon, int confidence) {
+        if (horizon < 1 || confidence < 0 || confidence > 100) {
+            throw new IllegalArgumentException(String.format("Invalid prediction horizon %d or confidence %d!",
+                    horizon, confidence));
+        }
+
+        this.setPrediction(new MouseMotionPredictor(), TimeUnit.MILLISECONDS.toNanos(horizon), confidence / 100d);
+    }
+
+    private void setPrediction(MouseMotionPredictor predictor, long horizon, double confidence) {
+        final int size = this.areaTable.size();
+
+        this.predictor = predictor;
+        this.predictionHorizon = horizon;
+        this.predictionConfidence = confidence;
+        this.predictionResult = new int[size];
+        this.predictionArray = new long[size];
+        this.predictedArray = new int[size];
+
+        Arrays.fill(this.predictionArray, AreaTrigger.NEVER);
+    }
+
+    /**
+     * Process a sample of a moved pointer.
+     *
+     * @param nanos The time of the sample, see {@link System#nanoTime()}.
+     * @param x     The x coordinate on the screen.
+     * @param y     The y coordinate on the screen.
+     */
+    public void update(long nanos, int x, int y) {
+        final AreaTable areaTable = this.areaTable;
+
+        if (this.sweep && this.positioned) {
+            this.sweep(nanos, this.lastX, this.lastY, x, y);
+        }
+
+        this.positioned = true;
+        this.lastX = x;
+        this.lastY = y;
+
+        // Check all active areas for exit first.
+        for (int i = this.activeCount - 1; i >= 0; i--) {
+            final int index = this.activeArray[i];
+
+            if (!areaTable.contains(index, x, y, areaTable.getOptions(index).getHysteresis())) {
+                this.exit(i, index);
+            }
+        }
+
+        final int count = Math.min(areaTable.query(x, y, this.areaResult), this.areaResult.length);
+
+        for (int i = 0; i < count; i++) {
+            final int index = this.areaResult[i];
+
+            if (AreaTrigger.STATE_OUTSIDE == this.stateArray[index]) {
+                this.enter(nanos, index);
+            } else if (AreaTrigger.STATE_FIRED == this.stateArray[index]) {
+                this.suppressedRepeatCount++;
+
+                continue;
+            }
+
+            this.dwell(nanos, index);
+        }
+
+        if (null != this.predictor) {
+            this.predictor.update(nanos, x, y);
+            this.expire(nanos);
+            this.predict(nanos, x, y);
+        }
+    }
+
+    /**
+     * Process a sample of a pointer that did not move, to complete the dwell time of any area the pointer is in.
+     *
+     * @param nanos The time of the sample, see {@link System#nanoTime()}.
+     * @param x     The x coordinate on the screen.
+     * @param y     The y coordinate on the screen.
+     */
+    public void updateStill(long nanos, int x, int y) {
+        for (int i = this.activeCount - 1; i >= 0; i--) {
+            final int index = this.activeArray[i];
+
+            if (AreaTrigger.STATE_DWELL == this.stateArray[index] && this.areaTable.contains(index, x, y, 0)) {
+                this.dwell(nanos, index);
+            }
+        }
+
+        if (null != this.predictor) {
+            this.predictor.update(nanos, x, y);
+            this.expire(nanos);
+        }
+    }
+
+    /**
+     * Predict the areas on the path of the pointer within the horizon, which it's outside of and could fire right away
+     * when entered, i.e. without dwell time and not within the cooldown.
+     */
+    private void predict(long nanos, int x, int y) {
+        final MouseMotionPredictor predictor = this.predictor;
+        final AreaTable areaTable = this.areaTable;
+
+        if (predictor.getConfidence() < this.predictionConfidence) {
+            return;
+        }
+
+        predictor.predict(this.predictionHorizon);
+
+        final int count = areaTable.querySegment(x, y, predictor.getPredictedX(), predictor.getPredictedY(),
+                this.sweepBounds, this.predictionResult);
+
+        for (int i = 0; i < count; i++) {
+            final int index = this.predictionResult[i];
+            final AreaOptions options = areaTable.getOptions(index);
+
+            if (AreaTrigger.STATE_OUTSIDE != this.stateArray[index]
+                    || AreaTrigger.NEVER != this.predictionArray[index]
+                    || 0 < options.getDwell()
+                    || AreaTrigger.NEVER != this.fireArray[index]
+                    && nanos - this.fireArray[index] < TimeUnit.MILLISECONDS.toNanos(options.getCooldown())
+                    || areaTable.contains(index, x, y, 0)) {
+                continue;
+            }
+
+            this.predictionArray[index] = nanos;
+            this.predictedArray[this.predictedCount++] = index;
+            this.predictionCount++;
+
+            this.listener.areaPredicted(nanos, index);
+        }
+    }
+
+    /**
+     * Cancel all predictions not confirmed within their time.
+     */
+    private void expire(long nanos) {
+        final long expiry = AreaTrigger.PREDICTION_EXPIRY * this.predictionHorizon;
+
+        for (int i = this.predictedCount - 1; i >= 0; i--) {
+            final int index = this.predictedArray[i];
+
+            if (nanos - this.predictionArray[index] > expiry) {
+                this.unpredict(i, index);
+                this.predictionCancelledCount++;
+
+                this.listener.areaPredictionCancelled(nanos, index);
+            }
+        }
+    }
+
+    private void unpredict(int predictedIndex, int index) {
+        this.predictionArray[index] = AreaTrigger.NEVER;
+        this.predictedArray[predictedIndex] = this.predictedArray[--this.predictedCount];
+    }
+
+    /**
+     * Fire the predicted area on entry.
+     */
+    private void confirm(long nanos, int index) {
+        for (int i = 0; i < this.predictedCount; i++) {
+            if (index == this.predictedArray[i]) {
+                this.predictionGainNanos += nanos - this.predictionArray[index];
+                this.unpredict(i, index);
+
+                break;
+            }
+        }
+
+        this.stateArray[index] = AreaTrigger.STATE_FIRED;
+        this.fireArray[index] = nanos;
+        this.triggerCount++;
+        this.predictionConfirmedCount++;
+
+        this.listener.areaPredictionConfirmed(nanos, index);
+    }
+
+    /**
+     * Enter and leave all areas crossed by the segment, but not containing its end. Those containing it are entered by
+     * the regular update right after.
+     */
+    private void sweep(long nanos, int x0, int y0, int x1, int y1) {
+        final AreaTable areaTable = this.areaTable;
+        final int count = areaTable.querySegment(x0, y0, x1, y1, this.sweepBounds, this.sweepResult);
+
+        for (int i = 0; i < count; i++) {
+            final int index = this.sweepResult[i];
+
+            if (AreaTrigger.STATE_OUTSIDE != this.stateArray[index] || areaTable.contains(index, x1, y1, 0)) {
+                continue;
+            }
+
+            this.sweepCount++;
+            this.enter(nanos, index);
+            this.dwell(nanos, index);
+            this.exit(this.activeCount - 1, index);
+        }
+    }
+
+    private void enter(long nanos, int index) {
+        final AreaOptions options = this.areaTable.getOptions(index);
+
+        this.activeArray[this.activeCount++] = index;
+        this.enterArray[index] = nanos;
+
+        if (null != this.predictor && AreaTrigger.NEVER != this.predictionArray[index]) {
+            this.confirm(nanos, index);
+        } else if (AreaTrigger.NEVER != this.fireArray[index]
+                && nanos - this.fireArray[index] < TimeUnit.MILLISECONDS.toNanos(options.getCooldown())) {
+            this.stateArray[index] = AreaTrigger.STATE_FIRED;
+            this.suppressedCooldownCount++;
+        } else {
+            this.stateArray[index] = AreaTrigger.STATE_DWELL;
+        }
+
+        this.gesture(nanos, index);
+    }
+
+    private void gesture(long nanos, int index) {
+        final AreaGestureAutomaton automaton = this.areaTable.getGestureAutomaton();
+
+        if (!automaton.contains(index)) {
+            return;
+        }
+
+        final long[] timeArray = this.gestureTimeArray;
+
+        this.gestureState = automaton.next(this.gestureState, index);
+
+        timeArray[(int) (this.gestureEntryCount++ % timeArray.length)] = nanos;
+
+        for (final int gesture : automaton.getOutputs(this.gestureState)) {
+            // The state guarantees, that the last entries are the areas of the gesture, so the first one is right here.
+            final long start = timeArray[(int) ((this.gestureEntryCount - automaton.getGesture(gesture).size()) % timeArray.length)];
+
+            if (nanos - start > automaton.getTimeoutNanos(gesture)) {
+                this.gestureTimeoutCount++;
+
+                continue;
+            }
+
+            this.gestureTriggerCount++;
+
+            this.listener.gestureTriggered(nanos, gesture);
+        }
+    }
+
+    private void dwell(long nanos, int index) {
+        final AreaOptions options = this.areaTable.getOptions(index);
+
+        if (AreaTrigger.STATE_DWELL != this.stateArray[index]
+                || nanos - this.enterArray[index] < TimeUnit.MILLISECONDS.toNanos(options.getDwell())) {
+            return;
+        }
+
+        this.stateArray[index] = AreaTrigger.STATE_FIRED;
+        this.fireArray[index] = nanos;
+        this.triggerCount++;
+
+        this.listener.areaTriggered(nanos, index);
+    }
+
+    private void exit(int activeIndex, int index) {
+        if (AreaTrigger.STATE_DWELL == this.stateArray[index]) {
+            this.suppressedDwellCount++;
+        }
+
+        this.stateArray[index] = AreaTrigger.STATE_OUTSIDE;
+        this.activeArray[activeIndex] = this.activeArray[--this.activeCount];
+    }
+
+    public AreaTable getAreaTable() {
+        return this.areaTable;
+    }
+
+    /**
+     * @return The number of times any area fired.
+     */
+    public long getTriggerCount() {
+        return this.triggerCount;
+    }
+
+    /**
+     * @return The number of entries suppressed, as the pointer left before the dwell time was over.
+     */
+    public long getSuppressedDwellCount() {
+        return this.suppressedDwellCount;
+    }
+
+    /**
+     * @return The number of entries suppressed, as they happened within the cooldown.
+     */
+    public long getSuppressedCooldownCount() {
+        return this.suppressedCooldownCount;
+    }
+
+    /**
+     * @return The number of samples suppressed, as the pointer moved within an area that already fired.
+     */
+    public long getSuppressedRepeatCount() {
+        return this.suppressedRepeatCount;
+    }
+
+    /**
+     * @return The number of areas crossed between two samples, only detected in sweep mode.
+     */
+    public long getSweepCount() {
+        return this.sweepCount;
+    }
+
+    /**
+     * @return The number of times any gesture fired.
+     */
+    public long getGestureTriggerCount() {
+        return this.gestureTriggerCount;
+    }
+
+    /**
+     * @return The number of gestures completed too late, after their timeout.
+     */
+    public long getGestureTimeoutCount() {
+        return this.gestureTimeoutCount;
+    }
+
+    /**
+     * @return The number of area entries predicted.
+     */
+    public long getPredictionCount() {
+        return this.predictionCount;
+    }
+
+    /**
+     * @return The number of predictions confirmed by the actual entry.
+     */
+    public long getPredictionConfirmedCount() {
+        return this.predictionConfirmedCount;
+    }
+
+    /**
+     * @return The number of predictions cancelled, as the area was not entered in time.
+     */
+    public long getPredictionCancelledCount() {
+        return this.predictionCancelledCount;
+    }
+
+    /**
+     * @return The total time in nanoseconds between each confirmed prediction and the actual entry.
+     */
+    public long getPredictionGainNanos() {
+        return this.predictionGainNanos;
+    }
+
+    /**
+     * @return The number of predictions neither confirmed nor cancelled yet.
+     */
+    public int getPredictedCount() {
+        return this.predictedCount;
+    }
+
+    public boolean isSweep() {
+        return this.sweep;
+    }
+
+    public boolean isPrediction() {
+        return null != this.predictor;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.util.EventListener;
+
+/**
+ * The listener notified by an {@link AreaTrigger}.
+ */
+public interface AreaTriggerListener extends EventListener {
+
+    /**
+     * Invoked when an area fires.
+     *
+     * @param nanos The time of the sample, see {@link System#nanoTime()}.
+     * @param index The index of the area within the {@link AreaTable}.
+     */
+    void areaTriggered(long nanos, int index);
+
+    /**
+     * Invoked when a gesture is completed, see {@link AreaGestureAutomaton}.
+     *
+     * @param nanos   The time of the sample, see {@link System#nanoTime()}.
+     * @param gesture The index of the gesture within the {@link AreaGestureAutomaton}.
+     */
+    default void gestureTriggered(long nanos, int gesture) {
+    }
+
+    /**
+     * Invoked when an area is predicted to be entered soon, see {@link AreaTrigger#setPrediction(int, int)}.
+     *
+     * @param nanos The time of the sample, see {@link System#nanoTime()}.
+     * @param index The index of the area within the {@link AreaTable}.
+     */
+    default void areaPredicted(long nanos, int index) {
+    }
+
+    /**
+     * Invoked when a predicted area is actually entered, and fires. By default, same as any other area that fires.
+     *
+     * @param nanos The time of the sample, see {@link System#nanoTime()}.
+     * @param index The index of the area within the {@link AreaTable}.
+     */
+    default void areaPredictionConfirmed(long nanos, int index) {
+        this.areaTriggered(nanos, index);
+    }
+
+    /**
+     * Invoked when a predicted area was not entered in time.
+     *
+     * @param nanos The time of the sample, see {@link System#nanoTime()}.
+     * @param index The index of the area within the {@link AreaTable}.
+     */
+    default void areaPredictionCancelled(long nanos, int index) {
+    }
+}
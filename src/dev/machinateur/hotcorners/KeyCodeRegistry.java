@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.event.KeyEvent;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The table of all {@code VK_*} constants of {@link KeyEvent}, by name and by code. It's built once by reflection,
+ * any lookup afterwards is a binary search over sorted arrays.
+ */
+final public class KeyCodeRegistry {
+
+    private static final KeyCodeRegistry INSTANCE = new KeyCodeRegistry();
+
+    /**
+     * The names, sorted.
+     */
+    private final String[] nameArray;
+
+    /**
+     * The codes, in the same order as the names.
+     */
+    private final int[] nameCodeArray;
+
+    /**
+     * The codes, sorted and unique.
+     */
+    private final int[] codeArray;
+
+    /**
+     * The names, in the same order as the codes. For codes with more than one name, the first declared one is used.
+     */
+    private final String[] codeNameArray;
+
+    private KeyCodeRegistry() {
+        final List<Field> fieldList = new ArrayList<Field>();
+
+        for (Field field : KeyEvent.class.getDeclaredFields()) {
+            if (KeyCodeRegistry.isKeyField(field)) {
+                fieldList.add(field);
+            }
+        }
+
+        final int size = fieldList.size();
+        final String[] nameArray = new String[size];
+        final int[] nameCodeArray = new int[size];
+        final long[] codeEntryArray = new long[size];
+
+        try {
+            for (int i = 0; i < size; i++) {
+                nameArray[i] = fieldList.get(i).getName();
+                nameCodeArray[i] = fieldList.get(i).getInt(null);
+                // Pack code and declaration order, so that sorting keeps the first declared name for each code first.
+                codeEntryArray[i] = (long) nameCodeArray[i] << 32 | i;
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+
+        final Integer[] orderArray = new Integer[size];
+
+        for (int i = 0; i < size; i++) {
+            orderArray[i] = i;
+        }
+
+        Arrays.sort(orderArray, (a, b) -> nameArray[a].compareTo(nameArray[b]));
+
+        this.nameArray = new String[size];
+        this.nameCodeArray = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            this.nameArray[i] = nameArray[orderArray[i]];
+            this.nameCodeArray[i] = nameCodeArray[orderArray[i]];
+        }
+
+        Arrays.sort(codeEntryArray);
+
+        final int[] codeArray = new int[size];
+        final String[] codeNameArray = new String[size];
+        int count = 0;
+
+        for (long codeEntry : codeEntryArray) {
+            final int code = (int) (codeEntry >> 32);
+
+            if (count > 0 && codeArray[count - 1] == code) {
+                continue;
+            }
+
+            codeArray[count] = code;
+            codeNameArray[count] = nameArray[(int) codeEntry];
+            count++;
+        }
+
+        this.codeArray = Arrays.copyOf(codeArray, count);
+        this.codeNameArray = Arrays.copyOf(codeNameArray, count);
+    }
+
+    public static KeyCodeRegistry getInstance() {
+        return KeyCodeRegistry.INSTANCE;
+    }
+
+    static boolean isKeyField(Field field) {
+        return Modifier.isStatic(field.getModifiers())
+                && field.getType() == int.class
+                && field.getName().startsWith("VK_");
+    }
+
+    /**
+     * @param name The name of the constant, e.g. {@code VK_A}.
+     * @return Whether there is a constant of that name.
+     */
+    public boolean contains(String name) {
+        return Arrays.binarySearch(this.nameArray, name) >= 0;
+    }
+
+    /**
+     * @param name The name of the constant, e.g. {@code VK_A}.
+     * @return The key code.
+     * @throws NoSuchFieldException If there is no constant of that name.
+     */
+    public int getCode(String name) throws NoSuchFieldException {
+        final int index = Arrays.binarySearch(this.nameArray, name);
+
+        if (index < 0) {
+            throw new NoSuchFieldException(name);
+        }
+
+        return this.nameCodeArray[index];
+    }
+
+    /**
+     * @param code The key code.
+     * @return The name of the first declared constant with that code, or {@code VK_UNDEFINED} if there is none.
+     */
+    public String getName(int code) {
+        final int index = Arrays.binarySearch(this.codeArray, code);
+
+        if (index < 0) {
+            return "VK_UNDEFINED";
+        }
+
+        return this.codeNameArray[index];
+    }
+
+    public int size() {
+        return this.nameArray.length;
+    }
+}
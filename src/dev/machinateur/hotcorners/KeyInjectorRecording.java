@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.util.Arrays;
+
+/**
+ * A key injector that only records the key events instead of executing them. Does not depend on any screen, so it's
+ * safe to use with {@code java.awt.headless=true}.
+ */
+final public class KeyInjectorRecording implements KeyInjector {
+
+    protected static final int INITIAL_CAPACITY
+            = 64;
+
+    /**
+     * The recorded events, each as key code shifted by one, with the lowest bit set for a press.
+     */
+    private int[] eventArray;
+
+    private int size;
+
+    public KeyInjectorRecording() {
+        this.eventArray = new int[KeyInjectorRecording.INITIAL_CAPACITY];
+    }
+
+    @Override
+    public synchronized void keyPress(int keyCode) {
+        this.record(keyCode << 1 | 1);
+    }
+
+    @Override
+    public synchronized void keyRelease(int keyCode) {
+        this.record(keyCode << 1);
+    }
+
+    private void record(int event) {
+        if (this.size == this.eventArray.length) {
+            this.eventArray = Arrays.copyOf(this.eventArray, this.size * 2);
+        }
+
+        this.eventArray[this.size++] = event;
+
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.DEBUG, "Record: Key-%s: %d", (event & 1) == 1 ? "Press" : "Release", event >> 1);
+    }
+
+    public synchronized int size() {
+        return this.size;
+    }
+
+    public synchronized int getKeyCode(int index) {
+        return this.eventArray[index] >> 1;
+    }
+
+    public synchronized boolean isPress(int index) {
+        return (this.eventArray[index] & 1) == 1;
+    }
+
+    public synchronized void clear() {
+        this.size = 0;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.event.KeyEvent;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Executes key stroke macros (see {@link KeyStrokeMacro}) on the calling thread, usually one of the
+ * {@link AreaActionExecutor}. Only one macro is executed at a time, so that the keys of concurrent macros are never
+ * interleaved.
+ * <p>
+ * Any key pressed by a macro is released at its end, even if the macro fails partway or the thread is interrupted
+ * during a delay (e.g. on timeout), so that no key is left stuck.
+ */
+final public class KeyStrokeExecutor {
+
+    private final KeyInjector keyInjector;
+
+    private final ReentrantLock lock;
+
+    /**
+     * The keys currently pressed by the running macro, in order. Guarded by the lock.
+     */
+    private int[] heldArray;
+
+    private int heldCount;
+
+    public KeyStrokeExecutor(KeyInjector keyInjector) {
+        this.keyInjector = keyInjector;
+        this.lock = new ReentrantLock();
+        this.heldArray = new int[8];
+    }
+
+    /**
+     * Execute the macro, after any other macro currently executed.
+     *
+     * @param macro The instructions, see {@link KeyStrokeMacro}. A plain key stroke array presses the keys in order and
+     *              releases them in the same order.
+     * @throws InterruptedException If interrupted while waiting for another macro, or during a delay.
+     */
+    public void execute(int[] macro) throws InterruptedException {
+        this.lock.lockInterruptibly();
+
+        try {
+            this.executeMacro(macro);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void executeMacro(int[] macro) throws InterruptedException {
+        try {
+            for (final int instruction : macro) {
+                final int operand = KeyStrokeMacro.getOperand(instruction);
+
+                switch (KeyStrokeMacro.getOperation(instruction)) {
+                    case KeyStrokeMacro.HOLD, KeyStrokeMacro.PRESS -> {
+                        if (KeyEvent.VK_UNDEFINED != operand) {
+                            this.press(operand);
+                        }
+                    }
+                    case KeyStrokeMacro.RELEASE -> this.release(operand);
+                    case KeyStrokeMacro.TYPE -> {
+                        this.press(operand);
+                        this.release(operand);
+                    }
+                    case KeyStrokeMacro.DELAY -> TimeUnit.MILLISECONDS.sleep(operand);
+                    default -> throw new IllegalArgumentException(String.format("Invalid instruction %d!", instruction));
+                }
+            }
+        } finally {
+            this.releaseAll();
+        }
+    }
+
+    private void press(int key) {
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.DEBUG, "Execute: Key-Press: %d...", key);
+
+        if (this.heldCount == this.heldArray.length) {
+            this.heldArray = Arrays.copyOf(this.heldArray, this.heldCount * 2);
+        }
+
+        // Track the key first, so that it's released even if pressing it failed halfway.
+        this.heldArray[this.heldCount++] = key;
+
+        this.keyInjector.keyPress(key);
+    }
+
+    private void release(int key) {
+        for (int i = 0; i < this.heldCount; i++) {
+            if (key == this.heldArray[i]) {
+                System.arraycopy(this.heldArray, i + 1, this.heldArray, i, --this.heldCount - i);
+
+                break;
+            }
+        }
+
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.DEBUG, "Execute: Key-Release: %d...", key);
+
+        this.keyInjector.keyRelease(key);
+    }
+
+    /**
+     * Release all keys still pressed, in the order they were pressed, each one even if releasing another one failed.
+     */
+    private void releaseAll() {
+        RuntimeException failure = null;
+
+        for (int i = 0; i < this.heldCount; i++) {
+            try {
+                ApplicationLogger.getInstance()
+                        .log(ApplicationLogger.DEBUG, "Execute: Key-Release: %d...", this.heldArray[i]);
+
+                this.keyInjector.keyRelease(this.heldArray[i]);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        this.heldCount = 0;
+
+        if (null != failure) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * The instruction set of key stroke macros, as executed by the {@link KeyStrokeExecutor}. A macro is compiled into a
+ * compact {@code int[]}, one instruction per step, with the operation in the upper bits and the operand (a key code or
+ * a delay in milliseconds) in the lower ones.
+ * <p>
+ * A plain key stroke array (e.g. {@code VK_CONTROL + VK_C}) is a valid macro already, as its key codes decode to
+ * {@link #HOLD} instructions: Press the key and keep it pressed until the end of the macro. That's how a chord works.
+ * <p>
+ * Macros are configured with the {@link #MACRO_PREFIX} and comma separated steps, e.g.
+ * {@code macro: press VK_CONTROL, type VK_C, release VK_CONTROL, delay 100, type VK_ESCAPE}.
+ */
+final public class KeyStrokeMacro {
+
+    public static final String MACRO_PREFIX = "macro:";
+
+    /**
+     * Press the key and release it at the end of the macro. Key code {@link KeyEvent#VK_UNDEFINED} is skipped.
+     */
+    public static final int HOLD = 0;
+
+    public static final int PRESS = 1;
+
+    public static final int RELEASE = 2;
+
+    /**
+     * Press and release the key.
+     */
+    public static final int TYPE = 3;
+
+    /**
+     * Wait for the given milliseconds.
+     */
+    public static final int DELAY = 4;
+
+    private static final int OPERATION_SHIFT = 28;
+
+    private static final int OPERAND_MASK = (1 << KeyStrokeMacro.OPERATION_SHIFT) - 1;
+
+    private static final String STEP_SPLIT_REGEX = ",";
+
+    private static final String OPERAND_SPLIT_REGEX = "\\s+";
+
+    private KeyStrokeMacro() {
+    }
+
+    public static int encode(int operation, int operand) {
+        if (operand < 0 || operand > KeyStrokeMacro.OPERAND_MASK) {
+            throw new IllegalArgumentException(String.format("Invalid operand %d!", operand));
+        }
+
+        return operation << KeyStrokeMacro.OPERATION_SHIFT | operand;
+    }
+
+    public static int getOperation(int instruction) {
+        return instruction >>> KeyStrokeMacro.OPERATION_SHIFT;
+    }
+
+    public static int getOperand(int instruction) {
+        return instruction & KeyStrokeMacro.OPERAND_MASK;
+    }
+
+    public static boolean isMacro(String value) {
+        return value.trim()
+                .toLowerCase()
+                .startsWith(KeyStrokeMacro.MACRO_PREFIX);
+    }
+
+    /**
+     * Compile the macro.
+     *
+     * @param value The macro, starting with the {@link #MACRO_PREFIX}.
+     * @return The instructions.
+     * @throws NoSuchFieldException If any key code is unknown.
+     */
+    public static int[] compile(String value) throws NoSuchFieldException {
+        final String[] stepList = value.trim()
+                .substring(KeyStrokeMacro.MACRO_PREFIX.length())
+                .split(KeyStrokeMacro.STEP_SPLIT_REGEX);
+        final int[] instructionArray = new int[stepList.length];
+
+        for (int i = 0; i < stepList.length; i++) {
+            final String[] step = stepList[i].trim()
+                    .split(KeyStrokeMacro.OPERAND_SPLIT_REGEX);
+
+            if (2 != step.length) {
+                throw new IllegalArgumentException(String.format("Invalid macro step '%s'!", stepList[i].trim()));
+            }
+
+            final int operation = switch (step[0].toLowerCase()) {
+                case "press" -> KeyStrokeMacro.PRESS;
+                case "release" -> KeyStrokeMacro.RELEASE;
+                case "type" -> KeyStrokeMacro.TYPE;
+                case "delay" -> KeyStrokeMacro.DELAY;
+                default -> throw new IllegalArgumentException(String.format("Unknown macro step '%s'!", step[0]));
+            };
+            final int operand = KeyStrokeMacro.DELAY == operation
+                    ? Integer.parseInt(step[1])
+                    : KeyCodeRegistry.getInstance().getCode(step[1].toUpperCase());
+
+            instructionArray[i] = KeyStrokeMacro.encode(operation, operand);
+        }
+
+        return instructionArray;
+    }
+}
@@ -24,7 +24,11 @@
 
 package dev.machinateur.hotcorners;
 
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Year;
+import java.util.Arrays;
 
 final public class Main {
 
@@ -34,6 +38,20 @@ final public class Main {
 
     private static boolean VERBOSE_MODE = false;
 
+    private static boolean SIMULATION_MODE = false;
+
+    private static Path TRACE_RECORD_PATH = null;
+
+    private static Path TRACE_REPLAY_PATH = null;
+
+    private static boolean TRACE_REPLAY_REAL_TIME = true;
+
+    private static String PROFILE = null;
+
+    private static String CONTROL_COMMAND = null;
+
+    private static ApplicationInstanceLock INSTANCE_LOCK = null;
+
     private Main() {
     }
 
@@ -46,8 +64,147 @@ final public class Main {
 
         ApplicationConfiguration configuration = Main.getApplicationConfiguration(args);
 
-        Application application = new Application(configuration);
+        if (null != Main.CONTROL_COMMAND) {
+            System.exit(Main.control(Main.CONTROL_COMMAND));
+        }
+
+        // A replay does not poll the pointer, so it may run next to the running instance.
+        if (null == Main.TRACE_REPLAY_PATH) {
+            final Path lockPath;
+
+            try {
+                lockPath = ApplicationInstanceLock.getDefaultPath();
+            } catch (IllegalStateException e) {
+                System.out.printf("Instance: %s" + Main.NEW_LINE, e.getMessage());
+                System.exit(1);
+
+                return;
+            }
+
+            Main.INSTANCE_LOCK = ApplicationInstanceLock.tryAcquire(lockPath);
+
+            if (null == Main.INSTANCE_LOCK) {
+                System.out.printf("Instance: Already running (see '%s'), use --control stop to stop it!" + Main.NEW_LINE,
+                        lockPath);
+                System.exit(1);
+            }
+        }
+
+        Application application;
+
+        if (null != Main.TRACE_REPLAY_PATH) {
+            // The replay feeds the observer directly, so the pointer source is never available.
+            application = new Application(configuration, location -> false, new KeyInjectorRecording());
+        } else if (Main.isSimulationMode()) {
+            // The simulation does not need any screen, so the default HD screen (1920x1080) is assumed when headless.
+            Rectangle bounds = ScreenLayout.getVirtualBounds(new ScreenLayoutAwt().getScreenBounds());
+
+            if (null == bounds) {
+                bounds = new Rectangle(0, 0, 1920, 1080);
+            }
+
+            application = new Application(configuration,
+                    PointerSourceSynthetic.randomized(bounds, year.getValue()), new KeyInjectorRecording());
+        } else {
+            application = new Application(configuration);
+        }
+
+        if (null != Main.PROFILE && !application.activateProfile(Main.PROFILE)) {
+            System.out.printf("Argument: Unknown profile '%s'!" + Main.NEW_LINE, Main.PROFILE);
+        }
+
+        if (null != Main.TRACE_RECORD_PATH) {
+            Main.recordTrace(application, Main.TRACE_RECORD_PATH);
+        }
+
         application.start();
+
+        if (null == Main.TRACE_REPLAY_PATH) {
+            Main.startControlServer(application);
+        }
+
+        if (null != Main.TRACE_REPLAY_PATH) {
+            Main.replayTrace(application, Main.TRACE_REPLAY_PATH, Main.TRACE_REPLAY_REAL_TIME);
+        }
+    }
+
+    private static void startControlServer(Application application) {
+        final ApplicationControlServer server = new ApplicationControlServer(ApplicationControlServer.getDefaultPath(),
+                application::control);
+
+        server.start();
+
+        // Remove the socket on exit, e.g. after the stop command, or Ctrl+C.
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "hotcorners-control-shutdown"));
+    }
+
+    /**
+     * Send the command to the running instance and print the response.
+     *
+     * @return The exit code.
+     */
+    private static int control(String command) {
+        final ApplicationControlClient client;
+
+        try {
+            client = new ApplicationControlClient();
+        } catch (IllegalStateException e) {
+            System.out.printf("Control: %s" + Main.NEW_LINE, e.getMessage());
+
+            return 2;
+        }
+
+        try {
+            final String response = client.send(command);
+
+            System.out.println(response);
+
+            return ApplicationControlClient.isError(response) ? 1 : 0;
+        } catch (IOException e) {
+            System.out.printf("Control: No running instance (see '%s'): %s" + Main.NEW_LINE, client.getPath(), e);
+
+            return 2;
+        }
+    }
+
+    private static void recordTrace(Application application, Path path) {
+        final PointerTraceRecorder recorder;
+
+        try {
+            recorder = new PointerTraceRecorder(path);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        application.getMouseMotionObserver()
+                .addMouseMotionSampleListener(recorder);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+
+            System.out.printf("Trace: Recorded %d samples to '%s'." + Main.NEW_LINE, recorder.size(), path);
+        }, "hotcorners-trace"));
+    }
+
+    private static void replayTrace(Application application, Path path, boolean realTime) {
+        try (PointerTraceReader reader = new PointerTraceReader(path)) {
+            System.out.printf("Trace: Replay %d samples of %dms from '%s'..." + Main.NEW_LINE,
+                    reader.size(), reader.getDuration() / 1_000_000L, path);
+
+            final long start = System.nanoTime();
+            final int count = reader.replay(application.getMouseMotionObserver(), realTime);
+
+            System.out.printf("Trace: Replayed %d samples in %dms." + Main.NEW_LINE,
+                    count, (System.nanoTime() - start) / 1_000_000L);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            application.stop();
+        }
     }
 
     private static ApplicationConfiguration getApplicationConfiguration(String[] args) {
@@ -60,7 +217,7 @@ final public class Main {
             for (int i = 0; i < args.length; i++) {
                 switch (args[i]) {
                     case "--run-configuration-calculation" -> {
-                        System.out.println("Argument: Run configuration calculation based on primary screen size...");
+                        System.out.println("Argument: Run configuration calculation based on the size of each screen...");
 
                         configuration = new ApplicationConfigurationCalculation();
                     }
@@ -78,6 +235,39 @@ final public class Main {
                         System.out.println("Argument: Activate verbose mode...");
 
                         Main.VERBOSE_MODE = true;
+
+                        ApplicationLogger.getInstance()
+                                .setLevel(ApplicationLogger.DEBUG);
+                    }
+                    case "--simulate" -> {
+                        System.out.println("Argument: Simulate mouse movement and keystrokes...");
+
+                        Main.SIMULATION_MODE = true;
+                    }
+                    case "--record-trace" -> {
+                        System.out.println("Argument: Record mouse movement to trace file...");
+
+                        Main.TRACE_RECORD_PATH = Path.of(Main.getArgumentValue(args, ++i));
+                    }
+                    case "--replay-trace", "--replay-trace-fast" -> {
+                        System.out.println("Argument: Replay mouse movement from trace file...");
+
+                        Main.TRACE_REPLAY_REAL_TIME = "--replay-trace".equals(args[i]);
+                        Main.TRACE_REPLAY_PATH = Path.of(Main.getArgumentValue(args, ++i));
+                    }
+                    case "--control" -> {
+                        System.out.println("Argument: Send command to the running instance...");
+
+                        // All remaining arguments are the command, e.g. "--control profile docked".
+                        Main.getArgumentValue(args, i + 1);
+                        Main.CONTROL_COMMAND = String.join(" ", Arrays.copyOfRange(args, i + 1, args.length));
+
+                        i = args.length;
+                    }
+                    case "--profile" -> {
+                        System.out.println("Argument: Start with profile...");
+
+                        Main.PROFILE = Main.getArgumentValue(args, ++i);
                     }
                     default -> {
                         System.out.printf("Argument: Unknown: '%s'!" + Main.NEW_LINE, args[i]);
@@ -95,7 +285,19 @@ final public class Main {
         return configuration;
     }
 
+    private static String getArgumentValue(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException(String.format("Missing value for argument '%s'!", args[i - 1]));
+        }
+
+        return args[i];
+    }
+
     public static boolean isVerboseMode() {
         return Main.VERBOSE_MODE;
     }
+
+    public static boolean isSimulationMode() {
+        return Main.SIMULATION_MODE;
+    }
 }
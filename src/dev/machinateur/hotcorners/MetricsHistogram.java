@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A low-overhead histogram with eight buckets per power of two, i.e. a relative precision of 12.5%. Recording a value
+ * is a handful of plain array operations, without any lock or compare-and-swap.
+ * <p>
+ * Meant for a single writer thread, while any other thread may read.
+ */
+final public class MetricsHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+
+    private static final int SUB_BUCKET_COUNT = 1 << MetricsHistogram.SUB_BUCKET_BITS;
+
+    private static final int BUCKET_COUNT
+            = (Long.SIZE - MetricsHistogram.SUB_BUCKET_BITS + 1) * MetricsHistogram.SUB_BUCKET_COUNT;
+
+    private static final int INDEX_COUNT = MetricsHistogram.BUCKET_COUNT;
+
+    private static final int INDEX_SUM = MetricsHistogram.BUCKET_COUNT + 1;
+
+    private static final int INDEX_MAXIMUM = MetricsHistogram.BUCKET_COUNT + 2;
+
+    /**
+     * The buckets, followed by the count, sum and maximum of all values.
+     */
+    private final AtomicLongArray array;
+
+    public MetricsHistogram() {
+        this.array = new AtomicLongArray(MetricsHistogram.BUCKET_COUNT + 3);
+    }
+
+    /**
+     * Record the value, any negative value is recorded as {@code 0}.
+     *
+     * @param value The value.
+     */
+    public void record(long value) {
+        final AtomicLongArray array = this.array;
+        value = Math.max(0L, value);
+
+        final int bucket = MetricsHistogram.getBucket(value);
+
+        array.lazySet(bucket, array.get(bucket) + 1);
+        array.lazySet(MetricsHistogram.INDEX_COUNT, array.get(MetricsHistogram.INDEX_COUNT) + 1);
+        array.lazySet(MetricsHistogram.INDEX_SUM, array.get(MetricsHistogram.INDEX_SUM) + value);
+
+        if (value > array.get(MetricsHistogram.INDEX_MAXIMUM)) {
+            array.lazySet(MetricsHistogram.INDEX_MAXIMUM, value);
+        }
+    }
+
+    /**
+     * Get the bucket of the value: Values below the sub-bucket count have a bucket each, all others are split by the
+     * position of their highest bit and the sub-bucket bits following it.
+     */
+    private static int getBucket(long value) {
+        if (value < MetricsHistogram.SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - MetricsHistogram.SUB_BUCKET_BITS;
+
+        return (shift + 1) * MetricsHistogram.SUB_BUCKET_COUNT + (int) (value >>> shift) - MetricsHistogram.SUB_BUCKET_COUNT;
+    }
+
+    private static long getBucketUpperBound(int bucket) {
+        if (bucket < MetricsHistogram.SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+
+        final int shift = bucket / MetricsHistogram.SUB_BUCKET_COUNT - 1;
+        final long lower = (long) (MetricsHistogram.SUB_BUCKET_COUNT + bucket % MetricsHistogram.SUB_BUCKET_COUNT) << shift;
+
+        return lower + ((1L << shift) - 1);
+    }
+
+    public long getCount() {
+        return this.array.get(MetricsHistogram.INDEX_COUNT);
+    }
+
+    public long getMaximum() {
+        return this.array.get(MetricsHistogram.INDEX_MAXIMUM);
+    }
+
+    public double getMean() {
+        final long count = this.getCount();
+
+        return 0 == count ? 0d : (double) this.array.get(MetricsHistogram.INDEX_SUM) / count;
+    }
+
+    /**
+     * Get the approximate percentile, i.e. the upper bound of the bucket it falls into.
+     *
+     * @param percentile The percentile, from {@code 0} to {@code 100}.
+     * @return The value.
+     */
+    public long getPercentile(double percentile) {
+        final long count = this.getCount();
+
+        if (0 == count) {
+            return 0L;
+        }
+
+        final long rank = (long) Math.ceil(count * percentile / 100d);
+        long sum = 0L;
+
+        for (int bucket = 0; bucket < MetricsHistogram.BUCKET_COUNT; bucket++) {
+            sum += this.array.get(bucket);
+
+            if (sum >= rank) {
+                return Math.min(MetricsHistogram.getBucketUpperBound(bucket), this.getMaximum());
+            }
+        }
+
+        return this.getMaximum();
+    }
+}
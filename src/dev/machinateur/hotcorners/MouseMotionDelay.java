@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+/**
+ * The polling delay of the {@link MouseMotionObserver}. This implementation always uses the same, fixed delay. A delay
+ * of {@code 0} polls as fast as possible, which is only useful with a synthetic {@link PointerSource}.
+ */
+public class MouseMotionDelay {
+
+    protected volatile int delay;
+
+    public MouseMotionDelay(int delay) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Delay must not be negative!");
+        }
+
+        this.delay = delay;
+    }
+
+    /**
+     * Get the delay to wait before taking the next sample.
+     *
+     * @param x     The x coordinate of the last sample.
+     * @param y     The y coordinate of the last sample.
+     * @param moved Whether the last sample differs from the one before.
+     * @return The delay in milliseconds.
+     */
+    public int getDelay(int x, int y, boolean moved) {
+        return this.delay;
+    }
+
+    public int getInitialDelay() {
+        return this.delay;
+    }
+
+    /**
+     * Change the delay, which takes effect after the next sample. Can be called from any thread.
+     *
+     * @param delay The delay in milliseconds.
+     */
+    public void setDelay(int delay) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Delay must not be negative!");
+        }
+
+        this.delay = delay;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+/**
+ * An adaptive polling delay, based on the proximity of the pointer to the nearest area. The delay is at its maximum
+ * when the pointer did not move or is further away than the range from any area, and decreases linearly to the
+ * minimum as the pointer gets closer.
+ */
+public class MouseMotionDelayAdaptive extends MouseMotionDelay {
+
+    private final int maximum;
+
+    private final int range;
+
+    private volatile AreaTable areaTable;
+
+    /**
+     * @param areaTable The areas to measure the proximity against.
+     * @param minimum   The minimum delay in milliseconds, used right at (or inside) an area.
+     * @param maximum   The maximum delay in milliseconds, used when idle or far from all areas.
+     * @param range     The distance in pixels, from which on the delay starts to decrease.
+     */
+    public MouseMotionDelayAdaptive(AreaTable areaTable, int minimum, int maximum, int range) {
+        super(minimum);
+
+        if (maximum < minimum) {
+            throw new IllegalArgumentException("Maximum delay must not be less than the minimum delay!");
+        }
+        if (range < 1) {
+            throw new IllegalArgumentException("Range must be at least 1px!");
+        }
+
+        this.maximum = maximum;
+        this.range = range;
+        this.areaTable = areaTable;
+    }
+
+    @Override
+    public int getDelay(int x, int y, boolean moved) {
+        if (!moved) {
+            return this.maximum;
+        }
+
+        final int distance = this.areaTable.distance(x, y, this.range);
+        final int minimum = this.delay;
+
+        return minimum + (int) ((long) (this.maximum - minimum) * distance / this.range);
+    }
+
+    /**
+     * Change the minimum delay, see {@link MouseMotionDelay#setDelay(int)}.
+     *
+     * @param delay The minimum delay in milliseconds, not more than the maximum one.
+     */
+    @Override
+    public void setDelay(int delay) {
+        if (delay > this.maximum) {
+            throw new IllegalArgumentException("Minimum delay must not be more than the maximum delay!");
+        }
+
+        super.setDelay(delay);
+    }
+
+    @Override
+    public int getInitialDelay() {
+        return this.maximum;
+    }
+
+    public int getMinimum() {
+        return this.delay;
+    }
+
+    public int getMaximum() {
+        return this.maximum;
+    }
+
+    public int getRange() {
+        return this.range;
+    }
+
+    public void setAreaTable(AreaTable areaTable) {
+        this.areaTable = areaTable;
+    }
+}
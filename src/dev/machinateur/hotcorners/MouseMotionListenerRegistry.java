@@ -0,0 +1,183 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EventListener;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The listeners of a {@link MouseMotionObserver}, kept as an immutable snapshot array, that is replaced as a whole by
+ * compare-and-set on every change (copy-on-write). Dispatch reads the snapshot once and never waits for a registration
+ * in progress, and the other way around.
+ * <p>
+ * Listeners are notified by descending priority, and in order of registration for equal priority. A listener throwing
+ * an exception is reported, but does not keep the remaining listeners from being notified.
+ */
+final public class MouseMotionListenerRegistry {
+
+    public static final int DEFAULT_PRIORITY = 0;
+
+    private static final Registration[] EMPTY_REGISTRATION_ARRAY = new Registration[0];
+
+    private static final Comparator<Registration> REGISTRATION_ORDER
+            = Comparator.comparingInt((Registration registration) -> -registration.priority)
+            .thenComparingLong(registration -> registration.order);
+
+    private final AtomicReference<Registration[]> registrationReference
+            = new AtomicReference<Registration[]>(MouseMotionListenerRegistry.EMPTY_REGISTRATION_ARRAY);
+
+    private final AtomicLong orderSequence = new AtomicLong();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    /**
+     * Add the listener, unless the key is already registered.
+     *
+     * @param key      The key to identify the listener by, i.e. the listener as given by the caller.
+     * @param listener The listener to notify, which may be an adapter for the key.
+     * @param priority The priority, higher ones are notified first.
+     * @return Whether the listener was added.
+     */
+    public boolean add(EventListener key, MouseMotionSampleListener listener, int priority) {
+        final Registration registration = new Registration(key, listener, priority, this.orderSequence.getAndIncrement());
+        Registration[] registrationArray;
+        Registration[] updatedArray;
+
+        do {
+            registrationArray = this.registrationReference.get();
+
+            if (MouseMotionListenerRegistry.indexOf(registrationArray, key) >= 0) {
+                return false;
+            }
+
+            updatedArray = Arrays.copyOf(registrationArray, registrationArray.length + 1);
+            updatedArray[registrationArray.length] = registration;
+
+            Arrays.sort(updatedArray, MouseMotionListenerRegistry.REGISTRATION_ORDER);
+        } while (!this.registrationReference.compareAndSet(registrationArray, updatedArray));
+
+        return true;
+    }
+
+    /**
+     * @param key The key the listener was added with.
+     * @return Whether the listener was removed.
+     */
+    public boolean remove(EventListener key) {
+        Registration[] registrationArray;
+        Registration[] updatedArray;
+
+        do {
+            registrationArray = this.registrationReference.get();
+
+            final int index = MouseMotionListenerRegistry.indexOf(registrationArray, key);
+
+            if (index < 0) {
+                return false;
+            }
+
+            updatedArray = new Registration[registrationArray.length - 1];
+
+            System.arraycopy(registrationArray, 0, updatedArray, 0, index);
+            System.arraycopy(registrationArray, index + 1, updatedArray, index, updatedArray.length - index);
+        } while (!this.registrationReference.compareAndSet(registrationArray, updatedArray));
+
+        return true;
+    }
+
+    private static int indexOf(Registration[] registrationArray, EventListener key) {
+        for (int i = 0; i < registrationArray.length; i++) {
+            if (registrationArray[i].key == key) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    public boolean contains(EventListener key) {
+        return MouseMotionListenerRegistry.indexOf(this.registrationReference.get(), key) >= 0;
+    }
+
+    public int size() {
+        return this.registrationReference.get().length;
+    }
+
+    /**
+     * @return The number of times any listener failed with an exception.
+     */
+    public long getFailureCount() {
+        return this.failureCount.sum();
+    }
+
+    public void fireMouseMoved(long nanos, int x, int y) {
+        for (final Registration registration : this.registrationReference.get()) {
+            try {
+                registration.listener.mouseMoved(nanos, x, y);
+            } catch (RuntimeException e) {
+                this.fail(registration, e);
+            }
+        }
+    }
+
+    public void fireMouseStill(long nanos, int x, int y) {
+        for (final Registration registration : this.registrationReference.get()) {
+            try {
+                registration.listener.mouseStill(nanos, x, y);
+            } catch (RuntimeException e) {
+                this.fail(registration, e);
+            }
+        }
+    }
+
+    private void fail(Registration registration, RuntimeException e) {
+        this.failureCount.increment();
+
+        ApplicationLogger.getInstance()
+                .log(ApplicationLogger.ERROR, "Event: Listener %s failed: %s", registration.key, e);
+    }
+
+    private static final class Registration {
+
+        private final EventListener key;
+
+        private final MouseMotionSampleListener listener;
+
+        private final int priority;
+
+        private final long order;
+
+        private Registration(EventListener key, MouseMotionSampleListener listener, int priority, long order) {
+            this.key = key;
+            this.listener = listener;
+            this.priority = priority;
+            this.order = order;
+        }
+    }
+}
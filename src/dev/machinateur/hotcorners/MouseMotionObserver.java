@@ -24,89 +24,244 @@
 
 package dev.machinateur.hotcorners;
 
-import javax.swing.Timer;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.event.MouseMotionListener;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.function.Function;
 
-final public class MouseMotionObserver implements ActionListener {
-    private final int delay;
+final public class MouseMotionObserver {
+    private final MouseMotionDelay delay;
 
-    private final Timer timer;
+    private final MouseMotionScheduler scheduler;
 
     private final Component source;
 
-    private final Set<MouseMotionListener> listenerSet;
+    private final PointerSource pointerSource;
 
-    private Point point;
+    /**
+     * The reusable location to read the pointer source into.
+     */
+    private final Point location;
 
-    public MouseMotionObserver(Component source, int delay) {
+    /**
+     * The listeners, which can be changed at any time without waiting for the sampler, see
+     * {@link MouseMotionListenerRegistry}.
+     */
+    private final MouseMotionListenerRegistry listenerRegistry;
+
+    /**
+     * The stages from the source to the listeners, see {@link MouseMotionPipeline}.
+     */
+    private final MouseMotionPipeline pipeline;
+
+    private final MouseMotionStageFilter filter;
+
+    private int effectiveDelay;
+
+    /**
+     * The delay while armed, i.e. while an area is about to be entered, or {@code -1} if not armed.
+     */
+    private volatile int armedDelay;
+
+    private ApplicationMetrics metrics;
+
+    /**
+     * @param source        The source of any {@link MouseMotionEvent}.
+     * @param pointerSource The source of the pointer locations to poll.
+     * @param delay         The polling delay.
+     * @param threaded      Whether to poll on a dedicated thread (see {@link MouseMotionSchedulerThread}) or on the
+     *                      event dispatch thread (see {@link MouseMotionSchedulerTimer}).
+     */
+    public MouseMotionObserver(Component source, PointerSource pointerSource, MouseMotionDelay delay, boolean threaded) {
+        this(source, pointerSource, delay, threaded
+                ? MouseMotionSchedulerThread::new
+                : MouseMotionSchedulerTimer::new);
+    }
+
+    /**
+     * @param source           The source of any {@link MouseMotionEvent}.
+     * @param pointerSource    The source of the pointer locations to poll.
+     * @param delay            The polling delay.
+     * @param schedulerFactory The factory of the scheduler driving this observer, e.g. a
+     *                         {@link MouseMotionSchedulerEvent} for an event source.
+     */
+    public MouseMotionObserver(Component source, PointerSource pointerSource, MouseMotionDelay delay,
+                               Function<MouseMotionObserver, MouseMotionScheduler> schedulerFactory) {
         if (source == null) {
             throw new IllegalArgumentException("Null component not allowed as source!");
         }
 
         this.source = source;
+        this.pointerSource = pointerSource;
+        this.location = new Point();
         this.delay = delay;
+        this.effectiveDelay = delay.getInitialDelay();
+        this.armedDelay = -1;
+
+        this.scheduler = schedulerFactory.apply(this);
+
+        this.listenerRegistry = new MouseMotionListenerRegistry();
 
-        this.timer = new Timer(this.delay, this);
+        this.filter = new MouseMotionStageFilter();
+        this.pipeline = new MouseMotionPipeline();
+        this.pipeline.addStage(MouseMotionPipeline.STAGE_FILTER, this.filter);
+        this.pipeline.addStage(MouseMotionPipeline.STAGE_DISPATCH, this::dispatch);
+    }
+
+    public MouseMotionObserver(Component source, MouseMotionDelay delay) {
+        this(source, new PointerSourceAwt(), delay, false);
+    }
 
-        this.listenerSet = new HashSet<MouseMotionListener>();
+    public MouseMotionObserver(Component source, int delay) {
+        this(source, new MouseMotionDelay(delay));
     }
 
     public MouseMotionObserver(Component source) {
         this(source, 10);
     }
 
-    @Override
-    public synchronized void actionPerformed(ActionEvent event) {
-        Point point = MouseInfo.getPointerInfo()
-                .getLocation();
+    /**
+     * Take a single sample of the mouse pointer location and determine the delay until the next one.
+     *
+     * @return The delay in milliseconds.
+     */
+    public synchronized int poll() {
+        final Point point = this.location;
+        final long nanos = System.nanoTime();
+
+        if (null != this.metrics) {
+            this.metrics.recordTick(nanos, this.effectiveDelay);
+        }
+
+        final boolean moved = this.pointerSource.getLocation(point)
+                && this.sample(nanos, point.x, point.y);
+        final int armedDelay = this.armedDelay;
+        int delay = this.delay.getDelay(point.x, point.y, moved);
+
+        if (0 <= armedDelay && armedDelay < delay) {
+            delay = armedDelay;
+        }
+
+        if (delay != this.effectiveDelay) {
+            this.effectiveDelay = delay;
+
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.DEBUG, "Delay: Effective delay of %dms (%.1f/s)", delay, this.getEffectiveRate());
+        }
+
+        return delay;
+    }
+
+    /**
+     * Process a single sample, i.e. pass it through the pipeline to all listeners. If the position is unchanged, only
+     * {@link MouseMotionSampleListener#mouseStill(long, int, int)} is called.
+     *
+     * @param nanos The time of the sample, see {@link System#nanoTime()}.
+     * @param x     The x coordinate on the screen.
+     * @param y     The y coordinate on the screen.
+     * @return Whether the position has changed.
+     */
+    public synchronized boolean sample(long nanos, int x, int y) {
+        return this.pipeline.publish(nanos, x, y);
+    }
 
-        if (point.equals(this.point)) {
-            return;
+    private boolean dispatch(MouseMotionSample sample) {
+        if (sample.isMoved()) {
+            this.listenerRegistry.fireMouseMoved(sample.getNanos(), sample.getX(), sample.getY());
         } else {
-            this.point = point;
+            this.listenerRegistry.fireMouseStill(sample.getNanos(), sample.getX(), sample.getY());
         }
 
-        this.fireMouseMotionEvent();
+        return true;
     }
 
     public void start() {
-        this.timer.start();
+        this.pipeline.start();
+        this.scheduler.start();
     }
 
     public void stop() {
-        this.timer.stop();
+        this.scheduler.stop();
+        this.pipeline.stop();
     }
 
     public int getDelay() {
+        return this.delay.getInitialDelay();
+    }
+
+    /**
+     * Arm the observer, so that it samples at the given delay at most, e.g. while an area is predicted to be entered
+     * (see {@link AreaTrigger#setPrediction(int, int)}). Can be called from any thread, and takes effect after the next
+     * sample.
+     *
+     * @param armedDelay The delay in milliseconds, or {@code -1} to disarm.
+     */
+    public void setArmedDelay(int armedDelay) {
+        this.armedDelay = armedDelay;
+    }
+
+    public synchronized void setMetrics(ApplicationMetrics metrics) {
+        this.metrics = metrics;
+        this.filter.setMetrics(metrics);
+    }
+
+    public MouseMotionDelay getMouseMotionDelay() {
         return this.delay;
     }
 
-    public synchronized void addMouseMotionListener(MouseMotionListener listener) {
-        this.listenerSet.add(listener);
+    /**
+     * @return The delay currently in use, in milliseconds.
+     */
+    public synchronized int getEffectiveDelay() {
+        return this.effectiveDelay;
     }
 
-    public synchronized void removeMouseMotionListener(MouseMotionListener listener) {
-        this.listenerSet.remove(listener);
+    /**
+     * @return The sampling rate currently in use, in samples per second.
+     */
+    public synchronized double getEffectiveRate() {
+        return 1000d / this.effectiveDelay;
     }
 
-    private synchronized void fireMouseMotionEventForPoint(Point point) {
-        if (point == null) {
-            point = this.point;
+    /**
+     * Add the listener. Any listener that also implements {@link MouseMotionSampleListener} is notified through the
+     * primitive contract, all others receive a {@link MouseMotionEvent} per sample.
+     *
+     * @param listener The listener to add.
+     * @param priority The priority, higher ones are notified first, see {@link MouseMotionListenerRegistry}.
+     */
+    public void addMouseMotionListener(MouseMotionListener listener, int priority) {
+        if (listener instanceof MouseMotionSampleListener) {
+            this.addMouseMotionSampleListener((MouseMotionSampleListener) listener, priority);
+        } else if (!this.listenerRegistry.contains(listener)) {
+            this.listenerRegistry.add(listener, new MouseMotionListenerAdapter(this.source, listener), priority);
         }
+    }
 
-        for (final MouseMotionListener listener : this.listenerSet) {
-            final MouseMotionEvent event = new MouseMotionEvent(this.source, point);
+    public void addMouseMotionListener(MouseMotionListener listener) {
+        this.addMouseMotionListener(listener, MouseMotionListenerRegistry.DEFAULT_PRIORITY);
+    }
 
-            listener.mouseMoved(event);
-        }
+    public void removeMouseMotionListener(MouseMotionListener listener) {
+        this.listenerRegistry.remove(listener);
+    }
+
+    public void addMouseMotionSampleListener(MouseMotionSampleListener listener, int priority) {
+        this.listenerRegistry.add(listener, listener, priority);
+    }
+
+    public void addMouseMotionSampleListener(MouseMotionSampleListener listener) {
+        this.addMouseMotionSampleListener(listener, MouseMotionListenerRegistry.DEFAULT_PRIORITY);
+    }
+
+    public void removeMouseMotionSampleListener(MouseMotionSampleListener listener) {
+        this.listenerRegistry.remove(listener);
+    }
+
+    public MouseMotionListenerRegistry getListenerRegistry() {
+        return this.listenerRegistry;
     }
 
-    private synchronized void fireMouseMotionEvent() {
-        this.fireMouseMotionEventForPoint(null);
+    public MouseMotionPipeline getPipeline() {
+        return this.pipeline;
     }
 }
@@ -0,0 +1,434 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The stages every sample passes in order, from the source (see {@link MouseMotionObserver#sample(long, int, int)}) to
+ * the listeners: {@link #STAGE_FILTER}, {@link #STAGE_SMOOTHING} (optional), {@link #STAGE_TRIGGER} (the hit-test and
+ * trigger state, which dispatches the actions) and {@link #STAGE_DISPATCH} (the listeners).
+ * <p>
+ * By default, all stages are fused, i.e. run one after the other on the thread of the source. Any stage but the first
+ * can run on its own thread instead, which then also runs all following stages up to the next threaded one. The
+ * threads are connected by a {@link MouseMotionRing} each, so that a slow stage only holds up the source once its queue
+ * is full.
+ * <p>
+ * Each stage publishes its throughput and the depth of the ring in front of it, see {@link ApplicationMetrics}.
+ */
+final public class MouseMotionPipeline {
+
+    public static final String STAGE_FILTER = "filter";
+
+    public static final String STAGE_SMOOTHING = "smoothing";
+
+    public static final String STAGE_TRIGGER = "trigger";
+
+    public static final String STAGE_DISPATCH = "dispatch";
+
+    protected static final int DEFAULT_CAPACITY
+            = 1024;
+
+    protected static final long JOIN_TIMEOUT
+            = 1000L;
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+    private final List<Stage> stageList;
+
+    /**
+     * The sample of the source, reused for every sample.
+     */
+    private final MouseMotionSample sample;
+
+    private int capacity;
+
+    private int wait;
+
+    /**
+     * The segments of fused stages, all in a single one until started.
+     */
+    private volatile Segment[] segmentArray;
+
+    private boolean started;
+
+    public MouseMotionPipeline() {
+        this.stageList = new ArrayList<Stage>();
+        this.sample = new MouseMotionSample();
+        this.capacity = MouseMotionPipeline.DEFAULT_CAPACITY;
+        this.wait = MouseMotionRing.WAIT_BLOCK;
+        this.segmentArray = new Segment[0];
+    }
+
+    public synchronized void addStage(String name, MouseMotionStage stage) {
+        this.addStage(this.stageList.size(), name, stage);
+    }
+
+    /**
+     * Add the stage in front of the next one.
+     *
+     * @param next  The name of the next stage.
+     * @param name  The name of the stage.
+     * @param stage The stage.
+     */
+    public synchronized void addStageBefore(String next, String name, MouseMotionStage stage) {
+        this.addStage(this.indexOf(next), name, stage);
+    }
+
+    private void addStage(int index, String name, MouseMotionStage stage) {
+        if (this.started) {
+            throw new IllegalStateException("Pipeline already started!");
+        }
+        if (this.contains(name)) {
+            throw new IllegalArgumentException(String.format("Duplicate stage '%s'!", name));
+        }
+
+        this.stageList.add(index, new Stage(name, stage));
+        this.segmentArray = this.compile(false);
+    }
+
+    /**
+     * Set whether the stage runs on its own thread, or is fused with the previous one.
+     *
+     * @param name     The name of the stage.
+     * @param threaded Whether to run on its own thread.
+     */
+    public synchronized void setThreaded(String name, boolean threaded) {
+        final int index = this.indexOf(name);
+
+        if (0 == index && threaded) {
+            throw new IllegalArgumentException(String.format("Stage '%s' runs on the source thread!", name));
+        }
+
+        this.stageList.get(index).threaded = threaded;
+    }
+
+    /**
+     * @param capacity The capacity of the ring in front of each threaded stage.
+     */
+    public synchronized void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param wait The wait strategy of each threaded stage, see {@link MouseMotionRing}.
+     */
+    public synchronized void setWait(int wait) {
+        this.wait = wait;
+    }
+
+    private int indexOf(String name) {
+        for (int i = 0; i < this.stageList.size(); i++) {
+            if (this.stageList.get(i).name.equals(name)) {
+                return i;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Unknown stage '%s'!", name));
+    }
+
+    public synchronized boolean contains(String name) {
+        for (Stage stage : this.stageList) {
+            if (stage.name.equals(name)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param threaded Whether to split the stages into segments at each threaded stage, or fuse all of them.
+     */
+    private Segment[] compile(boolean threaded) {
+        final List<Segment> segmentList = new ArrayList<Segment>();
+        int start = 0;
+
+        for (int i = 1; i <= this.stageList.size(); i++) {
+            if (i == this.stageList.size() || threaded && this.stageList.get(i).threaded) {
+                segmentList.add(new Segment(this.stageList.subList(start, i).toArray(new Stage[0]),
+                        segmentList.isEmpty() ? null : new MouseMotionRing(this.capacity, this.wait)));
+
+                start = i;
+            }
+        }
+
+        for (int i = 1; i < segmentList.size(); i++) {
+            segmentList.get(i - 1).next = segmentList.get(i);
+        }
+
+        return segmentList.toArray(new Segment[0]);
+    }
+
+    /**
+     * Start a thread for each threaded stage.
+     */
+    public synchronized void start() {
+        if (this.started) {
+            return;
+        }
+
+        this.started = true;
+
+        final Segment[] segmentArray = this.compile(true);
+
+        for (int i = 1; i < segmentArray.length; i++) {
+            final Segment segment = segmentArray[i];
+
+            segment.running = true;
+            segment.thread = new Thread(segment, "hotcorners-stage-" + segment.stageArray[0].name);
+            segment.thread.setDaemon(true);
+            segment.thread.start();
+
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.INFO, "Pipeline: Stage %s on its own thread (%d samples).",
+                            segment.stageArray[0].name, segment.ring.getCapacity());
+        }
+
+        this.segmentArray = segmentArray;
+    }
+
+    /**
+     * Stop all threads, after each one processed the samples still queued for it.
+     */
+    public void stop() {
+        final Segment[] segmentArray = this.segmentArray;
+
+        for (int i = 1; i < segmentArray.length; i++) {
+            final Segment segment = segmentArray[i];
+
+            segment.running = false;
+
+            LockSupport.unpark(segment.thread);
+
+            try {
+                segment.thread.join(MouseMotionPipeline.JOIN_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                return;
+            }
+        }
+    }
+
+    /**
+     * Pass the sample through all fused stages of the source, and queue it for the next threaded stage, if any. Called
+     * by the source only, i.e. by a single thread at a time.
+     *
+     * @param nanos The time of the sample, see {@link System#nanoTime()}.
+     * @param x     The x coordinate on the screen.
+     * @param y     The y coordinate on the screen.
+     * @return Whether the position has changed, as far as known to the stages of the source (see
+     * {@link MouseMotionStageFilter}).
+     */
+    public boolean publish(long nanos, int x, int y) {
+        final Segment[] segmentArray = this.segmentArray;
+        final MouseMotionSample sample = this.sample;
+
+        sample.set(nanos, x, y, true);
+
+        if (0 < segmentArray.length) {
+            segmentArray[0].process(sample);
+        }
+
+        return sample.isMoved();
+    }
+
+    /**
+     * @return The number of samples processed per stage.
+     */
+    public Map<String, Long> getCountPerStage() {
+        final Map<String, Long> countMap = new TreeMap<String, Long>();
+
+        for (Segment segment : this.segmentArray) {
+            for (Stage stage : segment.stageArray) {
+                countMap.put(stage.name, stage.count);
+            }
+        }
+
+        return countMap;
+    }
+
+    /**
+     * @return The number of samples processed per second per stage, over the last full second.
+     */
+    public Map<String, Long> getRatePerStage() {
+        final Map<String, Long> rateMap = new TreeMap<String, Long>();
+
+        for (Segment segment : this.segmentArray) {
+            for (Stage stage : segment.stageArray) {
+                rateMap.put(stage.name, stage.rate);
+            }
+        }
+
+        return rateMap;
+    }
+
+    /**
+     * @param maximum Whether to get the largest depth so far, or the current one.
+     * @return The number of samples queued in front of each threaded stage.
+     */
+    public Map<String, Long> getQueueDepthPerStage(boolean maximum) {
+        final Map<String, Long> depthMap = new TreeMap<String, Long>();
+
+        for (Segment segment : this.segmentArray) {
+            if (null != segment.ring) {
+                depthMap.put(segment.stageArray[0].name, maximum
+                        ? segment.ring.getMaximumSize()
+                        : segment.ring.size());
+            }
+        }
+
+        return depthMap;
+    }
+
+    /**
+     * @return The number of samples dropped in front of each threaded stage, as its queue stayed full.
+     */
+    public Map<String, Long> getDroppedCountPerStage() {
+        final Map<String, Long> droppedMap = new TreeMap<String, Long>();
+
+        for (Segment segment : this.segmentArray) {
+            if (null != segment.ring) {
+                droppedMap.put(segment.stageArray[0].name, segment.ring.getDroppedCount());
+            }
+        }
+
+        return droppedMap;
+    }
+
+    private static final class Stage {
+
+        private final String name;
+
+        private final MouseMotionStage stage;
+
+        private boolean threaded;
+
+        /**
+         * The counters, only written by the thread running the stage.
+         */
+        private volatile long count;
+
+        private volatile long rate;
+
+        private long windowNanos;
+
+        private long windowCount;
+
+        private Stage(String name, MouseMotionStage stage) {
+            this.name = name;
+            this.stage = stage;
+        }
+
+        private boolean process(MouseMotionSample sample) {
+            final long nanos = sample.getNanos();
+
+            if (0L == this.count) {
+                this.windowNanos = nanos;
+            }
+
+            this.count++;
+            this.windowCount++;
+
+            if (nanos - this.windowNanos >= MouseMotionPipeline.SECOND) {
+                this.rate = this.windowCount;
+                this.windowCount = 0L;
+                this.windowNanos = nanos;
+            }
+
+            return this.stage.process(sample);
+        }
+    }
+
+    private static final class Segment implements Runnable {
+
+        private final Stage[] stageArray;
+
+        /**
+         * The ring in front of the first stage, or {@code null} for the segment of the source.
+         */
+        private final MouseMotionRing ring;
+
+        /**
+         * The sample of the consumer, reused for every sample.
+         */
+        private final MouseMotionSample sample;
+
+        private Segment next;
+
+        private Thread thread;
+
+        private volatile boolean running;
+
+        private Segment(Stage[] stageArray, MouseMotionRing ring) {
+            this.stageArray = stageArray;
+            this.ring = ring;
+            this.sample = new MouseMotionSample();
+        }
+
+        private void process(MouseMotionSample sample) {
+            for (final Stage stage : this.stageArray) {
+                if (!stage.process(sample)) {
+                    return;
+                }
+            }
+
+            if (null != this.next) {
+                this.next.ring.offer(sample);
+            }
+        }
+
+        @Override
+        public void run() {
+            final MouseMotionRing ring = this.ring;
+            final MouseMotionSample sample = this.sample;
+
+            while (true) {
+                if (ring.poll(sample)) {
+                    try {
+                        this.process(sample);
+                    } catch (RuntimeException e) {
+                        ApplicationLogger.getInstance()
+                                .log(ApplicationLogger.ERROR, "Pipeline: Stage failed: %s", e.toString());
+                    }
+
+                    continue;
+                }
+
+                if (!this.running) {
+                    break;
+                }
+
+                ring.await();
+            }
+        }
+    }
+}
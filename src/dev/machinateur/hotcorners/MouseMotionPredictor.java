@@ -0,0 +1,272 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estimates velocity and acceleration of the pointer with an alpha-beta filter, to predict its position a short time
+ * ahead. The last few samples are kept in a small ring of primitives, for the acceleration (from the oldest to the
+ * newest velocity) and for the confidence of the prediction (from the residuals, i.e. how far each sample was off the
+ * position the filter expected for it).
+ * <p>
+ * Not thread-safe, it's meant to be driven by the trigger stage only.
+ */
+final public class MouseMotionPredictor {
+
+    /**
+     * The number of samples kept, a power of two.
+     */
+    protected static final int HISTORY
+            = 8;
+
+    /**
+     * The number of samples needed before any prediction is confident at all.
+     */
+    protected static final int HISTORY_MINIMUM
+            = 4;
+
+    /**
+     * The gain of the position, critically damped together with {@link #BETA}.
+     */
+    protected static final double ALPHA
+            = 0.5d;
+
+    protected static final double BETA
+            = MouseMotionPredictor.ALPHA * MouseMotionPredictor.ALPHA / (2d - MouseMotionPredictor.ALPHA);
+
+    /**
+     * The gap between two samples in milliseconds, after which the motion starts over.
+     */
+    protected static final long GAP
+            = 100L;
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    private final long[] nanosArray;
+
+    private final double[] velocityXArray;
+
+    private final double[] velocityYArray;
+
+    private final double[] residualArray;
+
+    private final double[] stepArray;
+
+    private long count;
+
+    private double x;
+
+    private double y;
+
+    /**
+     * The velocity in pixels per millisecond.
+     */
+    private double velocityX;
+
+    private double velocityY;
+
+    private int predictedX;
+
+    private int predictedY;
+
+    public MouseMotionPredictor() {
+        this.nanosArray = new long[MouseMotionPredictor.HISTORY];
+        this.velocityXArray = new double[MouseMotionPredictor.HISTORY];
+        this.velocityYArray = new double[MouseMotionPredictor.HISTORY];
+        this.residualArray = new double[MouseMotionPredictor.HISTORY];
+        this.stepArray = new double[MouseMotionPredictor.HISTORY];
+    }
+
+    /**
+     * Process a sample.
+     *
+     * @param nanos The time of the sample, see {@link System#nanoTime()}.
+     * @param x     The x coordinate on the screen.
+     * @param y     The y coordinate on the screen.
+     */
+    public void update(long nanos, int x, int y) {
+        final int mask = MouseMotionPredictor.HISTORY - 1;
+        final long last = 0L == this.count ? nanos : this.nanosArray[(int) ((this.count - 1) & mask)];
+        final double dt = (nanos - last) / MouseMotionPredictor.NANOS_PER_MILLI;
+
+        if (0L == this.count || dt > MouseMotionPredictor.GAP || dt <= 0d) {
+            if (0L != this.count && dt <= 0d) {
+                // Same time as the last sample (e.g. a replay), so there's nothing to learn from it.
+                return;
+            }
+
+            this.reset();
+            this.x = x;
+            this.y = y;
+            this.record(nanos, 0d, 0d);
+
+            return;
+        }
+
+        // Predict the position for this sample, then correct position and velocity by the residual.
+        final double expectedX = this.x + this.velocityX * dt;
+        final double expectedY = this.y + this.velocityY * dt;
+        final double residualX = x - expectedX;
+        final double residualY = y - expectedY;
+
+        this.x = expectedX + MouseMotionPredictor.ALPHA * residualX;
+        this.y = expectedY + MouseMotionPredictor.ALPHA * residualY;
+        this.velocityX += MouseMotionPredictor.BETA * residualX / dt;
+        this.velocityY += MouseMotionPredictor.BETA * residualY / dt;
+
+        this.record(nanos, Math.hypot(residualX, residualY), Math.hypot(this.velocityX, this.velocityY) * dt);
+    }
+
+    private void record(long nanos, double residual, double step) {
+        final int index = (int) (this.count++ & (MouseMotionPredictor.HISTORY - 1));
+
+        this.nanosArray[index] = nanos;
+        this.velocityXArray[index] = this.velocityX;
+        this.velocityYArray[index] = this.velocityY;
+        this.residualArray[index] = residual;
+        this.stepArray[index] = step;
+    }
+
+    /**
+     * Forget the motion, e.g. after the pointer jumped.
+     */
+    public void reset() {
+        this.count = 0L;
+        this.velocityX = 0d;
+        this.velocityY = 0d;
+    }
+
+    /**
+     * Get the confidence of a prediction, from {@code 0} (none) to {@code 1} (the motion is perfectly steady). It's the
+     * share of the mean step between two samples, that the residuals (as root mean square) do not account for. A short
+     * history has no confidence at all.
+     *
+     * @return The confidence.
+     */
+    public double getConfidence() {
+        final int size = (int) Math.min(this.count - 1, MouseMotionPredictor.HISTORY);
+
+        if (size < MouseMotionPredictor.HISTORY_MINIMUM) {
+            return 0d;
+        }
+
+        double residualSum = 0d;
+        double stepSum = 0d;
+
+        for (int i = 1; i <= size; i++) {
+            final int index = (int) ((this.count - i) & (MouseMotionPredictor.HISTORY - 1));
+
+            residualSum += this.residualArray[index] * this.residualArray[index];
+            stepSum += this.stepArray[index];
+        }
+
+        final double step = stepSum / size;
+
+        // A pointer moving less than a pixel per sample has no direction worth predicting.
+        if (step < 1d) {
+            return 0d;
+        }
+
+        return Math.max(0d, 1d - Math.sqrt(residualSum / size) / step);
+    }
+
+    /**
+     * Predict the position after the horizon. The acceleration along the direction of motion is taken into account,
+     * so that a decelerating pointer is predicted to stop early, but any acceleration sideways is not.
+     *
+     * @param horizonNanos The time from the last sample in nanoseconds.
+     * @see #getPredictedX()
+     * @see #getPredictedY()
+     */
+    public void predict(long horizonNanos) {
+        final double speed = Math.hypot(this.velocityX, this.velocityY);
+
+        if (0d == speed) {
+            this.predictedX = (int) Math.round(this.x);
+            this.predictedY = (int) Math.round(this.y);
+
+            return;
+        }
+
+        final double acceleration = (this.getAccelerationX() * this.velocityX
+                + this.getAccelerationY() * this.velocityY) / speed;
+        double horizon = horizonNanos / MouseMotionPredictor.NANOS_PER_MILLI;
+
+        if (acceleration < 0d) {
+            horizon = Math.min(horizon, speed / -acceleration);
+        }
+
+        final double distance = Math.max(0d, speed * horizon + 0.5d * acceleration * horizon * horizon);
+
+        this.predictedX = (int) Math.round(this.x + this.velocityX / speed * distance);
+        this.predictedY = (int) Math.round(this.y + this.velocityY / speed * distance);
+    }
+
+    /**
+     * @return The acceleration in pixels per square millisecond, from the oldest velocity kept to the newest one.
+     */
+    public double getAccelerationX() {
+        return this.getAcceleration(this.velocityXArray);
+    }
+
+    public double getAccelerationY() {
+        return this.getAcceleration(this.velocityYArray);
+    }
+
+    private double getAcceleration(double[] velocityArray) {
+        final int mask = MouseMotionPredictor.HISTORY - 1;
+        final int size = (int) Math.min(this.count, MouseMotionPredictor.HISTORY);
+
+        if (size < 2) {
+            return 0d;
+        }
+
+        final int first = (int) ((this.count - size) & mask);
+        final int last = (int) ((this.count - 1) & mask);
+        final double dt = (this.nanosArray[last] - this.nanosArray[first]) / MouseMotionPredictor.NANOS_PER_MILLI;
+
+        return (velocityArray[last] - velocityArray[first]) / dt;
+    }
+
+    /**
+     * @return The velocity in pixels per millisecond.
+     */
+    public double getVelocityX() {
+        return this.velocityX;
+    }
+
+    public double getVelocityY() {
+        return this.velocityY;
+    }
+
+    public int getPredictedX() {
+        return this.predictedX;
+    }
+
+    public int getPredictedY() {
+        return this.predictedY;
+    }
+}
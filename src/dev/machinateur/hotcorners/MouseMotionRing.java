@@ -0,0 +1,255 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded, preallocated ring buffer of samples between exactly one producer thread and one consumer thread, see
+ * {@link MouseMotionPipeline}. Neither side ever locks or allocates. When the ring is full, the producer waits for
+ * the consumer to catch up, but only up to the {@link #OFFER_TIMEOUT}, after which the sample is dropped. So the
+ * producer (usually the sampler) is slowed down to the pace of the consumer, but never stuck behind it.
+ * <p>
+ * The consumer waits for the next sample by one of the wait strategies: {@link #WAIT_SPIN} for the lowest latency at
+ * the cost of a busy core, {@link #WAIT_YIELD}, {@link #WAIT_SLEEP} to poll in short intervals, or {@link #WAIT_BLOCK}
+ * to be woken up by the producer.
+ */
+final public class MouseMotionRing {
+
+    public static final int WAIT_SPIN = 0;
+
+    public static final int WAIT_YIELD = 1;
+
+    public static final int WAIT_SLEEP = 2;
+
+    public static final int WAIT_BLOCK = 3;
+
+    protected static final long SLEEP_NANOS
+            = TimeUnit.MICROSECONDS.toNanos(100L);
+
+    /**
+     * The longest time the producer waits for space, before the sample is dropped.
+     */
+    protected static final long OFFER_TIMEOUT
+            = TimeUnit.MILLISECONDS.toNanos(100L);
+
+    /**
+     * The longest time to block, after which the consumer checks for the end of the pipeline anyway.
+     */
+    protected static final long BLOCK_NANOS
+            = TimeUnit.MILLISECONDS.toNanos(100L);
+
+    private final int wait;
+
+    private final int mask;
+
+    private final long[] nanosArray;
+
+    private final int[] xArray;
+
+    private final int[] yArray;
+
+    private final boolean[] movedArray;
+
+    /**
+     * The sequence of the next sample to write, only written by the producer.
+     */
+    private final AtomicLong head;
+
+    /**
+     * The sequence of the next sample to read, only written by the consumer.
+     */
+    private final AtomicLong tail;
+
+    private volatile Thread consumer;
+
+    private volatile boolean waiting;
+
+    private volatile long maximumSize;
+
+    private volatile long droppedCount;
+
+    /**
+     * @param capacity The capacity, rounded up to the next power of two.
+     * @param wait     The wait strategy of the consumer.
+     */
+    public MouseMotionRing(int capacity, int wait) {
+        if (capacity < 1 || capacity > 1 << 20) {
+            throw new IllegalArgumentException(String.format("Invalid capacity %d!", capacity));
+        }
+        if (wait < MouseMotionRing.WAIT_SPIN || wait > MouseMotionRing.WAIT_BLOCK) {
+            throw new IllegalArgumentException(String.format("Invalid wait strategy %d!", wait));
+        }
+
+        capacity = 1 == capacity ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+
+        this.wait = wait;
+        this.mask = capacity - 1;
+        this.nanosArray = new long[capacity];
+        this.xArray = new int[capacity];
+        this.yArray = new int[capacity];
+        this.movedArray = new boolean[capacity];
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+    }
+
+    /**
+     * @param value The wait strategy by name, i.e. {@code spin}, {@code yield}, {@code sleep} or {@code block}.
+     * @return The wait strategy.
+     */
+    public static int parseWait(String value) {
+        return switch (value.trim().toLowerCase()) {
+            case "spin" -> MouseMotionRing.WAIT_SPIN;
+            case "yield" -> MouseMotionRing.WAIT_YIELD;
+            case "sleep" -> MouseMotionRing.WAIT_SLEEP;
+            case "block" -> MouseMotionRing.WAIT_BLOCK;
+            default -> throw new IllegalArgumentException(String.format("Unknown wait strategy '%s'!", value));
+        };
+    }
+
+    /**
+     * Write the sample. Called by the producer only.
+     *
+     * @param sample The sample.
+     * @return Whether the sample was written, {@code false} if the ring stayed full.
+     */
+    public boolean offer(MouseMotionSample sample) {
+        final long head = this.head.get();
+        long size = head - this.tail.get();
+
+        if (size > this.mask) {
+            final long deadline = System.nanoTime() + MouseMotionRing.OFFER_TIMEOUT;
+
+            while ((size = head - this.tail.get()) > this.mask) {
+                if (System.nanoTime() - deadline > 0L) {
+                    this.droppedCount++;
+
+                    return false;
+                }
+
+                Thread.yield();
+            }
+        }
+
+        final int index = (int) head & this.mask;
+
+        this.nanosArray[index] = sample.getNanos();
+        this.xArray[index] = sample.getX();
+        this.yArray[index] = sample.getY();
+        this.movedArray[index] = sample.isMoved();
+
+        if (size + 1 > this.maximumSize) {
+            this.maximumSize = size + 1;
+        }
+
+        if (MouseMotionRing.WAIT_BLOCK == this.wait) {
+            // A full fence, so that the consumer is either seen waiting or sees the sample before it parks.
+            this.head.set(head + 1);
+
+            if (this.waiting) {
+                LockSupport.unpark(this.consumer);
+            }
+        } else {
+            this.head.lazySet(head + 1);
+        }
+
+        return true;
+    }
+
+    /**
+     * Read the next sample. Called by the consumer only.
+     *
+     * @param sample The sample to read into.
+     * @return Whether a sample was read, {@code false} if the ring is empty.
+     */
+    public boolean poll(MouseMotionSample sample) {
+        final long tail = this.tail.get();
+
+        if (tail == this.head.get()) {
+            return false;
+        }
+
+        final int index = (int) tail & this.mask;
+
+        sample.set(this.nanosArray[index], this.xArray[index], this.yArray[index], this.movedArray[index]);
+
+        this.tail.lazySet(tail + 1);
+
+        return true;
+    }
+
+    /**
+     * Wait for the next sample by the wait strategy, or until woken up. Called by the consumer only, when the ring
+     * was empty. May return early.
+     */
+    public void await() {
+        switch (this.wait) {
+            case MouseMotionRing.WAIT_SPIN -> Thread.onSpinWait();
+            case MouseMotionRing.WAIT_YIELD -> Thread.yield();
+            case MouseMotionRing.WAIT_SLEEP -> LockSupport.parkNanos(this, MouseMotionRing.SLEEP_NANOS);
+            default -> {
+                this.consumer = Thread.currentThread();
+                this.waiting = true;
+
+                if (this.isEmpty()) {
+                    LockSupport.parkNanos(this, MouseMotionRing.BLOCK_NANOS);
+                }
+
+                this.waiting = false;
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return this.tail.get() == this.head.get();
+    }
+
+    /**
+     * @return The number of samples currently queued.
+     */
+    public int size() {
+        return (int) (this.head.get() - this.tail.get());
+    }
+
+    public int getCapacity() {
+        return this.mask + 1;
+    }
+
+    /**
+     * @return The largest number of samples queued at a time. Written by the producer only.
+     */
+    public long getMaximumSize() {
+        return this.maximumSize;
+    }
+
+    /**
+     * @return The number of samples dropped, as the ring stayed full. Written by the producer only.
+     */
+    public long getDroppedCount() {
+        return this.droppedCount;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+/**
+ * A single mouse pointer sample, as passed through the stages of a {@link MouseMotionPipeline}. Instances are reused
+ * for every sample, so a stage must never retain one.
+ */
+final public class MouseMotionSample {
+
+    private long nanos;
+
+    private int x;
+
+    private int y;
+
+    private boolean moved;
+
+    public void set(long nanos, int x, int y, boolean moved) {
+        this.nanos = nanos;
+        this.x = x;
+        this.y = y;
+        this.moved = moved;
+    }
+
+    public void setPosition(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public void setMoved(boolean moved) {
+        this.moved = moved;
+    }
+
+    /**
+     * @return The time of the sample, see {@link System#nanoTime()}.
+     */
+    public long getNanos() {
+        return this.nanos;
+    }
+
+    public int getX() {
+        return this.x;
+    }
+
+    public int getY() {
+        return this.y;
+    }
+
+    /**
+     * @return Whether the position has changed since the last sample.
+     */
+    public boolean isMoved() {
+        return this.moved;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.util.EventListener;
+
+/**
+ * The primitive listener contract for mouse motion, which receives the raw sample instead of a full
+ * {@link java.awt.event.MouseEvent}. Implementations should not allocate, as it is called for every sample.
+ */
+public interface MouseMotionSampleListener extends EventListener {
+
+    /**
+     * Invoked when the mouse has moved.
+     *
+     * @param nanos The time of the sample, see {@link System#nanoTime()}.
+     * @param x     The x coordinate on the screen.
+     * @param y     The y coordinate on the screen.
+     */
+    void mouseMoved(long nanos, int x, int y);
+
+    /**
+     * Invoked when the mouse has not moved since the last sample. Does nothing by default.
+     *
+     * @param nanos The time of the sample, see {@link System#nanoTime()}.
+     * @param x     The x coordinate on the screen.
+     * @param y     The y coordinate on the screen.
+     */
+    default void mouseStill(long nanos, int x, int y) {
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A scheduler driven by the reports of an event source (see {@link PointerSourceEvdev}), instead of a fixed delay.
+ * Each report is sampled right away. After the last report, sampling continues with the delay for the idle time only,
+ * so that the areas still see the pointer resting (e.g. for their dwell time), and then stops until the next report.
+ * So while the mouse is not moved, the sampler does not wake up at all.
+ */
+final public class MouseMotionSchedulerEvent implements MouseMotionScheduler, Runnable {
+
+    private final MouseMotionObserver observer;
+
+    private final PointerSourceEvdev source;
+
+    private final long idleNanos;
+
+    private volatile Thread thread;
+
+    /**
+     * @param observer The observer to poll.
+     * @param source   The event source, which is read on its own thread.
+     * @param idle     The time to keep sampling after the last report, in milliseconds.
+     */
+    public MouseMotionSchedulerEvent(MouseMotionObserver observer, PointerSourceEvdev source, int idle) {
+        this.observer = observer;
+        this.source = source;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idle);
+    }
+
+    @Override
+    public void run() {
+        final Thread thread = Thread.currentThread();
+
+        while (thread == this.thread) {
+            int delay;
+
+            try {
+                delay = this.observer.poll();
+            } catch (RuntimeException e) {
+                ApplicationLogger.getInstance()
+                        .log(ApplicationLogger.ERROR, "Sampler: Failed to sample: %s", e);
+
+                delay = this.observer.getDelay();
+            }
+
+            final long reportNanos = this.source.getReportNanos();
+
+            // Any report in between unparks the thread, see start().
+            if (0L != reportNanos && System.nanoTime() - reportNanos < this.idleNanos) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(delay));
+            } else {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (null != this.thread) {
+            return;
+        }
+
+        final Thread thread = new Thread(this, "hotcorners-sampler");
+
+        thread.setPriority(Thread.MAX_PRIORITY);
+
+        this.thread = thread;
+        this.source.setReportListener(() -> LockSupport.unpark(thread));
+
+        final Thread reader = new Thread(this.source, "hotcorners-evdev");
+
+        reader.setDaemon(true);
+        reader.setPriority(Thread.MAX_PRIORITY);
+        reader.start();
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        final Thread thread = this.thread;
+
+        if (null == thread) {
+            return;
+        }
+
+        this.thread = null;
+        this.source.setReportListener(null);
+
+        try {
+            this.source.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        LockSupport.unpark(thread);
+    }
+}
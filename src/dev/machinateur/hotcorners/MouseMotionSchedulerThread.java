@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A scheduler running on its own thread, independent of the AWT event dispatch thread. Samples are paced by
+ * {@link System#nanoTime()} against absolute deadlines, so that the time spent polling and dispatching does not add up
+ * as drift. When falling behind by more than one full delay, the missed samples are skipped instead of being caught up
+ * in a burst.
+ */
+final public class MouseMotionSchedulerThread implements MouseMotionScheduler, Runnable {
+
+    private final MouseMotionObserver observer;
+
+    private volatile Thread thread;
+
+    public MouseMotionSchedulerThread(MouseMotionObserver observer) {
+        this.observer = observer;
+    }
+
+    @Override
+    public void run() {
+        final Thread thread = Thread.currentThread();
+        long deadline = System.nanoTime();
+
+        while (thread == this.thread) {
+            int delay;
+
+            try {
+                delay = this.observer.poll();
+            } catch (RuntimeException e) {
+                // Same as with the event dispatch thread, report the failure and continue with the next sample.
+                ApplicationLogger.getInstance()
+                        .log(ApplicationLogger.ERROR, "Sampler: Failed to sample: %s", e);
+
+                delay = this.observer.getDelay();
+            }
+
+            final long delayNanos = TimeUnit.MILLISECONDS.toNanos(delay);
+            long now = System.nanoTime();
+
+            deadline += delayNanos;
+
+            if (now - deadline > delayNanos) {
+                deadline = now;
+            }
+
+            while ((now = System.nanoTime()) < deadline && thread == this.thread) {
+                LockSupport.parkNanos(this, deadline - now);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (null != this.thread) {
+            return;
+        }
+
+        this.thread = new Thread(this, "hotcorners-sampler");
+        this.thread.setPriority(Thread.MAX_PRIORITY);
+        this.thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        final Thread thread = this.thread;
+
+        if (null == thread) {
+            return;
+        }
+
+        this.thread = null;
+
+        LockSupport.unpark(thread);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import javax.swing.Timer;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+/**
+ * A scheduler based on a {@link Timer}, i.e. polling on the AWT event dispatch thread.
+ */
+final public class MouseMotionSchedulerTimer implements MouseMotionScheduler, ActionListener {
+
+    private final MouseMotionObserver observer;
+
+    private final Timer timer;
+
+    public MouseMotionSchedulerTimer(MouseMotionObserver observer) {
+        this.observer = observer;
+
+        this.timer = new Timer(observer.getDelay(), this);
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent event) {
+        final int delay = this.observer.poll();
+
+        if (delay != this.timer.getDelay()) {
+            this.timer.setDelay(delay);
+        }
+    }
+
+    @Override
+    public void start() {
+        // Start on the event dispatch thread, so that it runs (and keeps the application alive) before the first tick.
+        EventQueue.invokeLater(this.timer::start);
+    }
+
+    @Override
+    public void stop() {
+        this.timer.stop();
+    }
+}
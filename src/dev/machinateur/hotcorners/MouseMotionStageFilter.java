@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+/**
+ * The de-duplication stage: Marks a sample as not moved, if its position is the same as the one of the last sample.
+ * Such samples are still passed on, as they drive any timer (e.g. the dwell time of an area).
+ */
+final public class MouseMotionStageFilter implements MouseMotionStage {
+
+    private boolean sampled;
+
+    private int x;
+
+    private int y;
+
+    private volatile ApplicationMetrics metrics;
+
+    @Override
+    public boolean process(MouseMotionSample sample) {
+        if (this.sampled && sample.getX() == this.x && sample.getY() == this.y) {
+            final ApplicationMetrics metrics = this.metrics;
+
+            if (null != metrics) {
+                metrics.recordSkippedSample();
+            }
+
+            sample.setMoved(false);
+        } else {
+            this.sampled = true;
+            this.x = sample.getX();
+            this.y = sample.getY();
+
+            sample.setMoved(true);
+        }
+
+        return true;
+    }
+
+    public void setMetrics(ApplicationMetrics metrics) {
+        this.metrics = metrics;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+/**
+ * The smoothing stage: An exponential moving average of the position, for a jittery source (e.g. a tablet). The
+ * smoothed position follows the sampled one by the given factor per sample, and snaps to it once within a pixel, so
+ * that the edges and corners of the screen are still reached exactly.
+ * <p>
+ * A sample is marked as moved, if the smoothed position has changed, so that a still pointer keeps converging.
+ */
+final public class MouseMotionStageSmoothing implements MouseMotionStage {
+
+    /**
+     * The share of the previous position to keep per sample, from {@code 0} (no smoothing) to below {@code 1}.
+     */
+    private final double factor;
+
+    private boolean sampled;
+
+    private double x;
+
+    private double y;
+
+    private int lastX;
+
+    private int lastY;
+
+    /**
+     * @param smoothing The percentage of the previous position to keep per sample, from {@code 0} to {@code 99}.
+     */
+    public MouseMotionStageSmoothing(int smoothing) {
+        if (smoothing < 0 || smoothing > 99) {
+            throw new IllegalArgumentException(String.format("Invalid smoothing %d!", smoothing));
+        }
+
+        this.factor = smoothing / 100d;
+    }
+
+    @Override
+    public boolean process(MouseMotionSample sample) {
+        final boolean first = !this.sampled;
+
+        if (first) {
+            this.sampled = true;
+            this.x = sample.getX();
+            this.y = sample.getY();
+        } else {
+            this.x = MouseMotionStageSmoothing.smooth(this.x, sample.getX(), this.factor);
+            this.y = MouseMotionStageSmoothing.smooth(this.y, sample.getY(), this.factor);
+        }
+
+        final int x = (int) Math.round(this.x);
+        final int y = (int) Math.round(this.y);
+
+        sample.setPosition(x, y);
+        sample.setMoved(first || x != this.lastX || y != this.lastY);
+
+        this.lastX = x;
+        this.lastY = y;
+
+        return true;
+    }
+
+    private static double smooth(double value, int target, double factor) {
+        final double result = value * factor + target * (1d - factor);
+
+        return Math.abs(target - result) < 1d ? target : result;
+    }
+}
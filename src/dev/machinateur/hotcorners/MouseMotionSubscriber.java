@@ -27,10 +27,15 @@ package dev.machinateur.hotcorners;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionListener;
 
-public abstract class MouseMotionSubscriber implements MouseMotionListener {
+public abstract class MouseMotionSubscriber implements MouseMotionListener, MouseMotionSampleListener {
 
     @Override
-    public abstract void mouseMoved(MouseEvent event);
+    public abstract void mouseMoved(long nanos, int x, int y);
+
+    @Override
+    public void mouseMoved(MouseEvent event) {
+        this.mouseMoved(System.nanoTime(), event.getX(), event.getY());
+    }
 
     @Override
     public final void mouseDragged(MouseEvent event) {
@@ -0,0 +1,276 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.*;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A pointer source reading the {@code input_event} records of a Linux evdev device node (e.g.
+ * {@code /dev/input/event3}), instead of polling the pointer location. Any other channel of such records works as well,
+ * e.g. a FIFO or a regular file of synthetic records. The records are read on their own thread (see {@link #run()})
+ * and decoded into a tracked pointer location, which is published on each {@code SYN_REPORT}:
+ * <ul>
+ *     <li>Relative motion ({@code EV_REL}) moves the location by the given delta.</li>
+ *     <li>Absolute motion ({@code EV_ABS}) maps the value from the range of the device to the bounds.</li>
+ * </ul>
+ * The location is always clamped to the bounds. Note, that relative motion is reported before any acceleration of
+ * the desktop, so the location only approximates the one of the visible pointer, but reaches the edges all the same.
+ * <p>
+ * The layout of the records is the one of 64-bit systems, i.e. {@code struct timeval} of two longs, followed by the
+ * type and code (unsigned short each) and the value (int), in native byte order.
+ */
+final public class PointerSourceEvdev implements PointerSource, Runnable, Closeable {
+
+    public static final int EVENT_SIZE = 24;
+
+    public static final int EV_SYN = 0x00;
+
+    public static final int EV_REL = 0x02;
+
+    public static final int EV_ABS = 0x03;
+
+    public static final int SYN_REPORT = 0x00;
+
+    public static final int SYN_DROPPED = 0x03;
+
+    public static final int REL_X = 0x00;
+
+    public static final int REL_Y = 0x01;
+
+    public static final int ABS_X = 0x00;
+
+    public static final int ABS_Y = 0x01;
+
+    protected static final int BUFFER_SIZE
+            = 64 * PointerSourceEvdev.EVENT_SIZE;
+
+    private final ReadableByteChannel channel;
+
+    private final Rectangle bounds;
+
+    private final Rectangle range;
+
+    private final ByteBuffer buffer;
+
+    /**
+     * The action to run on each report, i.e. when the location has changed.
+     */
+    private volatile Runnable reportListener;
+
+    /**
+     * The location as of the last report, packed into a single value, so that it is always read consistently, see
+     * {@link #getLocation(Point)}.
+     */
+    private volatile long location;
+
+    private volatile long reportNanos;
+
+    private volatile boolean reported;
+
+    private int x;
+
+    private int y;
+
+    /**
+     * Whether the events up to the next report are to be ignored, after the kernel dropped some.
+     */
+    private boolean dropped;
+
+    private long count;
+
+    /**
+     * @param channel The channel to read the records from.
+     * @param bounds  The bounds of the location, i.e. the screen.
+     * @param range   The range of the absolute values of the device, or {@code null} for the bounds themselves.
+     */
+    public PointerSourceEvdev(ReadableByteChannel channel, Rectangle bounds, Rectangle range) {
+        if (bounds.isEmpty() || (null != range && range.isEmpty())) {
+            throw new IllegalArgumentException(String.format("Invalid bounds %s or range %s!", bounds, range));
+        }
+
+        this.channel = channel;
+        this.bounds = new Rectangle(bounds);
+        this.range = null == range ? this.bounds : new Rectangle(range);
+        this.buffer = ByteBuffer.allocateDirect(PointerSourceEvdev.BUFFER_SIZE)
+                .order(ByteOrder.nativeOrder());
+
+        // Start at the center, as the actual location is unknown until the first absolute event.
+        this.x = (int) this.bounds.getCenterX();
+        this.y = (int) this.bounds.getCenterY();
+        this.location = PointerSourceEvdev.pack(this.x, this.y);
+    }
+
+    public static PointerSourceEvdev open(Path path, Rectangle bounds, Rectangle range) throws IOException {
+        return new PointerSourceEvdev(FileChannel.open(path, StandardOpenOption.READ), bounds, range);
+    }
+
+    @Override
+    public boolean getLocation(Point location) {
+        final long packed = this.location;
+
+        location.x = (int) (packed >> 32);
+        location.y = (int) packed;
+
+        return this.reported;
+    }
+
+    public void setReportListener(Runnable reportListener) {
+        this.reportListener = reportListener;
+    }
+
+    /**
+     * @return The time of the last report, see {@link System#nanoTime()}, or {@code 0} if there was none yet.
+     */
+    public long getReportNanos() {
+        return this.reportNanos;
+    }
+
+    /**
+     * @return The number of records read so far. Only to be called from the reading thread, or after it ended.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Read and decode records until the end of the channel, or until it is closed.
+     */
+    @Override
+    public void run() {
+        final ByteBuffer buffer = this.buffer;
+
+        try {
+            while (this.channel.read(buffer) >= 0) {
+                buffer.flip();
+
+                while (buffer.remaining() >= PointerSourceEvdev.EVENT_SIZE) {
+                    final int offset = buffer.position();
+
+                    // Skip the time, which is the wall clock time, not the monotonic one.
+                    this.decode(Short.toUnsignedInt(buffer.getShort(offset + 16)),
+                            Short.toUnsignedInt(buffer.getShort(offset + 18)), buffer.getInt(offset + 20));
+
+                    buffer.position(offset + PointerSourceEvdev.EVENT_SIZE);
+                }
+
+                buffer.compact();
+            }
+
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.INFO, "Evdev: End of input after %d events.", this.count);
+        } catch (ClosedChannelException e) {
+            // Closed on stop, see close().
+        } catch (IOException e) {
+            ApplicationLogger.getInstance()
+                    .log(ApplicationLogger.ERROR, "Evdev: Failed to read: %s", e);
+        }
+    }
+
+    private void decode(int type, int code, int value) {
+        this.count++;
+
+        switch (type) {
+            case PointerSourceEvdev.EV_REL -> {
+                if (this.dropped) {
+                    return;
+                }
+
+                if (PointerSourceEvdev.REL_X == code) {
+                    this.x = this.clamp((long) this.x + value, this.bounds.x, this.bounds.width);
+                } else if (PointerSourceEvdev.REL_Y == code) {
+                    this.y = this.clamp((long) this.y + value, this.bounds.y, this.bounds.height);
+                }
+            }
+            case PointerSourceEvdev.EV_ABS -> {
+                if (this.dropped) {
+                    return;
+                }
+
+                if (PointerSourceEvdev.ABS_X == code) {
+                    this.x = this.clamp(this.bounds.x + Math.round((double) (value - this.range.x) * this.bounds.width / this.range.width),
+                            this.bounds.x, this.bounds.width);
+                } else if (PointerSourceEvdev.ABS_Y == code) {
+                    this.y = this.clamp(this.bounds.y + Math.round((double) (value - this.range.y) * this.bounds.height / this.range.height),
+                            this.bounds.y, this.bounds.height);
+                }
+            }
+            case PointerSourceEvdev.EV_SYN -> {
+                if (PointerSourceEvdev.SYN_DROPPED == code) {
+                    this.dropped = true;
+                } else if (PointerSourceEvdev.SYN_REPORT == code) {
+                    if (this.dropped) {
+                        // Relative events of the incomplete report are lost, so there is nothing to resynchronize.
+                        this.dropped = false;
+                    }
+
+                    this.report();
+                }
+            }
+            default -> {
+                // Buttons, wheel and everything else are of no interest.
+            }
+        }
+    }
+
+    private int clamp(long value, int offset, int length) {
+        return (int) Math.max(offset, Math.min(offset + length - 1L, value));
+    }
+
+    private void report() {
+        final long location = PointerSourceEvdev.pack(this.x, this.y);
+
+        if (this.reported && location == this.location) {
+            return;
+        }
+
+        this.location = location;
+        this.reportNanos = System.nanoTime();
+        this.reported = true;
+
+        final Runnable reportListener = this.reportListener;
+
+        if (null != reportListener) {
+            reportListener.run();
+        }
+    }
+
+    private static long pack(int x, int y) {
+        return (long) x << 32 | (y & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
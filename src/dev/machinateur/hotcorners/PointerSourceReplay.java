@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.*;
+
+/**
+ * A pointer source replaying previously captured locations, one per sample. Once all locations are replayed, the
+ * source either starts over or stays at the last location.
+ */
+final public class PointerSourceReplay implements PointerSource {
+
+    private final int[] xArray;
+
+    private final int[] yArray;
+
+    private final boolean loop;
+
+    private int index;
+
+    public PointerSourceReplay(int[] xArray, int[] yArray, boolean loop) {
+        if (xArray.length != yArray.length || 0 == xArray.length) {
+            throw new IllegalArgumentException("Coordinates must be non-empty and equal in length!");
+        }
+
+        this.xArray = xArray.clone();
+        this.yArray = yArray.clone();
+        this.loop = loop;
+    }
+
+    @Override
+    public boolean getLocation(Point location) {
+        if (this.index >= this.xArray.length) {
+            this.index = this.loop ? 0 : this.xArray.length - 1;
+        }
+
+        location.x = this.xArray[this.index];
+        location.y = this.yArray[this.index];
+
+        this.index++;
+
+        return true;
+    }
+
+    public boolean isExhausted() {
+        return !this.loop && this.index >= this.xArray.length;
+    }
+
+    public int size() {
+        return this.xArray.length;
+    }
+}
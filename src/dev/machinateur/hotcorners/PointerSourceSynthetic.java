@@ -0,0 +1,184 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.*;
+import java.util.Random;
+
+/**
+ * A synthetic pointer source, that moves along a trajectory of waypoints in linear steps. The waypoints are either
+ * scripted, or generated randomly within the given bounds, where every few moves go straight to one of the corners.
+ * Does not depend on any screen, so it's safe to use with {@code java.awt.headless=true}.
+ */
+final public class PointerSourceSynthetic implements PointerSource {
+
+    protected static final int RANDOM_STEPS_MINIMUM
+            = 2;
+
+    protected static final int RANDOM_STEPS_MAXIMUM
+            = 50;
+
+    protected static final int RANDOM_CORNER_RATIO
+            = 4;
+
+    private final int[] waypointArray;
+
+    private final int steps;
+
+    private final Rectangle bounds;
+
+    private final Random random;
+
+    private int fromX;
+
+    private int fromY;
+
+    private int toX;
+
+    private int toY;
+
+    private int segmentSteps;
+
+    private int step;
+
+    private int waypoint;
+
+    private PointerSourceSynthetic(int[] waypointArray, int steps, Rectangle bounds, Random random) {
+        this.waypointArray = waypointArray;
+        this.steps = steps;
+        this.bounds = bounds;
+        this.random = random;
+
+        if (null == random) {
+            this.fromX = this.toX = waypointArray[0];
+            this.fromY = this.toY = waypointArray[1];
+            this.waypoint = 1;
+        } else {
+            this.fromX = this.toX = bounds.x + bounds.width / 2;
+            this.fromY = this.toY = bounds.y + bounds.height / 2;
+        }
+    }
+
+    /**
+     * Create a source moving from waypoint to waypoint, in the given number of steps each. The source stays at the last
+     * waypoint, once it's reached.
+     *
+     * @param steps     The number of samples per move.
+     * @param waypoints The waypoints, at least one.
+     * @return The source.
+     */
+    public static PointerSourceSynthetic scripted(int steps, Point... waypoints) {
+        if (waypoints.length < 1 || steps < 1) {
+            throw new IllegalArgumentException("At least one waypoint and step required!");
+        }
+
+        final int[] waypointArray = new int[waypoints.length * 2];
+
+        for (int i = 0; i < waypoints.length; i++) {
+            waypointArray[i * 2] = waypoints[i].x;
+            waypointArray[i * 2 + 1] = waypoints[i].y;
+        }
+
+        return new PointerSourceSynthetic(waypointArray, steps, null, null);
+    }
+
+    /**
+     * Create a source moving randomly within the given bounds, including every corner. The same seed always yields
+     * the same trajectory.
+     *
+     * @param bounds The bounds, usually the screen.
+     * @param seed   The random seed.
+     * @return The source.
+     */
+    public static PointerSourceSynthetic randomized(Rectangle bounds, long seed) {
+        if (bounds.isEmpty()) {
+            throw new IllegalArgumentException("Empty bounds not allowed!");
+        }
+
+        return new PointerSourceSynthetic(null, 0, new Rectangle(bounds), new Random(seed));
+    }
+
+    @Override
+    public boolean getLocation(Point location) {
+        if (this.step >= this.segmentSteps) {
+            this.nextSegment();
+        }
+
+        if (0 == this.segmentSteps) {
+            location.setLocation(this.toX, this.toY);
+
+            return true;
+        }
+
+        this.step++;
+
+        location.x = this.fromX + (int) ((long) (this.toX - this.fromX) * this.step / this.segmentSteps);
+        location.y = this.fromY + (int) ((long) (this.toY - this.fromY) * this.step / this.segmentSteps);
+
+        return true;
+    }
+
+    private void nextSegment() {
+        this.fromX = this.toX;
+        this.fromY = this.toY;
+        this.step = 0;
+
+        if (null == this.random) {
+            if (this.isExhausted()) {
+                this.segmentSteps = 0;
+
+                return;
+            }
+
+            this.toX = this.waypointArray[this.waypoint * 2];
+            this.toY = this.waypointArray[this.waypoint * 2 + 1];
+            this.segmentSteps = this.steps;
+            this.waypoint++;
+        } else {
+            final Random random = this.random;
+            final Rectangle bounds = this.bounds;
+
+            if (0 == random.nextInt(PointerSourceSynthetic.RANDOM_CORNER_RATIO)) {
+                this.toX = random.nextBoolean() ? bounds.x : bounds.x + bounds.width - 1;
+                this.toY = random.nextBoolean() ? bounds.y : bounds.y + bounds.height - 1;
+            } else {
+                this.toX = bounds.x + random.nextInt(bounds.width);
+                this.toY = bounds.y + random.nextInt(bounds.height);
+            }
+
+            this.segmentSteps = PointerSourceSynthetic.RANDOM_STEPS_MINIMUM + random.nextInt(
+                    PointerSourceSynthetic.RANDOM_STEPS_MAXIMUM - PointerSourceSynthetic.RANDOM_STEPS_MINIMUM + 1);
+        }
+    }
+
+    /**
+     * @return Whether the last scripted waypoint is reached, always {@code false} for random sources.
+     */
+    public boolean isExhausted() {
+        return null == this.random
+                && this.waypoint * 2 >= this.waypointArray.length
+                && this.step >= this.segmentSteps;
+    }
+}
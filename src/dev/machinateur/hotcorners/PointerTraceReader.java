@@ -0,0 +1,183 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reads a trace file written by the {@link PointerTraceRecorder}, memory-mapped, so that even traces of millions of
+ * samples are not loaded into the heap. The samples are read in order, with a cursor, or replayed into an observer.
+ */
+final public class PointerTraceReader implements Closeable {
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final long startNanos;
+
+    private final int size;
+
+    private int index;
+
+    private long nanos;
+
+    private int x;
+
+    private int y;
+
+    public PointerTraceReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        final long length = this.channel.size();
+
+        if (length < PointerTraceRecorder.HEADER_SIZE || length > Integer.MAX_VALUE) {
+            this.channel.close();
+
+            throw new IOException(String.format("Invalid trace file size %d!", length));
+        }
+
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, 0L, length);
+
+        if (PointerTraceRecorder.MAGIC != this.buffer.getInt(0)
+                || PointerTraceRecorder.VERSION != this.buffer.getShort(4)
+                || PointerTraceRecorder.RECORD_SIZE != this.buffer.getShort(6)) {
+            this.channel.close();
+
+            throw new IOException("Invalid trace file header!");
+        }
+
+        this.startNanos = this.buffer.getLong(8);
+        // Any incomplete record at the end (e.g. after a crash) is ignored.
+        this.size = (int) ((length - PointerTraceRecorder.HEADER_SIZE) / PointerTraceRecorder.RECORD_SIZE);
+
+        this.rewind();
+    }
+
+    public void rewind() {
+        this.index = 0;
+        this.nanos = this.startNanos;
+    }
+
+    /**
+     * Advance the cursor to the next sample.
+     *
+     * @return Whether there was another sample.
+     */
+    public boolean next() {
+        if (this.index >= this.size) {
+            return false;
+        }
+
+        final int offset = PointerTraceRecorder.HEADER_SIZE + this.index++ * PointerTraceRecorder.RECORD_SIZE;
+
+        this.nanos += TimeUnit.MICROSECONDS.toNanos(this.buffer.getInt(offset));
+        this.x = this.buffer.getShort(offset + 4);
+        this.y = this.buffer.getShort(offset + 6);
+
+        return true;
+    }
+
+    /**
+     * @return The time of the current sample, as recorded, see {@link System#nanoTime()}.
+     */
+    public long getNanos() {
+        return this.nanos;
+    }
+
+    public int getX() {
+        return this.x;
+    }
+
+    public int getY() {
+        return this.y;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return The time from the first to the last sample, in nanoseconds.
+     */
+    public long getDuration() {
+        long duration = 0L;
+
+        for (int i = 1; i < this.size; i++) {
+            duration += TimeUnit.MICROSECONDS.toNanos(this.buffer.getInt(PointerTraceRecorder.HEADER_SIZE + i * PointerTraceRecorder.RECORD_SIZE));
+        }
+
+        return duration;
+    }
+
+    /**
+     * Replay all samples from the start into the observer, shifted to the current time.
+     *
+     * @param observer The observer to feed, see {@link MouseMotionObserver#sample(long, int, int)}.
+     * @param realTime Whether to keep the recorded time between the samples, or to replay as fast as possible.
+     * @return The number of samples replayed, less than all if interrupted.
+     */
+    public int replay(MouseMotionObserver observer, boolean realTime) {
+        final Thread thread = Thread.currentThread();
+        long offset = 0L;
+        int count = 0;
+
+        this.rewind();
+
+        while (!thread.isInterrupted() && this.next()) {
+            if (0 == count) {
+                offset = System.nanoTime() - this.nanos;
+            }
+
+            final long nanos = this.nanos + offset;
+
+            if (realTime) {
+                long now;
+
+                while ((now = System.nanoTime()) < nanos && !thread.isInterrupted()) {
+                    LockSupport.parkNanos(this, nanos - now);
+                }
+            }
+
+            observer.sample(nanos, this.x, this.y);
+
+            count++;
+        }
+
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
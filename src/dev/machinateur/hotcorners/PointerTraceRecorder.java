@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every sample (moved or still) of a {@link MouseMotionObserver} into a compact binary trace file, to be
+ * replayed by the {@link PointerTraceReader}. The file starts with a header of {@link #HEADER_SIZE} bytes:
+ * <ul>
+ *     <li>the {@link #MAGIC} number (int),</li>
+ *     <li>the {@link #VERSION} (short),</li>
+ *     <li>the size of each record (short), which is {@link #RECORD_SIZE},</li>
+ *     <li>the time of the first sample, see {@link System#nanoTime()} (long).</li>
+ * </ul>
+ * Each sample follows as fixed-width record of the microseconds since the previous sample (int), and the x and y
+ * coordinates (short each), clamped to their range.
+ * <p>
+ * Records are buffered and written in blocks, so the sampler only ever touches the file once every few thousand
+ * samples.
+ */
+final public class PointerTraceRecorder implements MouseMotionSampleListener, Closeable {
+
+    public static final int MAGIC = 0x48435452;
+
+    public static final short VERSION = 1;
+
+    public static final int HEADER_SIZE = 16;
+
+    public static final int RECORD_SIZE = 8;
+
+    protected static final int BUFFER_SIZE
+            = 64 * 1024;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer;
+
+    /**
+     * The time of the previous sample, as reconstructed from the recorded deltas, so that rounding does not add up.
+     */
+    private long nanos;
+
+    private boolean started;
+
+    private long count;
+
+    public PointerTraceRecorder(Path path) throws IOException {
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocateDirect(PointerTraceRecorder.BUFFER_SIZE);
+    }
+
+    @Override
+    public void mouseMoved(long nanos, int x, int y) {
+        this.record(nanos, x, y);
+    }
+
+    @Override
+    public void mouseStill(long nanos, int x, int y) {
+        this.record(nanos, x, y);
+    }
+
+    private synchronized void record(long nanos, int x, int y) {
+        if (!this.channel.isOpen()) {
+            return;
+        }
+
+        if (!this.started) {
+            this.started = true;
+            this.nanos = nanos;
+
+            this.buffer.putInt(PointerTraceRecorder.MAGIC)
+                    .putShort(PointerTraceRecorder.VERSION)
+                    .putShort((short) PointerTraceRecorder.RECORD_SIZE)
+                    .putLong(nanos);
+        }
+
+        final long delta = Math.max(0L, Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMicros(nanos - this.nanos)));
+
+        this.nanos += TimeUnit.MICROSECONDS.toNanos(delta);
+        this.count++;
+
+        this.buffer.putInt((int) delta)
+                .putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, x)))
+                .putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, y)));
+
+        if (this.buffer.remaining() < PointerTraceRecorder.RECORD_SIZE) {
+            this.flush();
+        }
+    }
+
+    private void flush() {
+        this.buffer.flip();
+
+        try {
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            this.buffer.clear();
+        }
+    }
+
+    /**
+     * @return The number of samples recorded so far.
+     */
+    public synchronized long size() {
+        return this.count;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!this.channel.isOpen()) {
+            return;
+        }
+
+        try {
+            this.flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+}
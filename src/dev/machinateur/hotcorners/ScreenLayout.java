@@ -0,0 +1,54 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.*;
+
+/**
+ * The layout of all screens on the virtual desktop, i.e. in the coordinate system of the mouse pointer. Screens may
+ * have negative origins (e.g. left of or above the primary screen), and with mixed scale factors there may be gaps or
+ * overlaps between them, so each screen is to be treated on its own.
+ */
+public interface ScreenLayout {
+
+    /**
+     * @return The bounds of all screens, in a stable order, or an empty array if there is no screen at all.
+     */
+    Rectangle[] getScreenBounds();
+
+    /**
+     * @param screenArray The bounds of the screens.
+     * @return The bounds of the virtual desktop, i.e. of all screens, or {@code null} if there is no screen at all.
+     */
+    static Rectangle getVirtualBounds(Rectangle[] screenArray) {
+        Rectangle bounds = null;
+
+        for (Rectangle screen : screenArray) {
+            bounds = null == bounds ? new Rectangle(screen) : bounds.union(screen);
+        }
+
+        return bounds;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The layout of the screens as reported by AWT, see {@link GraphicsEnvironment#getScreenDevices()}. The bounds are in
+ * user space, same as the location of the mouse pointer (see {@link MouseInfo#getPointerInfo()}), so that no scale
+ * factor has to be applied. The screens are ordered from left to right, then top to bottom.
+ * <p>
+ * When headless, there is no screen at all.
+ */
+final public class ScreenLayoutAwt implements ScreenLayout {
+
+    private static final Comparator<Rectangle> SCREEN_ORDER = Comparator
+            .comparingInt((Rectangle screen) -> screen.x)
+            .thenComparingInt(screen -> screen.y);
+
+    @Override
+    public Rectangle[] getScreenBounds() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new Rectangle[0];
+        }
+
+        final GraphicsDevice[] deviceArray = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getScreenDevices();
+        final Rectangle[] screenArray = new Rectangle[deviceArray.length];
+
+        for (int i = 0; i < deviceArray.length; i++) {
+            screenArray[i] = deviceArray[i].getDefaultConfiguration()
+                    .getBounds();
+        }
+
+        Arrays.sort(screenArray, ScreenLayoutAwt.SCREEN_ORDER);
+
+        return screenArray;
+    }
+}
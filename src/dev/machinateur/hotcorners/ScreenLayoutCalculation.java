@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The corner areas calculated per screen of the current layout, see
+ * {@link ApplicationConfigurationCalculation#calculate(Rectangle)}. On a change of the layout, only the screens with
+ * new bounds are calculated again, the areas of all other screens are kept.
+ */
+final public class ScreenLayoutCalculation {
+
+    /**
+     * Whether to calculate the corner areas at all, or only track the screens.
+     */
+    private final boolean corners;
+
+    private final Map<Rectangle, Map<Rectangle, int[]>> cornerMap;
+
+    private Rectangle[] screenArray;
+
+    public ScreenLayoutCalculation(boolean corners) {
+        this.corners = corners;
+        this.cornerMap = new HashMap<Rectangle, Map<Rectangle, int[]>>();
+        this.screenArray = new Rectangle[0];
+    }
+
+    /**
+     * Update the screens.
+     *
+     * @param screenArray The bounds of the screens.
+     * @return The number of screens calculated again, or {@code -1} if the screens did not change.
+     */
+    public synchronized int update(Rectangle[] screenArray) {
+        if (Arrays.equals(this.screenArray, screenArray)) {
+            return -1;
+        }
+
+        final Map<Rectangle, Map<Rectangle, int[]>> cornerMap = new HashMap<Rectangle, Map<Rectangle, int[]>>();
+        int count = 0;
+
+        for (Rectangle screen : screenArray) {
+            Map<Rectangle, int[]> areaMap = this.cornerMap.get(screen);
+
+            if (null == areaMap && this.corners) {
+                areaMap = ApplicationConfigurationCalculation.calculate(screen);
+                count++;
+            }
+            if (null != areaMap) {
+                cornerMap.put(new Rectangle(screen), areaMap);
+            }
+        }
+
+        // Drop the areas of any screen that's gone.
+        this.cornerMap.clear();
+        this.cornerMap.putAll(cornerMap);
+        this.screenArray = screenArray.clone();
+
+        return count;
+    }
+
+    /**
+     * @return The bounds of the screens.
+     */
+    public synchronized Rectangle[] getScreenArray() {
+        return this.screenArray.clone();
+    }
+
+    /**
+     * @return The corner areas of all screens, with their key strokes.
+     */
+    public synchronized Map<Rectangle, int[]> getAreaMap() {
+        final Map<Rectangle, int[]> areaMap = new HashMap<Rectangle, int[]>();
+
+        for (Rectangle screen : this.screenArray) {
+            areaMap.putAll(this.cornerMap.getOrDefault(screen, Map.of()));
+        }
+
+        return areaMap;
+    }
+
+    public boolean isCorners() {
+        return this.corners;
+    }
+}
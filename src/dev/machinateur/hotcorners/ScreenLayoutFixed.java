@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.*;
+
+/**
+ * A layout of fixed screens, e.g. configured by {@code layout.screens} on a headless machine, or set by a test to
+ * simulate a change of the layout.
+ */
+final public class ScreenLayoutFixed implements ScreenLayout {
+
+    protected static final String SCREEN_SPLIT_REGEX
+            = ";";
+
+    protected static final String COORDINATE_SPLIT_REGEX
+            = ",";
+
+    private volatile Rectangle[] screenArray;
+
+    public ScreenLayoutFixed(Rectangle... screenArray) {
+        this.setScreenBounds(screenArray);
+    }
+
+    /**
+     * Parse the layout.
+     *
+     * @param value The screens as {@code x0,y0,x1,y1}, separated by {@code ;}, e.g. {@code -1280,0,0,1024; 0,0,1920,1080}.
+     * @return The layout.
+     */
+    public static ScreenLayoutFixed parse(String value) {
+        final String[] screenList = value.split(ScreenLayoutFixed.SCREEN_SPLIT_REGEX);
+        final Rectangle[] screenArray = new Rectangle[screenList.length];
+
+        for (int i = 0; i < screenList.length; i++) {
+            final String[] coordinateList = screenList[i].split(ScreenLayoutFixed.COORDINATE_SPLIT_REGEX);
+
+            if (4 != coordinateList.length) {
+                throw new IllegalArgumentException(String.format("Invalid screen '%s'!", screenList[i].trim()));
+            }
+
+            screenArray[i] = new Rectangle(Integer.parseInt(coordinateList[0].trim()), Integer.parseInt(coordinateList[1].trim()), 0, 0);
+            screenArray[i].add(Integer.parseInt(coordinateList[2].trim()), Integer.parseInt(coordinateList[3].trim()));
+        }
+
+        return new ScreenLayoutFixed(screenArray);
+    }
+
+    @Override
+    public Rectangle[] getScreenBounds() {
+        return ScreenLayoutFixed.copy(this.screenArray);
+    }
+
+    public void setScreenBounds(Rectangle... screenArray) {
+        for (Rectangle screen : screenArray) {
+            if (screen.isEmpty()) {
+                throw new IllegalArgumentException(String.format("Empty screen %s!", screen));
+            }
+        }
+
+        this.screenArray = ScreenLayoutFixed.copy(screenArray);
+    }
+
+    private static Rectangle[] copy(Rectangle[] screenArray) {
+        final Rectangle[] copyArray = new Rectangle[screenArray.length];
+
+        for (int i = 0; i < screenArray.length; i++) {
+            copyArray[i] = new Rectangle(screenArray[i]);
+        }
+
+        return copyArray;
+    }
+}
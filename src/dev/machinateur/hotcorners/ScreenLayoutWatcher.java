@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Checks the screen layout for changes periodically, and runs the given callback on its own thread after each change.
+ * A check only reads the bounds of each screen, so it's cheap enough to run every few seconds.
+ */
+final public class ScreenLayoutWatcher implements Runnable {
+
+    private final ScreenLayout screenLayout;
+
+    private final int interval;
+
+    private final Consumer<Rectangle[]> callback;
+
+    private final Thread thread;
+
+    private Rectangle[] screenArray;
+
+    /**
+     * @param screenLayout The layout to check.
+     * @param interval     The time between two checks in milliseconds.
+     * @param callback     The callback to run with the new screens.
+     */
+    public ScreenLayoutWatcher(ScreenLayout screenLayout, int interval, Consumer<Rectangle[]> callback) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid layout interval %d!", interval));
+        }
+
+        this.screenLayout = screenLayout;
+        this.interval = interval;
+        this.callback = callback;
+        this.screenArray = screenLayout.getScreenBounds();
+
+        this.thread = new Thread(this, "hotcorners-layout");
+        this.thread.setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                TimeUnit.MILLISECONDS.sleep(this.interval);
+
+                final Rectangle[] screenArray;
+
+                try {
+                    screenArray = this.screenLayout.getScreenBounds();
+                } catch (RuntimeException e) {
+                    ApplicationLogger.getInstance()
+                            .log(ApplicationLogger.WARN, "Layout: Screens not available: %s", e.toString());
+
+                    continue;
+                }
+
+                if (!Arrays.equals(this.screenArray, screenArray)) {
+                    this.screenArray = screenArray;
+
+                    // A failed relayout must not end the watcher, the next change may succeed.
+                    try {
+                        this.callback.accept(screenArray);
+                    } catch (RuntimeException e) {
+                        ApplicationLogger.getInstance()
+                                .log(ApplicationLogger.ERROR, "Layout: Failed to relayout: %s", e.toString());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // Stopped.
+        }
+    }
+
+    public void start() {
+        this.thread.start();
+    }
+
+    public void stop() {
+        this.thread.interrupt();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2022 machinateur
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.machinateur.hotcorners;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The dispatch of a sample to primitive listeners (see {@link MouseMotionSampleListener}) must not allocate, as it
+ * runs for every sample. The allocation of the current thread is measured after a warmup, so that the JIT compiler is
+ * done with the path.
+ */
+public class MouseMotionObserverTest {
+
+    private static final int LISTENER_COUNT
+            = 8;
+
+    private static final int WARMUP_COUNT
+            = 200_000;
+
+    private static final int SAMPLE_COUNT
+            = 100_000;
+
+    private final com.sun.management.ThreadMXBean threadBean
+            = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private MouseMotionObserver observer;
+
+    private long sum;
+
+    private int x;
+
+    @BeforeEach
+    public void setUp() {
+        assertTrue(this.threadBean.isThreadAllocatedMemorySupported(), "Thread allocation must be measurable!");
+
+        this.threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        // Alternate the position, so that no sample is skipped as unchanged.
+        final PointerSource pointerSource = location -> {
+            location.setLocation(this.x ^= 1, 0);
+
+            return true;
+        };
+
+        this.observer = new MouseMotionObserver(new Canvas(), pointerSource, new MouseMotionDelay(10), false);
+
+        for (int i = 0; i < MouseMotionObserverTest.LISTENER_COUNT; i++) {
+            this.observer.addMouseMotionSampleListener((nanos, x, y) -> this.sum += x + y);
+            this.observer.addMouseMotionSampleListener(new MouseMotionSampleListener() {
+                @Override
+                public void mouseMoved(long nanos, int x, int y) {
+                    MouseMotionObserverTest.this.sum += x;
+                }
+            });
+        }
+    }
+
+    @Test
+    public void sampleDoesNotAllocate() {
+        for (int i = 0; i < MouseMotionObserverTest.WARMUP_COUNT; i++) {
+            this.sample(i);
+        }
+
+        final long allocated = this.threadBean.getCurrentThreadAllocatedBytes();
+
+        for (int i = 0; i < MouseMotionObserverTest.SAMPLE_COUNT; i++) {
+            this.sample(i);
+        }
+
+        assertEquals(0L, this.threadBean.getCurrentThreadAllocatedBytes() - allocated,
+                "Bytes allocated by " + MouseMotionObserverTest.SAMPLE_COUNT + " samples");
+        assertTrue(0L < this.sum);
+    }
+
+    @Test
+    public void pollDoesNotAllocate() {
+        for (int i = 0; i < MouseMotionObserverTest.WARMUP_COUNT; i++) {
+            this.observer.poll();
+        }
+
+        final long allocated = this.threadBean.getCurrentThreadAllocatedBytes();
+
+        for (int i = 0; i < MouseMotionObserverTest.SAMPLE_COUNT; i++) {
+            this.observer.poll();
+        }
+
+        assertEquals(0L, this.threadBean.getCurrentThreadAllocatedBytes() - allocated,
+                "Bytes allocated by " + MouseMotionObserverTest.SAMPLE_COUNT + " polls");
+        assertTrue(0L < this.sum);
+    }
+
+    private void sample(int i) {
+        // Every fourth sample is unchanged, so that the path of an unchanged position is covered as well.
+        this.observer.sample(i, 0 == i % 4 ? this.x : (this.x ^= 1), 0);
+    }
+}